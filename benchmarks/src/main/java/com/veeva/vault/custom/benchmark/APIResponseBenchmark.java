@@ -0,0 +1,103 @@
+/*
+ * --------------------------------------------------------------------
+ * Benchmark:   APIResponseBenchmark
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: VpsAPIResponse / VpsVQLResponse parsing over realistic
+ *              payload sizes
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.benchmark;
+
+import com.veeva.vault.custom.external.VpsClientJsonService;
+import com.veeva.vault.custom.util.api.VpsAPIResponse;
+import com.veeva.vault.custom.util.api.VpsVQLResponse;
+import com.veeva.vault.sdk.api.json.JsonArray;
+import com.veeva.vault.sdk.api.json.JsonObject;
+import com.veeva.vault.sdk.api.json.JsonService;
+import com.veeva.vault.sdk.api.json.JsonValueType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class APIResponseBenchmark {
+
+    //single record, a default page, a maximum size page
+    @Param({"1", "1000", "5000"})
+    public int rows;
+
+    private final JsonService jsonService = new VpsClientJsonService();
+    private String vqlBody;
+    private String errorBody;
+
+    @Setup
+    public void setup() {
+        vqlBody = Payloads.vqlResponse(rows, 1000);
+        errorBody = Payloads.errorResponse();
+    }
+
+    /**
+     * Status check only, as done by VpsAPIClient before reading results
+     */
+    @Benchmark
+    public String responseStatus() {
+        VpsAPIResponse response = new VpsAPIResponse(vqlBody);
+        response.setJsonService(jsonService);
+        return response.getResponseStatus();
+    }
+
+    @Benchmark
+    public String errorType() {
+        VpsAPIResponse response = new VpsAPIResponse(errorBody);
+        response.setJsonService(jsonService);
+        return response.getErrors().getValue(0, JsonValueType.OBJECT).getValue("type", JsonValueType.STRING);
+    }
+
+    /**
+     * Full read of every row, as done by the message processor
+     */
+    @Benchmark
+    public void readAllRows(Blackhole blackhole) {
+        VpsVQLResponse response = new VpsVQLResponse(vqlBody);
+        response.setJsonService(jsonService);
+        blackhole.consume(response.getResponseStatus());
+        blackhole.consume(response.getNextPage());
+        JsonArray data = response.getData();
+        for (int i = 0; i < data.getSize(); i++) {
+            JsonObject row = data.getValue(i, JsonValueType.OBJECT);
+            blackhole.consume(row.getValue("document_id__c", JsonValueType.STRING));
+            blackhole.consume(row.getValue("major_version_number__v", JsonValueType.NUMBER));
+        }
+    }
+
+    @Benchmark
+    public String rawJsonRoundTrip() {
+        VpsVQLResponse response = new VpsVQLResponse(vqlBody);
+        response.setJsonService(jsonService);
+        response.getData();
+        return response.getRawJson();
+    }
+}
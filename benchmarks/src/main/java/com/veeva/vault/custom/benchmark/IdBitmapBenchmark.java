@@ -0,0 +1,97 @@
+/*
+ * --------------------------------------------------------------------
+ * Benchmark:   IdBitmapBenchmark
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Loading, lookups and gap scans of VpsIdBitmap over the
+ *              Document ID space
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.benchmark;
+
+import com.veeva.vault.custom.util.VpsIdBitmap;
+import com.veeva.vault.custom.util.VpsSequenceGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdBitmapBenchmark {
+
+    private static final int DOCID_MAX_VALUE = 728999999;
+
+    //issued Document IDs, one in every 1000 missing
+    @Param({"1000000", "10000000"})
+    public int issuedCount;
+
+    private VpsIdBitmap bitmap;
+    private String[] base30Ids;
+    private int probe = 0;
+
+    @Setup
+    public void setup() {
+        bitmap = fill(new VpsIdBitmap(DOCID_MAX_VALUE));
+        VpsSequenceGenerator generator = new VpsSequenceGenerator();
+        base30Ids = new String[100000];
+        for (int i = 0; i < base30Ids.length; i++) {
+            base30Ids[i] = generator.getBase30Number(i + 1, 6, "0");
+        }
+    }
+
+    @Benchmark
+    public VpsIdBitmap load() {
+        return fill(new VpsIdBitmap(DOCID_MAX_VALUE));
+    }
+
+    @Benchmark
+    public VpsIdBitmap loadBase30_100k() {
+        VpsIdBitmap base30Bitmap = new VpsIdBitmap(DOCID_MAX_VALUE);
+        for (String base30Id : base30Ids) {
+            base30Bitmap.addBase30(base30Id);
+        }
+        return base30Bitmap;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean contains() {
+        probe = (probe + 7919) % issuedCount;
+        return bitmap.contains(probe);
+    }
+
+    @Benchmark
+    public List<int[]> gapReport() {
+        return bitmap.getGaps(0, DOCID_MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    private VpsIdBitmap fill(VpsIdBitmap target) {
+        for (int value = 1; value <= issuedCount; value++) {
+            if (value % 1000 != 0) {
+                target.add(value);
+            }
+        }
+        return target;
+    }
+}
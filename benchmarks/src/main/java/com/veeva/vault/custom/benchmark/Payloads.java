@@ -0,0 +1,110 @@
+/*
+ * --------------------------------------------------------------------
+ * Benchmark:   Payloads
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Realistic Vault API response bodies and id lists
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.benchmark;
+
+import com.veeva.vault.custom.util.VpsSequenceGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * /query response over allversions documents, shaped like the one read by VpsDocIdMessageProcessor
+     *
+     * @param rows number of data rows
+     * @param pageSize page size reported in responseDetails; total is twice the rows so a next_page is included
+     */
+    public static String vqlResponse(int rows, int pageSize) {
+        return vqlPage("00001", 0, rows, rows * 2, pageSize);
+    }
+
+    /**
+     * One page of a /query response over allversions documents
+     *
+     * @param queryId id used in the next_page url
+     * @param offset offset of the first row on this page
+     * @param rows number of data rows on this page
+     * @param total total number of rows of the query
+     * @param pageSize page size reported in responseDetails
+     */
+    public static String vqlPage(String queryId, int offset, int rows, int total, int pageSize) {
+        StringBuilder json = new StringBuilder(rows * 220 + 512);
+        json.append("{\"responseStatus\":\"SUCCESS\",\"responseDetails\":{")
+                .append("\"pagesize\":").append(pageSize)
+                .append(",\"pageoffset\":").append(offset)
+                .append(",\"size\":").append(rows)
+                .append(",\"total\":").append(total);
+        if (offset + rows < total) {
+            json.append(",\"next_page\":\"/api/v19.1/query/").append(queryId)
+                    .append("?pagesize=").append(pageSize)
+                    .append("&pageoffset=").append(offset + rows).append('"');
+        }
+        json.append("},\"data\":[");
+        for (int i = offset; i < offset + rows; i++) {
+            if (i > offset) {
+                json.append(',');
+            }
+            int docId = 100000 + i / 3;
+            json.append("{\"id\":").append(docId)
+                    .append(",\"major_version_number__v\":").append(i % 3)
+                    .append(",\"minor_version_number__v\":").append(i % 2)
+                    .append(",\"document_id__c\":\"").append(base30(docId)).append('"')
+                    .append(",\"export_filename__v\":\"").append(base30(docId)).append('"')
+                    .append(",\"binder__v\":").append(i % 10 == 0)
+                    .append(",\"name__v\":\"Clinical Study Report ").append(docId).append(" - Module 5.3\"")
+                    .append(",\"status__v\":\"Approved\"}");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    /**
+     * Application level failure as returned with HTTP 200
+     */
+    public static String errorResponse() {
+        return "{\"responseStatus\":\"FAILURE\",\"errors\":[{\"type\":\"RACE_CONDITION\","
+                + "\"message\":\"Unable to complete the operation, record is locked by another process.\"}]}";
+    }
+
+    /**
+     * @return vobject record ids in the Vault format, e.g. V5Q000000001001
+     */
+    public static List<String> recordIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(String.format("V5Q%012d", 1001 + i));
+        }
+        return ids;
+    }
+
+    /**
+     * @return numeric document ids
+     */
+    public static List<String> documentIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(String.valueOf(100000 + i));
+        }
+        return ids;
+    }
+
+    private static String base30(int value) {
+        return new VpsSequenceGenerator().getBase30Number(value, 6, "0");
+    }
+}
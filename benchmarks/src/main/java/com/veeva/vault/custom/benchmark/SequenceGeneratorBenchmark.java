@@ -0,0 +1,78 @@
+/*
+ * --------------------------------------------------------------------
+ * Benchmark:   SequenceGeneratorBenchmark
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: base30 encoding and decoding in VpsSequenceGenerator
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.benchmark;
+
+import com.veeva.vault.custom.util.VpsSequenceGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequenceGeneratorBenchmark {
+
+    //small ids still padded, typical production range, DOCID_MAX_VALUE
+    @Param({"42", "1234567", "728999999"})
+    public int base10Id;
+
+    private VpsSequenceGenerator generator;
+    private char[] buffer;
+    private StringBuilder builder;
+    private String base30Id;
+
+    @Setup
+    public void setup() {
+        generator = new VpsSequenceGenerator();
+        buffer = new char[VpsSequenceGenerator.MAX_BASE30_DIGITS];
+        builder = new StringBuilder(VpsSequenceGenerator.MAX_BASE30_DIGITS);
+        base30Id = generator.getBase30Number(base10Id, 6, "0");
+    }
+
+    @Benchmark
+    public String getBase30Number() {
+        return generator.getBase30Number(base10Id, 6, "0");
+    }
+
+    @Benchmark
+    public char[] encodeBase30IntoBuffer() {
+        VpsSequenceGenerator.encodeBase30(base10Id, 6, '0', buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public StringBuilder appendBase30ToBuilder() {
+        builder.setLength(0);
+        return VpsSequenceGenerator.appendBase30(builder, base10Id, 6, '0');
+    }
+
+    @Benchmark
+    public int decodeBase30() {
+        return VpsSequenceGenerator.decodeBase30(base30Id);
+    }
+}
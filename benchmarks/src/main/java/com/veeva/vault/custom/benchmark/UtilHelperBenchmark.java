@@ -0,0 +1,72 @@
+/*
+ * --------------------------------------------------------------------
+ * Benchmark:   UtilHelperBenchmark
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: String helpers in VpsUtilHelper
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.benchmark;
+
+import com.veeva.vault.custom.util.VpsUtilHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilHelperBenchmark {
+
+    //a single record, a batch save, a full CONTAINS list
+    @Param({"10", "500", "5000"})
+    public int size;
+
+    private List<String> idList;
+    private Set<String> idSet;
+    private String uniqueKeySource;
+
+    @Setup
+    public void setup() {
+        idList = Payloads.recordIds(size);
+        idSet = new LinkedHashSet<>(idList);
+        uniqueKeySource = "Clinical Study Report 100042 - Module 5.3|" + size;
+    }
+
+    @Benchmark
+    public String listToString() {
+        return VpsUtilHelper.listToString(idList, ",", true);
+    }
+
+    @Benchmark
+    public String setToString() {
+        return VpsUtilHelper.setToString(idSet, ",", true);
+    }
+
+    @Benchmark
+    public String getUniqueKey() {
+        return VpsUtilHelper.getUniqueKey(uniqueKeySource);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * --------------------------------------------------------------------
+ * Benchmark:   VQLHelperBenchmark
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Query assembly in VpsVQLHelper, as done by the action
+ *              and message processor
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.benchmark;
+
+import com.veeva.vault.custom.external.VpsClientServices;
+import com.veeva.vault.custom.util.VpsVQLHelper;
+import com.veeva.vault.custom.util.VpsVQLTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VQLHelperBenchmark {
+
+    @Param({"1", "500", "5000"})
+    public int idCount;
+
+    private List<String> recordIds;
+    private List<String> documentIds;
+    private VpsVQLTemplate versionTemplate;
+
+    @Setup
+    public void setup() {
+        recordIds = Payloads.recordIds(idCount);
+        documentIds = Payloads.documentIds(idCount);
+        versionTemplate = new VpsVQLTemplate("SELECT id, major_version_number__v, minor_version_number__v, document_id__c"
+                + " FROM allversions documents WHERE id CONTAINS (:docIds)");
+        versionTemplate.setServiceLocator(new VpsClientServices());
+    }
+
+    /**
+     * Point read of an autonumber record name
+     */
+    @Benchmark
+    public String pointQuery() {
+        VpsVQLHelper vqlHelper = new VpsVQLHelper();
+        vqlHelper.appendVQL("SELECT name__v");
+        vqlHelper.appendVQL(" FROM docid_autonumber__c");
+        vqlHelper.appendVQL(" WHERE id = '" + recordIds.get(0) + "'");
+        return vqlHelper.getVQL();
+    }
+
+    /**
+     * Lookup of many records by id, quoted
+     */
+    @Benchmark
+    public String recordContainsQuery() {
+        VpsVQLHelper vqlHelper = new VpsVQLHelper();
+        vqlHelper.appendVQL("SELECT id, name__v");
+        vqlHelper.appendVQL(" FROM docid_autonumber__c");
+        vqlHelper.appendVQL(" WHERE id CONTAINS (");
+        vqlHelper.appendList(recordIds, ",", true);
+        vqlHelper.appendVQL(")");
+        return vqlHelper.getVQL();
+    }
+
+    /**
+     * All versions of many documents, unquoted
+     */
+    @Benchmark
+    public String versionContainsQuery() {
+        VpsVQLHelper vqlHelper = new VpsVQLHelper();
+        vqlHelper.appendVQL("SELECT id, major_version_number__v, minor_version_number__v, document_id__c");
+        vqlHelper.appendVQL(" FROM allversions documents");
+        vqlHelper.appendVQL(" WHERE id CONTAINS (");
+        vqlHelper.appendList(documentIds, ",", false);
+        vqlHelper.appendVQL(")");
+        return vqlHelper.getVQL();
+    }
+
+    /**
+     * Same query as versionContainsQuery from a template parsed once
+     */
+    @Benchmark
+    public String versionContainsTemplate() {
+        versionTemplate.setNumbers("docIds", documentIds);
+        return versionTemplate.render();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * --------------------------------------------------------------------
+ * Harness:     LoadDriver
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Drives every VpsAPIClient method against the
+ *              VaultStandInServer and reports p50/p99 latency and
+ *              requests per second per method
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.harness;
+
+import com.veeva.vault.custom.external.VpsClientServices;
+import com.veeva.vault.custom.external.VpsJavaHttpTransport;
+import com.veeva.vault.custom.util.VpsRetryPolicy;
+import com.veeva.vault.custom.util.VpsServiceLocator;
+import com.veeva.vault.custom.util.api.VpsAPIClient;
+import com.veeva.vault.custom.util.api.VpsAPIFuture;
+import com.veeva.vault.custom.util.api.VpsHttpTransport;
+import com.veeva.vault.custom.util.api.VpsVQLRequest;
+import com.veeva.vault.custom.util.api.VpsVQLResultIterator;
+import com.veeva.vault.sdk.api.http.HttpService;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Usage (from benchmarks/ after mvn package):
+ * <pre>
+ * java -cp target/benchmarks.jar com.veeva.vault.custom.harness.LoadDriver \
+ *      calls=2000 threads=8 latency=20 jitter=30 httpErrorRate=0.01 raceConditionRate=0.02 retry=true
+ * </pre>
+ * Every argument is optional. Each thread uses its own VpsAPIClient, like separate Vault executions.
+ * transport=java sends through one shared VpsJavaHttpTransport (maxConcurrent requests, http=HTTP_1_1|HTTP_2)
+ * instead of the SDK HttpService, with sessions required by the server. The Async operations keep up to
+ * maxInFlight calls in flight per client; on the SDK transport they run one after another.
+ */
+public class LoadDriver {
+
+    private static final String CONNECTION = "local_connection__c";
+
+    /**
+     * One VpsAPIClient call; returns false when the client reports a failure
+     */
+    interface Operation {
+        boolean call(VpsAPIClient client, int iteration);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int calls = Integer.parseInt(options.getOrDefault("calls", "1000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        boolean retry = Boolean.parseBoolean(options.getOrDefault("retry", "true"));
+        boolean javaTransport = "java".equals(options.getOrDefault("transport", "sdk"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("maxInFlight", String.valueOf(VpsAPIClient.DEFAULT_MAX_IN_FLIGHT)));
+
+        VaultStandInServer server = new VaultStandInServer()
+                .setWorkerThreads(Integer.parseInt(options.getOrDefault("serverThreads", "64")))
+                .setLatency(Long.parseLong(options.getOrDefault("latency", "10")),
+                        Long.parseLong(options.getOrDefault("jitter", "10")))
+                .setHttpErrorRate(Double.parseDouble(options.getOrDefault("httpErrorRate", "0")))
+                .setRaceConditionRate(Double.parseDouble(options.getOrDefault("raceConditionRate", "0")))
+                .setQueryResult(Integer.parseInt(options.getOrDefault("queryRows", "1000")),
+                        Integer.parseInt(options.getOrDefault("queryPageSize", "1000")))
+                .setRequireSession(javaTransport)
+                .start();
+        VpsClientServices services = new VpsClientServices()
+                .register(HttpService.class, LocalHttpService.newHttpService(server.getBaseUrl()));
+        VpsJavaHttpTransport sharedTransport = null;
+        if (javaTransport) {
+            sharedTransport = new VpsJavaHttpTransport(server.getBaseUrl())
+                    .setCredentials("loaddriver@newco.com", "loaddriver")
+                    .setMaxConcurrentRequests(Integer.parseInt(options.getOrDefault("maxConcurrent", String.valueOf(threads * maxInFlight))))
+                    .setHttpVersion(HttpClient.Version.valueOf(options.getOrDefault("http", "HTTP_1_1")));
+        }
+
+        System.out.println("VaultStandInServer " + server.getBaseUrl() + " " + options);
+        System.out.println(String.format("%-36s %8s %8s %10s %10s %10s %10s",
+                "operation", "calls", "failed", "req/s", "p50 ms", "p99 ms", "max ms"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Map.Entry<String, Operation> operation : operations().entrySet()) {
+                run(operation.getKey(), operation.getValue(), calls, threads, retry, maxInFlight, services, sharedTransport, executor);
+            }
+            if (sharedTransport != null) {
+                System.out.println("sessions requested: " + sharedTransport.getAuthenticationCount());
+            }
+        } finally {
+            executor.shutdownNow();
+            server.stop();
+        }
+    }
+
+    private static Map<String, Operation> operations() {
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        operations.put("runVQL", (client, i) -> {
+            VpsVQLRequest request = new VpsVQLRequest();
+            request.appendVQL("SELECT id, major_version_number__v, minor_version_number__v FROM allversions documents");
+            return client.runVQL(request) != null;
+        });
+        operations.put("streamVQL (all pages)", (client, i) -> {
+            VpsVQLRequest request = new VpsVQLRequest();
+            request.appendVQL("SELECT id, major_version_number__v, minor_version_number__v FROM allversions documents");
+            VpsVQLResultIterator rows = client.streamVQL(request);
+            while (rows.hasNext()) {
+                rows.next();
+            }
+            return true;
+        });
+        operations.put("updateDocumentFields", (client, i) ->
+                client.updateDocumentFields(documentId(i), "0", "1", fields()));
+        operations.put("updateBinderFields", (client, i) ->
+                client.updateBinderFields(documentId(i), "0", "1", fields()));
+        operations.put("updateDocumentFieldsAsync (50)", (client, i) -> {
+            List<VpsAPIFuture<Boolean>> updates = new ArrayList<>();
+            for (int v = 0; v < 50; v++) {
+                updates.add(client.updateDocumentFieldsAsync(documentId(i * 50 + v), "0", "1", fields()));
+            }
+            return !VpsAPIFuture.getAll(updates).contains(false);
+        });
+        operations.put("updateDocumentVersionsBulk (500)", (client, i) -> {
+            List<Map<String, String>> versions = new ArrayList<>();
+            for (int v = 0; v < 500; v++) {
+                Map<String, String> version = fields();
+                version.put("id", documentId(i * 500 + v));
+                version.put("major_version_number__v", "0");
+                version.put("minor_version_number__v", "1");
+                versions.add(version);
+            }
+            return !client.updateDocumentVersionsBulk(versions).containsValue(false);
+        });
+        operations.put("createObject", (client, i) -> {
+            Map<String, String> record = new HashMap<>();
+            record.put("name__v", "Record " + i);
+            return !client.createObject("docid_autonumber__c", record).isEmpty();
+        });
+        operations.put("createObjects (500)", (client, i) -> {
+            List<Map<String, String>> records = new ArrayList<>();
+            for (int r = 0; r < 500; r++) {
+                Map<String, String> record = new HashMap<>();
+                record.put("name__v", "Record " + (i * 500L + r));
+                records.add(record);
+            }
+            return client.createObjects("docid_autonumber__c", records).isSuccess();
+        });
+        operations.put("getDocumentLifecycleActions", (client, i) ->
+                !client.getDocumentLifecycleActions(documentId(i), "0", "1").isEmpty());
+        operations.put("initiateDocumentLifecycleActions", (client, i) ->
+                client.initiateDocumentLifecycleActions(documentId(i), "0", "1", "Objectlifecyclestateuseraction.approve__c"));
+        operations.put("getDocumentUsersAndGroupsFromRole", (client, i) ->
+                !client.getDocumentUsersAndGroupsFromRole(documentId(i), "reviewer__v").isEmpty());
+        operations.put("getDocumentUsersAndGroupsFromRoleAsync (50)", (client, i) -> {
+            List<VpsAPIFuture<List<String>>> lookups = new ArrayList<>();
+            for (int d = 0; d < 50; d++) {
+                lookups.add(client.getDocumentUsersAndGroupsFromRoleAsync(documentId(i * 50 + d), "reviewer__v"));
+            }
+            for (List<String> usersAndGroups : VpsAPIFuture.getAll(lookups)) {
+                if (usersAndGroups.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        operations.put("initiateObjectAction", (client, i) ->
+                client.initiateObjectAction("docid_autonumber__c", "Objectaction.reindex__c",
+                        String.format("V5Q%012d", i), false));
+        operations.put("initiateObjectActionBulk (500)", (client, i) -> {
+            List<String> ids = new ArrayList<>();
+            for (int r = 0; r < 500; r++) {
+                ids.add(String.format("V5Q%012d", i * 500L + r));
+            }
+            return !client.initiateObjectActionBulk("docid_autonumber__c", "Objectaction.reindex__c", ids)
+                    .containsValue(false);
+        });
+        operations.put("retrieveDocumentVersions", (client, i) ->
+                !client.retrieveDocumentVersions(documentId(i)).isEmpty());
+        return operations;
+    }
+
+    private static void run(String name, Operation operation, int calls, int threads, boolean retry, int maxInFlight,
+                            VpsServiceLocator services, VpsHttpTransport sharedTransport, ExecutorService executor) throws Exception {
+        AtomicInteger nextCall = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<long[]>> results = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                VpsAPIClient client = sharedTransport == null
+                        ? new VpsAPIClient(CONNECTION)
+                        : new VpsAPIClient(sharedTransport);
+                client.setServiceLocator(services);
+                client.setMaxInFlight(maxInFlight);
+                if (!retry) {
+                    client.setRetryPolicy(VpsRetryPolicy.noRetry());
+                }
+                long[] latencies = new long[calls];
+                int count = 0;
+                int i;
+                while ((i = nextCall.getAndIncrement()) < calls) {
+                    long callStart = System.nanoTime();
+                    try {
+                        if (!operation.call(client, i)) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                    latencies[count++] = System.nanoTime() - callStart;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        long[] latencies = new long[calls];
+        int count = 0;
+        for (Future<long[]> result : results) {
+            long[] threadLatencies = result.get();
+            System.arraycopy(threadLatencies, 0, latencies, count, threadLatencies.length);
+            count += threadLatencies.length;
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies, 0, count);
+
+        System.out.println(String.format("%-36s %8d %8d %10.1f %10.2f %10.2f %10.2f",
+                name, count, failed.get(),
+                count / (elapsed / 1e9),
+                millis(percentile(latencies, count, 0.50)),
+                millis(percentile(latencies, count, 0.99)),
+                millis(count == 0 ? 0 : latencies[count - 1])));
+    }
+
+    private static long percentile(long[] sorted, int count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        return sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String documentId(int iteration) {
+        return String.valueOf(100000 + iteration);
+    }
+
+    private static Map<String, String> fields() {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("document_id__c", "00A1B2");
+        fields.put("export_filename__v", "00A1B2");
+        return fields;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int valueStart = arg.indexOf('=');
+            if (valueStart <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, valueStart), arg.substring(valueStart + 1));
+        }
+        return options;
+    }
+}
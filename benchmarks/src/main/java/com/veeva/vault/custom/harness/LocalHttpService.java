@@ -0,0 +1,251 @@
+/*
+ * --------------------------------------------------------------------
+ * Stand-in:    LocalHttpService
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: HttpService stand-in that sends SDK HttpRequests to a
+ *              plain HTTP base url, e.g. the VaultStandInServer
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.harness;
+
+import com.veeva.vault.sdk.api.http.HttpMethod;
+import com.veeva.vault.sdk.api.http.HttpOperation;
+import com.veeva.vault.sdk.api.http.HttpOperationError;
+import com.veeva.vault.sdk.api.http.HttpRequest;
+import com.veeva.vault.sdk.api.http.HttpResponse;
+import com.veeva.vault.sdk.api.http.HttpService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public final class LocalHttpService {
+
+    private LocalHttpService() {
+    }
+
+    /**
+     * Every connection name resolves to the same base url. Response bodies are always
+     * returned as String, which is the only body type VpsAPIClient requests.
+     *
+     * @param baseUrl e.g. http://127.0.0.1:54321
+     */
+    public static HttpService newHttpService(String baseUrl) {
+        return (HttpService) Proxy.newProxyInstance(HttpService.class.getClassLoader(), new Class<?>[]{HttpService.class},
+                (instance, method, args) -> {
+                    switch (method.getName()) {
+                        case "newHttpRequest":
+                        case "newLocalHttpRequest":
+                            return new LocalRequest(baseUrl).proxy;
+                        case "send":
+                            return newOperation(((LocalRequest) Proxy.getInvocationHandler(args[0])));
+                        default:
+                            return unsupported(instance, method, args);
+                    }
+                });
+    }
+
+    /**
+     * Object methods of the proxies use identity; anything else is not part of the stand-in
+     */
+    private static Object unsupported(Object instance, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "hashCode":
+                return System.identityHashCode(instance);
+            case "equals":
+                return instance == args[0];
+            case "toString":
+                return method.getDeclaringClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(instance));
+            default:
+                throw new UnsupportedOperationException("HttpService stand-in does not implement " + method.getName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpOperation<Object> newOperation(LocalRequest request) {
+        Consumer<Object>[] onSuccess = new Consumer[1];
+        Consumer<Object>[] onError = new Consumer[1];
+        return (HttpOperation<Object>) Proxy.newProxyInstance(HttpOperation.class.getClassLoader(), new Class<?>[]{HttpOperation.class},
+                (instance, method, args) -> {
+                    switch (method.getName()) {
+                        case "onSuccess":
+                            onSuccess[0] = (Consumer<Object>) args[0];
+                            return instance;
+                        case "onError":
+                            onError[0] = (Consumer<Object>) args[0];
+                            return instance;
+                        case "execute":
+                            request.execute(onSuccess[0], onError[0]);
+                            return null;
+                        default:
+                            return unsupported(instance, method, args);
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> newResponse(int statusCode, String body) {
+        return (HttpResponse<String>) Proxy.newProxyInstance(HttpResponse.class.getClassLoader(), new Class<?>[]{HttpResponse.class},
+                (instance, method, args) -> {
+                    switch (method.getName()) {
+                        case "getHttpStatusCode":
+                            return statusCode;
+                        case "getResponseBody":
+                            return body;
+                        default:
+                            return unsupported(instance, method, args);
+                    }
+                });
+    }
+
+    private static HttpOperationError newError(HttpResponse<String> response, String message) {
+        return (HttpOperationError) Proxy.newProxyInstance(HttpOperationError.class.getClassLoader(), new Class<?>[]{HttpOperationError.class},
+                (instance, method, args) -> {
+                    switch (method.getName()) {
+                        case "getHttpResponse":
+                            return response;
+                        case "getMessage":
+                            return message;
+                        default:
+                            return unsupported(instance, method, args);
+                    }
+                });
+    }
+
+    /**
+     * State of one HttpRequest; the SDK interface is served through a proxy
+     */
+    private static final class LocalRequest implements java.lang.reflect.InvocationHandler {
+
+        private final String baseUrl;
+        private final HttpRequest proxy;
+        private final StringBuilder path = new StringBuilder();
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private final Map<String, String> bodyParams = new LinkedHashMap<>();
+        private final Map<String, String> querystringParams = new LinkedHashMap<>();
+        private HttpMethod httpMethod = HttpMethod.GET;
+        private String body;
+
+        LocalRequest(String baseUrl) {
+            this.baseUrl = baseUrl;
+            this.proxy = (HttpRequest) Proxy.newProxyInstance(HttpRequest.class.getClassLoader(), new Class<?>[]{HttpRequest.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object instance, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "setMethod":
+                    httpMethod = (HttpMethod) args[0];
+                    break;
+                case "appendPath":
+                    path.append(args[0]);
+                    break;
+                case "setBodyParam":
+                    bodyParams.put((String) args[0], String.valueOf(args[1]));
+                    break;
+                case "setBody":
+                    body = String.valueOf(args[0]);
+                    break;
+                case "setHeader":
+                    headers.put((String) args[0], (String) args[1]);
+                    break;
+                case "setQuerystringParam":
+                    querystringParams.put((String) args[0], String.valueOf(args[1]));
+                    break;
+                default:
+                    return unsupported(instance, method, args);
+            }
+            return instance;
+        }
+
+        void execute(Consumer<Object> onSuccess, Consumer<Object> onError) {
+            int statusCode;
+            String responseBody;
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path + querystring()).openConnection();
+                connection.setRequestMethod(httpMethod.name());
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    connection.setRequestProperty(header.getKey(), header.getValue());
+                }
+                String requestBody = body != null ? body : encode(bodyParams);
+                if (!requestBody.isEmpty() || httpMethod == HttpMethod.POST || httpMethod == HttpMethod.PUT) {
+                    if (body == null) {
+                        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+                    }
+                    connection.setDoOutput(true);
+                    try (OutputStream out = connection.getOutputStream()) {
+                        out.write(requestBody.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                statusCode = connection.getResponseCode();
+                responseBody = read(statusCode >= 400 ? connection.getErrorStream() : connection.getInputStream());
+            } catch (IOException e) {
+                HttpResponse<String> response = newResponse(0, e.toString());
+                if (onError != null) {
+                    onError.accept(newError(response, e.toString()));
+                }
+                return;
+            }
+
+            HttpResponse<String> response = newResponse(statusCode, responseBody);
+            if (statusCode >= 200 && statusCode < 300) {
+                if (onSuccess != null) {
+                    onSuccess.accept(response);
+                }
+            } else if (onError != null) {
+                onError.accept(newError(response, "HTTP " + statusCode));
+            }
+        }
+
+        private String querystring() throws UnsupportedEncodingException {
+            String encoded = encode(querystringParams);
+            return encoded.isEmpty() ? "" : "?" + encoded;
+        }
+
+        private static String encode(Map<String, String> params) throws UnsupportedEncodingException {
+            StringBuilder encoded = new StringBuilder();
+            for (Map.Entry<String, String> param : params.entrySet()) {
+                if (encoded.length() > 0) {
+                    encoded.append('&');
+                }
+                encoded.append(URLEncoder.encode(param.getKey(), "UTF-8"))
+                        .append('=')
+                        .append(URLEncoder.encode(param.getValue(), "UTF-8"));
+            }
+            return encoded.toString();
+        }
+
+        private static String read(InputStream in) throws IOException {
+            if (in == null) {
+                return "";
+            }
+            try (InputStream stream = in) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                byte[] chunk = new byte[8192];
+                int read;
+                while ((read = stream.read(chunk)) != -1) {
+                    buffer.write(chunk, 0, read);
+                }
+                return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
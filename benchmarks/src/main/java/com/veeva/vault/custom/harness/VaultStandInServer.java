@@ -0,0 +1,381 @@
+/*
+ * --------------------------------------------------------------------
+ * Stand-in:    VaultStandInServer
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Local HTTP server implementing the Vault REST endpoints
+ *              used by VpsAPIClient, with configurable latency, HTTP
+ *              errors and RACE_CONDITION failures
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.harness;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.veeva.vault.custom.benchmark.Payloads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class VaultStandInServer {
+
+    private static final String API = "/api/[^/]+";
+    private static final Pattern QUERY = Pattern.compile(API + "/query");
+    private static final Pattern QUERY_NEXT_PAGE = Pattern.compile(API + "/query/([^/]+)");
+    private static final Pattern VERSIONS_BATCH = Pattern.compile(API + "/objects/documents/versions/batch");
+    private static final Pattern DOCUMENT_VERSIONS = Pattern.compile(API + "/objects/documents/(\\d+)/versions");
+    private static final Pattern VERSION = Pattern.compile(API + "/objects/(documents|binders)/(\\d+)/versions/(\\d+)/(\\d+)");
+    private static final Pattern LIFECYCLE_ACTIONS = Pattern.compile(API + "/objects/documents/(\\d+)/versions/(\\d+)/(\\d+)/lifecycle_actions/?");
+    private static final Pattern LIFECYCLE_ACTION = Pattern.compile(API + "/objects/documents/(\\d+)/versions/(\\d+)/(\\d+)/lifecycle_actions/([^/]+)");
+    private static final Pattern ROLES = Pattern.compile(API + "/objects/documents/(\\d+)/roles/([^/]+)");
+    private static final Pattern CREATE_FROM_TEMPLATE = Pattern.compile(API + "/objects/(documents|binders)");
+    private static final Pattern OBJECT_ACTION = Pattern.compile(API + "/vobjects/([^/]+)/([^/]+)/actions/([^/]+)");
+    private static final Pattern OBJECT_ACTION_BULK = Pattern.compile(API + "/vobjects/([^/]+)/actions/([^/]+)");
+    private static final Pattern OBJECT_CREATE = Pattern.compile(API + "/vobjects/([^/]+)");
+    private static final Pattern AUTH = Pattern.compile(API + "/auth");
+
+    private static final String SUCCESS = "{\"responseStatus\":\"SUCCESS\"}";
+
+    static {
+        //without TCP_NODELAY, split header/body writes add ~40ms of delayed-ACK latency per call
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private int port = 0;
+    private int workerThreads = 32;
+    private long latencyMillis = 0;
+    private long latencyJitterMillis = 0;
+    private double httpErrorRate = 0;
+    private double raceConditionRate = 0;
+    private int queryTotalRows = 1000;
+    private int queryPageSize = 1000;
+    private boolean requireSession = false;
+
+    private final AtomicLong recordSequence = new AtomicLong(1000);
+    private final AtomicLong requestCount = new AtomicLong();
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public VaultStandInServer setPort(int port) {
+        this.port = port;
+        return this;
+    }
+
+    public VaultStandInServer setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+        return this;
+    }
+
+    /**
+     * Every response is delayed by latencyMillis plus a uniform random 0..jitterMillis
+     */
+    public VaultStandInServer setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = jitterMillis;
+        return this;
+    }
+
+    /**
+     * Share of requests answered with HTTP 503
+     */
+    public VaultStandInServer setHttpErrorRate(double httpErrorRate) {
+        this.httpErrorRate = httpErrorRate;
+        return this;
+    }
+
+    /**
+     * Share of write requests answered with an HTTP 200 RACE_CONDITION failure
+     */
+    public VaultStandInServer setRaceConditionRate(double raceConditionRate) {
+        this.raceConditionRate = raceConditionRate;
+        return this;
+    }
+
+    /**
+     * Size of every query result and the page size it is returned in
+     */
+    public VaultStandInServer setQueryResult(int totalRows, int pageSize) {
+        this.queryTotalRows = totalRows;
+        this.queryPageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Rejects requests without the Authorization header of a session issued by /auth
+     * with INVALID_SESSION_ID
+     */
+    public VaultStandInServer setRequireSession(boolean requireSession) {
+        this.requireSession = requireSession;
+        return this;
+    }
+
+    /**
+     * Drops every issued session, as if they had timed out
+     */
+    public void expireSessions() {
+        sessions.clear();
+    }
+
+    public VaultStandInServer start() throws IOException {
+        executor = Executors.newFixedThreadPool(workerThreads);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return base url, e.g. http://127.0.0.1:54321
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String body = readBody(exchange.getRequestBody());
+            delay();
+
+            if ("POST".equals(method) && AUTH.matcher(path).matches()) {
+                respond(exchange, 200, authenticate());
+                return;
+            }
+            if (requireSession && !sessions.contains(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")))) {
+                respond(exchange, 200, failure("INVALID_SESSION_ID", "Invalid or expired session ID."));
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < httpErrorRate) {
+                respond(exchange, 503, "Service Unavailable");
+                return;
+            }
+            //the multi-record action reports race conditions per record, see objectActionBulk
+            if (!"GET".equals(method) && !OBJECT_ACTION_BULK.matcher(path).matches()
+                    && random.nextDouble() < raceConditionRate) {
+                respond(exchange, 200, failure("RACE_CONDITION",
+                        "Unable to complete the operation, record is locked by another process."));
+                return;
+            }
+            respond(exchange, 200, route(method, path, exchange.getRequestURI().getRawQuery(),
+                    exchange.getRequestHeaders().getFirst("Content-Type"), body));
+        } catch (RuntimeException e) {
+            respond(exchange, 500, e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String route(String method, String path, String rawQuery, String contentType, String body) {
+        Matcher matcher;
+        if ("POST".equals(method) && QUERY.matcher(path).matches()) {
+            return queryPage(Long.toString(recordSequence.incrementAndGet()), 0);
+        }
+        if ("GET".equals(method) && (matcher = QUERY_NEXT_PAGE.matcher(path)).matches()) {
+            String offset = parseForm(rawQuery).get("pageoffset");
+            return queryPage(matcher.group(1), offset == null ? 0 : Integer.parseInt(offset));
+        }
+        if ("PUT".equals(method) && VERSIONS_BATCH.matcher(path).matches()) {
+            return batchUpdate(body);
+        }
+        if ("GET".equals(method) && (matcher = DOCUMENT_VERSIONS.matcher(path)).matches()) {
+            return "{\"responseStatus\":\"SUCCESS\",\"versions\":["
+                    + "{\"number\":\"0.1\",\"value\":\"/api/v19.1/objects/documents/" + matcher.group(1) + "/versions/0/1\"},"
+                    + "{\"number\":\"1.0\",\"value\":\"/api/v19.1/objects/documents/" + matcher.group(1) + "/versions/1/0\"}]}";
+        }
+        if ("PUT".equals(method) && (matcher = VERSION.matcher(path)).matches()) {
+            return "{\"responseStatus\":\"SUCCESS\",\"id\":" + matcher.group(2) + "}";
+        }
+        if ("GET".equals(method) && LIFECYCLE_ACTIONS.matcher(path).matches()) {
+            return "{\"responseStatus\":\"SUCCESS\",\"lifecycle_actions__v\":["
+                    + "{\"name__v\":\"Objectlifecyclestateuseraction.approve__c\",\"label__v\":\"Approve\",\"lifecycle_action_type__v\":\"workflow\"},"
+                    + "{\"name__v\":\"Objectlifecyclestateuseraction.reject__c\",\"label__v\":\"Reject\",\"lifecycle_action_type__v\":\"stateChange\"}]}";
+        }
+        if ("PUT".equals(method) && LIFECYCLE_ACTION.matcher(path).matches()) {
+            return SUCCESS;
+        }
+        if ("GET".equals(method) && (matcher = ROLES.matcher(path)).matches()) {
+            return "{\"responseStatus\":\"SUCCESS\",\"documentRoles\":[{\"name\":\"" + matcher.group(2) + "\","
+                    + "\"assignedUsers\":[61603,61604],\"assignedGroups\":[1393105]}]}";
+        }
+        if ("POST".equals(method) && CREATE_FROM_TEMPLATE.matcher(path).matches()) {
+            return "{\"responseStatus\":\"SUCCESS\",\"id\":" + recordSequence.incrementAndGet() + "}";
+        }
+        if ("POST".equals(method) && OBJECT_ACTION.matcher(path).matches()) {
+            return SUCCESS;
+        }
+        if ("POST".equals(method) && OBJECT_ACTION_BULK.matcher(path).matches()) {
+            return objectActionBulk(parseForm(body).get("ids"));
+        }
+        if ("POST".equals(method) && OBJECT_CREATE.matcher(path).matches()
+                && contentType != null && contentType.startsWith("text/csv")) {
+            return objectCreateBulk(body);
+        }
+        if ("POST".equals(method) && OBJECT_CREATE.matcher(path).matches()) {
+            return "{\"responseStatus\":\"SUCCESS\",\"data\":{\"id\":\""
+                    + String.format("V5Q%012d", recordSequence.incrementAndGet()) + "\"}}";
+        }
+        return failure("INVALID_DATA", "No stand-in for " + method + " " + path);
+    }
+
+    private String authenticate() {
+        String sessionId = UUID.randomUUID().toString().replace("-", "");
+        sessions.add(sessionId);
+        return "{\"responseStatus\":\"SUCCESS\",\"sessionId\":\"" + sessionId + "\",\"userId\":61603}";
+    }
+
+    private String queryPage(String queryId, int offset) {
+        int rows = Math.max(0, Math.min(queryPageSize, queryTotalRows - offset));
+        return Payloads.vqlPage(queryId, offset, rows, queryTotalRows, queryPageSize);
+    }
+
+    /**
+     * One result row per CSV row after the header
+     */
+    private String batchUpdate(String csv) {
+        String[] lines = csv.split("\n");
+        StringBuilder json = new StringBuilder("{\"responseStatus\":\"SUCCESS\",\"data\":[");
+        for (int i = 1; i < lines.length; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            String id = lines[i].split(",", 2)[0].replace("\"", "");
+            json.append("{\"responseStatus\":\"SUCCESS\",\"id\":\"").append(id).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * One created record per CSV row after the header
+     */
+    private String objectCreateBulk(String csv) {
+        String[] lines = csv.split("\n");
+        StringBuilder json = new StringBuilder("{\"responseStatus\":\"SUCCESS\",\"data\":[");
+        for (int i = 1; i < lines.length; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"responseStatus\":\"SUCCESS\",\"data\":{\"id\":\"")
+                    .append(String.format("V5Q%012d", recordSequence.incrementAndGet())).append("\"}}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * One result row per record id, each failing with RACE_CONDITION at the configured rate
+     */
+    private String objectActionBulk(String ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder json = new StringBuilder("{\"responseStatus\":\"SUCCESS\",\"data\":[");
+        String[] idArray = ids == null ? new String[0] : ids.split(",");
+        for (int i = 0; i < idArray.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            if (random.nextDouble() < raceConditionRate) {
+                json.append("{\"responseStatus\":\"FAILURE\",\"id\":\"").append(idArray[i]).append("\",")
+                        .append("\"errors\":[{\"type\":\"RACE_CONDITION\",\"message\":\"Record is locked by another process.\"}]}");
+            } else {
+                json.append("{\"responseStatus\":\"SUCCESS\",\"id\":\"").append(idArray[i]).append("\"}");
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    private void delay() {
+        long millis = latencyMillis;
+        if (latencyJitterMillis > 0) {
+            millis += ThreadLocalRandom.current().nextLong(latencyJitterMillis + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String failure(String type, String message) {
+        return "{\"responseStatus\":\"FAILURE\",\"errors\":[{\"type\":\"" + type + "\",\"message\":\"" + message + "\"}]}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", status == 200 ? "application/json" : "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, read);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseForm(String form) {
+        Map<String, String> values = new HashMap<>();
+        if (form == null || form.isEmpty()) {
+            return values;
+        }
+        for (String pair : form.split("&")) {
+            int valueStart = pair.indexOf('=');
+            if (valueStart > 0) {
+                try {
+                    values.put(URLDecoder.decode(pair.substring(0, valueStart), "UTF-8"),
+                            URLDecoder.decode(pair.substring(valueStart + 1), "UTF-8"));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException(e);
+                }
+            }
+        }
+        return values;
+    }
+}
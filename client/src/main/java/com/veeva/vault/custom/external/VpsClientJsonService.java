@@ -0,0 +1,199 @@
+/*
+ * --------------------------------------------------------------------
+ * Client:      VpsClientJsonService
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: JsonService outside Vault, parsing with Jackson
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.external;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veeva.vault.sdk.api.json.JsonArray;
+import com.veeva.vault.sdk.api.json.JsonData;
+import com.veeva.vault.sdk.api.json.JsonObject;
+import com.veeva.vault.sdk.api.json.JsonService;
+import com.veeva.vault.sdk.api.json.JsonValueType;
+
+/**
+ * Objects and arrays are views over the Jackson tree. Values are returned as the SDK
+ * returns them: text as String, numbers as BigDecimal, booleans as Boolean and JSON
+ * null or a missing key as null. Asking for a value as a type it does not have fails
+ * with IllegalArgumentException.
+ */
+public class VpsClientJsonService implements JsonService {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    @Override
+    public JsonData readJson(String json) {
+        JsonNode root;
+        try {
+            root = json == null ? null : OBJECT_MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            root = null;
+        }
+        return new VpsJsonData(root);
+    }
+
+    /**
+     * @return the SDK type of the node; null for JSON null or a missing value
+     */
+    static JsonValueType<?> valueType(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isObject()) {
+            return JsonValueType.OBJECT;
+        }
+        if (node.isArray()) {
+            return JsonValueType.ARRAY;
+        }
+        if (node.isNumber()) {
+            return JsonValueType.NUMBER;
+        }
+        if (node.isBoolean()) {
+            return JsonValueType.BOOLEAN;
+        }
+        return JsonValueType.STRING;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T value(JsonNode node, JsonValueType<T> expectedType, Object location) {
+        JsonValueType<?> actualType = valueType(node);
+        if (actualType == null) {
+            return null;
+        }
+        if (actualType != expectedType) {
+            throw new IllegalArgumentException("JSON value at " + location + " is not of the requested type: " + node);
+        }
+        if (actualType == JsonValueType.OBJECT) {
+            return (T) new VpsJsonObject(node);
+        }
+        if (actualType == JsonValueType.ARRAY) {
+            return (T) new VpsJsonArray(node);
+        }
+        if (actualType == JsonValueType.NUMBER) {
+            return (T) node.decimalValue();
+        }
+        if (actualType == JsonValueType.BOOLEAN) {
+            return (T) Boolean.valueOf(node.booleanValue());
+        }
+        return (T) node.asText();
+    }
+
+    static final class VpsJsonData implements JsonData {
+
+        private final JsonNode root;
+
+        VpsJsonData(JsonNode root) {
+            this.root = root;
+        }
+
+        @Override
+        public boolean isValidJson() {
+            return root != null && root.isContainerNode();
+        }
+
+        @Override
+        public JsonObject getJsonObject() {
+            return root != null && root.isObject() ? new VpsJsonObject(root) : null;
+        }
+
+        @Override
+        public JsonArray getJsonArray() {
+            return root != null && root.isArray() ? new VpsJsonArray(root) : null;
+        }
+    }
+
+    static final class VpsJsonObject implements JsonObject {
+
+        private final JsonNode node;
+
+        VpsJsonObject(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return node.has(key);
+        }
+
+        @Override
+        public <T> T getValue(String key, JsonValueType<T> valueType) {
+            return value(node.get(key), valueType, key);
+        }
+
+        @Override
+        public JsonValueType<?> getValueType(String key) {
+            return valueType(node.get(key));
+        }
+
+        @Override
+        public boolean isNullValue(String key) {
+            return node.has(key) && node.get(key).isNull();
+        }
+
+        @Override
+        public String asString() {
+            return node.toString();
+        }
+
+        @Override
+        public String toString() {
+            return asString();
+        }
+    }
+
+    static final class VpsJsonArray implements JsonArray {
+
+        private final JsonNode node;
+
+        VpsJsonArray(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public int getSize() {
+            return node.size();
+        }
+
+        @Override
+        public <T> T getValue(int index, JsonValueType<T> valueType) {
+            if (index < 0 || index >= node.size()) {
+                throw new IndexOutOfBoundsException("JSON array index " + index + ", size " + node.size());
+            }
+            return value(node.get(index), valueType, index);
+        }
+
+        @Override
+        public JsonValueType<?> getValueType(int index) {
+            return valueType(node.get(index));
+        }
+
+        @Override
+        public boolean isNullValue(int index) {
+            return node.has(index) && node.get(index).isNull();
+        }
+
+        @Override
+        public String asString() {
+            return node.toString();
+        }
+
+        @Override
+        public String toString() {
+            return asString();
+        }
+    }
+}
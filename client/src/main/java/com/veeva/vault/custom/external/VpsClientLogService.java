@@ -0,0 +1,87 @@
+/*
+ * --------------------------------------------------------------------
+ * Client:      VpsClientLogService
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: LogService outside Vault, writing through SLF4J
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.external;
+
+import com.veeva.vault.sdk.api.core.LogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LogService and SLF4J share the {} placeholder syntax, so messages are passed on unchanged.
+ * Everything is logged to the com.veeva.vault.custom logger unless another one is given;
+ * levels and appenders come from the SLF4J binding of the job.
+ */
+public class VpsClientLogService implements LogService {
+
+    public static final String LOGGER_NAME = "com.veeva.vault.custom";
+
+    private final Logger logger;
+
+    public VpsClientLogService() {
+        this(LoggerFactory.getLogger(LOGGER_NAME));
+    }
+
+    public VpsClientLogService(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void debug(String message, Object... params) {
+        logger.debug(message, params);
+    }
+
+    @Override
+    public void info(String message, Object... params) {
+        logger.info(message, params);
+    }
+
+    @Override
+    public void warn(String message, Object... params) {
+        logger.warn(message, params);
+    }
+
+    @Override
+    public void error(String message, Object... params) {
+        logger.error(message, params);
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return logger.isWarnEnabled();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return logger.isErrorEnabled();
+    }
+
+    /**
+     * Outside Vault there are no execution limits to report; the message is logged at debug level
+     */
+    @Override
+    public void logResourceUsage(String message) {
+        logger.debug("resource usage - {}", message);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * --------------------------------------------------------------------
+ * Client:      VpsClientServices
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Locator of the SDK services custom code uses when it
+ *              runs outside Vault
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.external;
+
+import com.veeva.vault.custom.util.VpsServiceLocator;
+import com.veeva.vault.sdk.api.core.LogService;
+import com.veeva.vault.sdk.api.core.Service;
+import com.veeva.vault.sdk.api.json.JsonService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LogService and JsonService are registered by default, which is all VpsAPIClient needs over
+ * VpsJavaHttpTransport. Other services, e.g. an HttpService for VpsSdkHttpTransport, are
+ * registered by the job. Pass the instance to the clients and helpers through their
+ * constructor or setServiceLocator; VpsAPIClient resolves its services when it gets the
+ * locator, so a missing one fails there and not in the middle of a call.
+ */
+public class VpsClientServices implements VpsServiceLocator {
+
+    private final Map<Class<?>, Service> services = new ConcurrentHashMap<>();
+
+    public VpsClientServices() {
+        register(LogService.class, new VpsClientLogService());
+        register(JsonService.class, new VpsClientJsonService());
+    }
+
+    /**
+     * Registers or replaces the implementation returned for a service interface
+     */
+    public <T extends Service> VpsClientServices register(Class<T> serviceClass, T service) {
+        services.put(serviceClass, service);
+        return this;
+    }
+
+    @Override
+    public <T extends Service> T locate(Class<T> serviceClass) {
+        Service service = services.get(serviceClass);
+        if (service == null) {
+            throw new IllegalStateException("No service registered outside Vault for " + serviceClass.getName());
+        }
+        return serviceClass.cast(service);
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * --------------------------------------------------------------------
+ * Transport:   VpsJavaHttpTransport
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: VpsHttpTransport for running VpsAPIClient outside
+ *              Vault, over one pooled java.net.http client with
+ *              session reuse and bounded concurrency
+ *---------------------------------------------------------------------
+ * Copyright (c) 2020 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.external;
+
+import com.veeva.vault.custom.util.api.VpsHttpRequest;
+import com.veeva.vault.custom.util.api.VpsHttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One instance is shared by every VpsAPIClient of a job, so that all of them use the same
+ * connection pool and the same session. VpsAPIClient itself is not thread safe; give each
+ * worker thread its own client over the shared transport:
+ * <pre>
+ * VpsJavaHttpTransport transport = new VpsJavaHttpTransport("https://myvault.veevavault.com")
+ *         .setCredentials(username, password)
+ *         .setMaxConcurrentRequests(16);
+ * VpsAPIClient client = new VpsAPIClient(transport, new VpsClientServices());
+ * </pre>
+ * Outside Vault the LogService and JsonService VpsAPIClient uses come from
+ * VpsClientServices in this module. The transport logs sessions and failures
+ * to the same SLF4J logger as the client.
+ */
+public class VpsJavaHttpTransport implements VpsHttpTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VpsClientLogService.LOGGER_NAME);
+    private static final String URL_AUTH = "/api/%s/auth";
+    private static final String ERRORTYPE_INVALID_SESSION_ID = "INVALID_SESSION_ID";
+    private static final Pattern SESSION_ID = Pattern.compile("\"sessionId\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final String baseUrl;
+    private String apiVersion = "v19.1";
+    private String username;
+    private String password;
+    private HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration requestTimeout = Duration.ofMinutes(2);
+    private int maxConcurrentRequests = 16;
+
+    private volatile HttpClient httpClient;
+    private volatile Semaphore permits;
+    private volatile String sessionId;
+    private final AtomicLong authenticationCount = new AtomicLong();
+
+    /**
+     * @param baseUrl vault url without the api path, e.g. https://myvault.veevavault.com
+     */
+    public VpsJavaHttpTransport(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Credentials for /api/{version}/auth. The session is requested on the first call,
+     * reused by every later call and requested again when Vault reports it invalid.
+     */
+    public VpsJavaHttpTransport setCredentials(String username, String password) {
+        this.username = username;
+        this.password = password;
+        return this;
+    }
+
+    /**
+     * Uses an existing session, e.g. one handed over by the calling job. Without
+     * credentials the session cannot be renewed.
+     */
+    public VpsJavaHttpTransport setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+        return this;
+    }
+
+    public VpsJavaHttpTransport setApiVersion(String apiVersion) {
+        this.apiVersion = apiVersion;
+        return this;
+    }
+
+    /**
+     * HTTP_2 by default, multiplexing the concurrent requests over few connections;
+     * the client falls back to HTTP/1.1 keep-alive connections when the server does not
+     * support HTTP/2. Like the timeouts and the concurrency, it is fixed by the first call.
+     */
+    public VpsJavaHttpTransport setHttpVersion(HttpClient.Version httpVersion) {
+        this.httpVersion = httpVersion;
+        return this;
+    }
+
+    public VpsJavaHttpTransport setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    public VpsJavaHttpTransport setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    /**
+     * Requests in flight at a time across all clients sharing the transport; further
+     * callers wait. Keeps a job within the vault's concurrent request allowance.
+     */
+    public VpsJavaHttpTransport setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        return this;
+    }
+
+    public long getAuthenticationCount() {
+        return authenticationCount.get();
+    }
+
+    /**
+     * Failures to connect or read are returned as status code 0, like the SDK reports them
+     */
+    @Override
+    public VpsHttpResponse send(VpsHttpRequest request) {
+        initialize();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(request, e);
+        }
+        try {
+            String requestSession = getSessionId();
+            VpsHttpResponse response = exchange(request, requestSession);
+            if (isInvalidSession(response) && username != null) {
+                renewSession(requestSession);
+                response = exchange(request, getSessionId());
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            return failed(request, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(request, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Sends on the client's own threads; the permit is held until the response arrives, so
+     * asynchronous callers wait here once maxConcurrentRequests are in flight. A response
+     * reporting an invalid session is sent again synchronously by getResponse.
+     */
+    @Override
+    public VpsHttpCall sendAsync(VpsHttpRequest request) {
+        initialize();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new VpsCompletedCall(failed(request, e));
+        }
+        try {
+            String requestSession = getSessionId();
+            CompletableFuture<VpsHttpResponse> response = httpClient
+                    .sendAsync(newHttpRequest(request, requestSession), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                    .handle((httpResponse, error) -> {
+                        permits.release();
+                        return error == null
+                                ? new VpsHttpResponse(httpResponse.statusCode(), httpResponse.body())
+                                : failed(request, error);
+                    });
+            return new JavaHttpCall(request, requestSession, response);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            return new VpsCompletedCall(failed(request, e));
+        } catch (InterruptedException e) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            return new VpsCompletedCall(failed(request, e));
+        }
+    }
+
+    /**
+     * Sleeps on the calling thread; other threads keep using the shared client meanwhile.
+     * An interrupted wait gives up the retry.
+     */
+    @Override
+    public boolean delay(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private VpsHttpResponse exchange(VpsHttpRequest request, String requestSession) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(newHttpRequest(request, requestSession),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        return new VpsHttpResponse(response.statusCode(), response.body());
+    }
+
+    private HttpRequest newHttpRequest(VpsHttpRequest request, String requestSession) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + request.getPath() + querystring(request)))
+                .timeout(requestTimeout);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        if (requestSession != null) {
+            builder.header("Authorization", requestSession);
+        }
+
+        String body = request.getBody();
+        if (body == null && !request.getBodyParams().isEmpty()) {
+            body = encode(request.getBodyParams());
+            if (!request.getHeaders().containsKey("Content-Type")) {
+                builder.header("Content-Type", "application/x-www-form-urlencoded");
+            }
+        }
+        builder.method(request.getMethod().name(), body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        return builder.build();
+    }
+
+    private String getSessionId() throws IOException, InterruptedException {
+        String currentSession = sessionId;
+        if (currentSession == null && username != null) {
+            renewSession(null);
+            currentSession = sessionId;
+        }
+        return currentSession;
+    }
+
+    /**
+     * Authenticates once for all threads that saw the same stale session
+     */
+    private synchronized void renewSession(String staleSession) throws IOException, InterruptedException {
+        if (sessionId != null && !sessionId.equals(staleSession)) {
+            return;
+        }
+        HttpRequest authRequest = HttpRequest.newBuilder(URI.create(baseUrl + String.format(URL_AUTH, apiVersion)))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("username=" + urlEncode(username)
+                        + "&password=" + urlEncode(password), StandardCharsets.UTF_8))
+                .build();
+        LOGGER.info("VpsJavaHttpTransport {} session for {} at {}",
+                staleSession == null ? "opening" : "renewing", username, baseUrl);
+        HttpResponse<String> response = httpClient.send(authRequest, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        authenticationCount.incrementAndGet();
+        Matcher matcher = SESSION_ID.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            LOGGER.error("VpsJavaHttpTransport authentication failed for {} - HTTP {}", username, response.statusCode());
+            throw new IllegalStateException("Authentication failed for " + username + " - HTTP "
+                    + response.statusCode() + ": " + response.body());
+        }
+        sessionId = matcher.group(1);
+    }
+
+    /**
+     * Vault reports an expired session either as HTTP 401 or as an INVALID_SESSION_ID error
+     */
+    private static boolean isInvalidSession(VpsHttpResponse response) {
+        return response.getHttpStatusCode() == 401
+                || (response.getResponseBody() != null && response.getResponseBody().contains(ERRORTYPE_INVALID_SESSION_ID));
+    }
+
+    private void initialize() {
+        if (httpClient == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    permits = new Semaphore(maxConcurrentRequests, true);
+                    httpClient = HttpClient.newBuilder()
+                            .version(httpVersion)
+                            .connectTimeout(connectTimeout)
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .build();
+                }
+            }
+        }
+    }
+
+    /**
+     * Logs a failure to connect, read or authenticate and returns it as status code 0
+     */
+    private static VpsHttpResponse failed(VpsHttpRequest request, Throwable error) {
+        LOGGER.warn("VpsJavaHttpTransport {} {} failed - {}", request.getMethod(), request.getPath(), error.toString());
+        return new VpsHttpResponse(0, error.toString());
+    }
+
+    private static String querystring(VpsHttpRequest request) {
+        return request.getQuerystringParams().isEmpty() ? "" : "?" + encode(request.getQuerystringParams());
+    }
+
+    private static String encode(Map<String, String> params) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append('&');
+            }
+            encoded.append(urlEncode(param.getKey())).append('=').append(urlEncode(param.getValue()));
+        }
+        return encoded.toString();
+    }
+
+    private static String urlEncode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Call started by sendAsync
+     */
+    private final class JavaHttpCall implements VpsHttpCall {
+
+        private final VpsHttpRequest request;
+        private final String requestSession;
+        private final CompletableFuture<VpsHttpResponse> response;
+
+        JavaHttpCall(VpsHttpRequest request, String requestSession, CompletableFuture<VpsHttpResponse> response) {
+            this.request = request;
+            this.requestSession = requestSession;
+            this.response = response;
+        }
+
+        @Override
+        public boolean isDone() {
+            return response.isDone();
+        }
+
+        @Override
+        public VpsHttpResponse getResponse() {
+            VpsHttpResponse httpResponse = response.join();
+            if (!isInvalidSession(httpResponse) || username == null) {
+                return httpResponse;
+            }
+            try {
+                renewSession(requestSession);
+            } catch (IOException | RuntimeException e) {
+                return failed(request, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return failed(request, e);
+            }
+            return send(request);
+        }
+    }
+}
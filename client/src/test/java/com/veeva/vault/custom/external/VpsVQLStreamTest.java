@@ -0,0 +1,165 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsVQLStreamTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Paginated VQL streaming of VpsAPIClient over a fake
+ *              transport
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.external;
+
+import com.veeva.vault.custom.util.api.VpsAPIClient;
+import com.veeva.vault.custom.util.api.VpsHttpRequest;
+import com.veeva.vault.custom.util.api.VpsHttpTransport;
+import com.veeva.vault.custom.util.api.VpsVQLRequest;
+import com.veeva.vault.custom.util.api.VpsVQLResultIterator;
+import com.veeva.vault.sdk.api.core.RollbackException;
+import com.veeva.vault.sdk.api.json.JsonValueType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class VpsVQLStreamTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    @Test
+    public void streamsEveryPageInOrder() {
+        PagedTransport transport = new PagedTransport(8);
+        VpsVQLResultIterator results = newClient(transport).streamVQL(newRequest());
+
+        List<Integer> ids = new ArrayList<>();
+        results.forEachRemaining(row -> ids.add(row.getValue("id", JsonValueType.NUMBER).intValue()));
+
+        assertEquals(8, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, ids.get(i).intValue());
+        }
+        assertEquals(3, results.getPageCount());
+        assertEquals(3, transport.requests.size());
+    }
+
+    @Test
+    public void fetchesAPageOnlyOnceTheOneBeforeIsConsumed() {
+        PagedTransport transport = new PagedTransport(8);
+        VpsVQLResultIterator results = newClient(transport).streamVQL(newRequest());
+        assertEquals(1, transport.requests.size());
+
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            results.next();
+        }
+        assertEquals(1, transport.requests.size());
+
+        results.hasNext();
+        assertEquals(2, transport.requests.size());
+        VpsHttpRequest nextPageRequest = transport.requests.get(1);
+        assertEquals("/api/v19.1/query/00001", nextPageRequest.getPath());
+        assertEquals(Integer.toString(PAGE_SIZE), nextPageRequest.getQuerystringParams().get("pageoffset"));
+        assertEquals(Integer.toString(PAGE_SIZE), nextPageRequest.getQuerystringParams().get("pagesize"));
+    }
+
+    @Test
+    public void endsAfterASinglePage() {
+        VpsVQLResultIterator results = newClient(new PagedTransport(2)).streamVQL(newRequest());
+        results.next();
+        results.next();
+        assertFalse(results.hasNext());
+        assertEquals(1, results.getPageCount());
+    }
+
+    @Test
+    public void endsOnAnEmptyResult() {
+        VpsVQLResultIterator results = newClient(new PagedTransport(0)).streamVQL(newRequest());
+        assertFalse(results.hasNext());
+        try {
+            results.next();
+            fail("next() on an exhausted stream");
+        } catch (NoSuchElementException expected) {
+            //nothing left
+        }
+    }
+
+    @Test
+    public void failsRatherThanTruncatingOnAnUnreadablePage() {
+        PagedTransport transport = new PagedTransport(8);
+        transport.failingOffset = PAGE_SIZE;
+        VpsVQLResultIterator results = newClient(transport).streamVQL(newRequest());
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            results.next();
+        }
+        try {
+            results.hasNext();
+            fail("a failed page must not end the stream");
+        } catch (RollbackException expected) {
+            //the second page could not be read
+        }
+    }
+
+    @Test(expected = RollbackException.class)
+    public void failsOnAFailedQuery() {
+        PagedTransport transport = new PagedTransport(8);
+        transport.failingOffset = 0;
+        newClient(transport).streamVQL(newRequest());
+    }
+
+    private static VpsAPIClient newClient(VpsHttpTransport transport) {
+        return new VpsAPIClient(transport, new VpsClientServices());
+    }
+
+    private static VpsVQLRequest newRequest() {
+        VpsVQLRequest request = new VpsVQLRequest();
+        request.appendVQL("SELECT id FROM documents");
+        return request;
+    }
+
+    /**
+     * Serves rows 0 .. rowCount - 1 in pages of PAGE_SIZE, linked through next_page
+     */
+    private static class PagedTransport implements VpsHttpTransport {
+
+        private final int rowCount;
+        private final List<VpsHttpRequest> requests = new ArrayList<>();
+        //offset of the page answered with a FAILURE status; -1 for none
+        private int failingOffset = -1;
+
+        PagedTransport(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        @Override
+        public VpsHttpResponse send(VpsHttpRequest request) {
+            requests.add(request);
+            String pageOffset = request.getQuerystringParams().get("pageoffset");
+            int offset = pageOffset == null ? 0 : Integer.parseInt(pageOffset);
+            if (offset == failingOffset) {
+                return new VpsHttpResponse(200, "{\"responseStatus\":\"FAILURE\","
+                        + "\"errors\":[{\"type\":\"INVALID_DATA\",\"message\":\"Query expired\"}]}");
+            }
+
+            StringBuilder body = new StringBuilder("{\"responseStatus\":\"SUCCESS\",\"responseDetails\":{");
+            int end = Math.min(rowCount, offset + PAGE_SIZE);
+            if (end < rowCount) {
+                body.append("\"next_page\":\"/api/v19.1/query/00001?pagesize=").append(PAGE_SIZE)
+                        .append("&pageoffset=").append(end).append("\",");
+            }
+            body.append("\"total\":").append(rowCount).append("},\"data\":[");
+            for (int id = offset; id < end; id++) {
+                body.append(id > offset ? "," : "").append("{\"id\":").append(id).append('}');
+            }
+            return new VpsHttpResponse(200, body.append("]}").toString());
+        }
+    }
+}
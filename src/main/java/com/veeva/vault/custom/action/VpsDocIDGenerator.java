@@ -15,23 +15,23 @@
 package com.veeva.vault.custom.action;
 
 
+import com.veeva.vault.custom.util.VpsRecordCache;
 import com.veeva.vault.custom.util.VpsSequenceGenerator;
-import com.veeva.vault.custom.util.VpsVQLHelper;
+import com.veeva.vault.custom.util.VpsStripedSequence;
 import com.veeva.vault.custom.util.api.VpsAPIClient;
 import com.veeva.vault.sdk.api.action.DocumentAction;
 import com.veeva.vault.sdk.api.action.DocumentActionContext;
 import com.veeva.vault.sdk.api.action.DocumentActionInfo;
 import com.veeva.vault.sdk.api.core.*;
-import com.veeva.vault.sdk.api.data.Record;
-import com.veeva.vault.sdk.api.data.RecordService;
 import com.veeva.vault.sdk.api.document.DocumentService;
 import com.veeva.vault.sdk.api.document.DocumentVersion;
-import com.veeva.vault.sdk.api.query.QueryResponse;
 import com.veeva.vault.sdk.api.queue.Message;
 import com.veeva.vault.sdk.api.queue.PutMessageResponse;
 import com.veeva.vault.sdk.api.queue.QueueService;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 @DocumentActionInfo(label = "Set Document ID")
@@ -45,18 +45,43 @@ public class VpsDocIDGenerator implements DocumentAction {
     final static int DOCID_FORMAT_LEGTH = 6;
     final static int DOCID_MAX_VALUE = 728999999;
     final static String DOCID_FORMAT_PADDING = "0";
+    //auto number records leased per batch save
+    final static int DOCID_BLOCK_SIZE = 100;
+    //autonumber objects drawn from in parallel (docid_autonumber__c, docid_autonumber_1__c, ...);
+    //1 keeps the plain docid_autonumber__c values. When raising it, set the base value
+    //above the highest Document ID already issued.
+    final static int DOCID_STRIPE_COUNT = 1;
+    final static long DOCID_STRIPE_BASE_VALUE = 0;
 
     private static final String OBJFIELD_NAME = "name__v";
     private static final String AUTONUMBER_OBJ_NAME = "docid_autonumber__c";
     private static final String DOCFIELD_BASE30_DOCUMENT_ID = "document_id__c"; //newco_document_id__c
     private static final String API_CONNECTION = "local_http_callout_connection";
     private static final String QUEUE_NAME = "doc_id_queue__c";
+    //many docId:base30DocumentId pairs are coalesced into the items of one message
+    private static final String MESSAGE_ITEM_DELIMITER = ":";
+    private static final int MESSAGE_MAX_ITEMS = 500;
+    private static final int MESSAGE_MAX_ITEM_CHARS = 40000;
+
+    //autonumber names leased by the allocators, read back by getName without a query
+    private VpsRecordCache recordCache = new VpsRecordCache();
 
 
     public VpsDocIDGenerator() {
 
     }
 
+    public VpsRecordCache getRecordCache() {
+        return recordCache;
+    }
+
+    /**
+     * Shares a cache with other helpers of the same execution, e.g. the message processor's client
+     */
+    public void setRecordCache(VpsRecordCache recordCache) {
+        this.recordCache = recordCache;
+    }
+
     @Override
     public boolean isExecutable(DocumentActionContext documentActionContext) {
         return true;
@@ -66,112 +91,131 @@ public class VpsDocIDGenerator implements DocumentAction {
     @Override
     public void execute(DocumentActionContext documentActionContext) {
 
-        VpsSequenceGenerator seqGenerator = new VpsSequenceGenerator();
         LogService logger = ServiceLocator.locate(LogService.class);
-        VpsAPIClient apiClient = new VpsAPIClient(API_CONNECTION);
 
+        //group the versions by document: a document needs one ID however many of its versions are selected
+        List<String> pendingDocIds = VaultCollections.newList();
+        Set<String> seenDocIds = VaultCollections.newSet();
+        Map<String, String> existingDocIds = VaultCollections.newMap();
         for (DocumentVersion documentVersion : documentActionContext.getDocumentVersions()) {
 
             String docId = documentVersion.getValue(DOCFIELD_ID, ValueType.STRING);
             String existingdocId = getNotNullValue(documentVersion.getValue(DOCFIELD_BASE30_DOCUMENT_ID, ValueType.STRING));
-            logger.info("Document versions to be updated for id {}", docId);
 
             if (existingdocId.equals("")) {
-                // create & get ID of a auto number object
-                String autoNumberRecordID = createNewObject(AUTONUMBER_OBJ_NAME);
-                logger.info("Created auto number object with id {}", autoNumberRecordID);
-
-                if (!autoNumberRecordID.equals("")) {
-                    // get name__v of a auto number object
-                    String strUniqueDocID = getName(autoNumberRecordID, AUTONUMBER_OBJ_NAME);
-                    // convert ######### (9 digit String) to int value
-                    int intUniqueDocID = Integer.parseInt(strUniqueDocID);
-
-                    if (intUniqueDocID <= DOCID_MAX_VALUE) {
-                        String base30DocID = seqGenerator.getBase30Number(intUniqueDocID,
-                                DOCID_FORMAT_LEGTH,
-                                DOCID_FORMAT_PADDING);
-                        logger.info("Generated base30 {} id for the decimal {}", base30DocID, intUniqueDocID);
-
-                        if (!base30DocID.equals("")) {
-                            //create a local queue
-                            queueLocalMessage(docId, base30DocID);
-                            logger.info("Document message queued for id {}", docId);
-                        }
-                    } else {
-                        String errMsg = "The Document ID is exceeding max limit " + DOCID_MAX_VALUE;
-                        throw new RollbackException("OPERATION_NOT_ALLOWED", "Unable to update Document ID: {}" + errMsg);
-                    }
+                if (seenDocIds.add(docId)) {
+                    logger.info("Document versions to be updated for id {}", docId);
+                    pendingDocIds.add(docId);
                 }
             } else {
                 logger.info("Document versions already has Document id {}", existingdocId);
+                existingDocIds.put(docId, existingdocId);
+            }
+        }
+        if (pendingDocIds.isEmpty()) {
+            return;
+        }
+
+        //a document with another version already numbered keeps that ID and draws no new one
+        List<String> newDocIds = VaultCollections.newList();
+        for (String docId : pendingDocIds) {
+            if (!existingDocIds.containsKey(docId)) {
+                newDocIds.add(docId);
             }
         }
+        List<String> generatedDocIds = newDocIds.isEmpty()
+                ? VaultCollections.newList()
+                : generateDocumentIds(newDocIds.size(), newDocIds.get(0));
+
+        List<String> base30DocIds = VaultCollections.newList();
+        int generated = 0;
+        for (String docId : pendingDocIds) {
+            if (existingDocIds.containsKey(docId)) {
+                base30DocIds.add(existingDocIds.get(docId));
+            } else {
+                base30DocIds.add(generatedDocIds.get(generated++));
+            }
+        }
+
+        //queue only once every ID has been generated
+        queueLocalMessages(pendingDocIds, base30DocIds);
 
     }
 
     /**
-     * Save Records
+     * Generate count new base30 Document IDs from the first stripe
      *
-     * @param listRecord
+     * @param count
+     * @return base30 Document IDs in ascending order
      */
-    private String saveRecords(List<Record> listRecord) {
-        RecordService recordService = ServiceLocator.locate(RecordService.class);
-        LogService logger = ServiceLocator.locate(LogService.class);
-
-        final String[] recordId = {""};
-        recordService.batchSaveRecords(listRecord)
-                .onSuccesses(batchOperationSuccess -> {
-                    batchOperationSuccess.stream().forEach(success -> {
-                        recordId[0] = success.getRecordId();
-                        logger.debug("Successfully created/updated record with id: " + recordId[0] + " for object");
-                    });
-                })
-                .onErrors(batchOperationErrors -> {
-                    batchOperationErrors.stream().findFirst().ifPresent(error -> {
-                        String errMsg = error.getError().getMessage();
-                        throw new RollbackException("OPERATION_NOT_ALLOWED", "Unable to save record: " + errMsg);
-                    });
-                })
-                .execute();
-        logger.debug("Completed");
-        return recordId[0];
+    public List<String> generateDocumentIds(int count) {
+        return generateDocumentIds(count, 0);
     }
 
     /**
-     * Get name from object
+     * Generate count new base30 Document IDs from the stripe picked by a key, so that
+     * concurrent executions working on different documents use different autonumber objects
      *
-     * @param id
-     * @return
+     * @param count
+     * @param stripeKey e.g. the first document id of the batch
+     * @return base30 Document IDs in ascending order
      */
-    public static String getName(String id, String objectName) {
-        final String[] name = {""};
-        VpsVQLHelper vqlHelper = new VpsVQLHelper();
-        vqlHelper.appendVQL("SELECT " + OBJFIELD_NAME);
-        vqlHelper.appendVQL(" FROM " + objectName);
-        vqlHelper.appendVQL(" WHERE " + DOCFIELD_ID + "= '" + id + "'");
-        QueryResponse queryResponse = vqlHelper.runVQL();
-        queryResponse.streamResults().forEach(queryResult -> {
-            name[0] = queryResult.getValue(OBJFIELD_NAME, ValueType.STRING);
-        });
-        return name[0];
+    public List<String> generateDocumentIds(int count, String stripeKey) {
+        return generateDocumentIds(count, newDocIdSequence().getStripe(stripeKey));
     }
 
     /**
-     * Get ID of auto number record
+     * Generate count new base30 Document IDs. All auto number records are created in
+     * one batch save and their name__v resolved in one query; the records of a
+     * half-used block are dropped afterwards.
      *
-     * @param autoNumberObjectName
-     * @return
+     * @param count
+     * @param stripe autonumber stripe to draw from
+     * @return base30 Document IDs in ascending order
+     */
+    public List<String> generateDocumentIds(int count, int stripe) {
+        VpsSequenceGenerator seqGenerator = new VpsSequenceGenerator();
+        VpsStripedSequence docIdSequence = newDocIdSequence();
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        docIdSequence.reserve(stripe, count);
+
+        List<String> base30DocIds = VaultCollections.newList();
+        for (int i = 0; i < count; i++) {
+            //fails once the value would exceed DOCID_MAX_VALUE
+            int intUniqueDocID = docIdSequence.next(stripe);
+
+            String base30DocID = seqGenerator.getBase30Number(intUniqueDocID,
+                    DOCID_FORMAT_LEGTH,
+                    DOCID_FORMAT_PADDING);
+            logger.info("Generated base30 {} id for the decimal {}", base30DocID, intUniqueDocID);
+            base30DocIds.add(base30DocID);
+        }
+        docIdSequence.release();
+        return base30DocIds;
+    }
+
+    /**
+     * Document ID sequence over DOCID_STRIPE_COUNT autonumber objects, writing its leased
+     * records to the generator's cache
      */
-    private String createNewObject(String autoNumberObjectName) {
-        // create an instance of the Record
-        RecordService recordService = ServiceLocator.locate(RecordService.class);
-        List<Record> recordList = VaultCollections.newList();
-        //new record is created with the name__v set as "system managed field value"
-        Record r = recordService.newRecord(autoNumberObjectName);
-        recordList.add(r);
-        return saveRecords(recordList);
+    private VpsStripedSequence newDocIdSequence() {
+        VpsStripedSequence docIdSequence = new VpsStripedSequence(
+                VpsStripedSequence.getStripeObjectNames(AUTONUMBER_OBJ_NAME, DOCID_STRIPE_COUNT),
+                DOCID_STRIPE_BASE_VALUE, DOCID_MAX_VALUE, DOCID_BLOCK_SIZE);
+        docIdSequence.setRecordCache(recordCache);
+        return docIdSequence;
+    }
 
+    /**
+     * Get name from object. Records leased by this generator are answered from the
+     * cache; others are queried once and cached.
+     *
+     * @param id
+     * @return name__v; "" if the record does not exist
+     */
+    public String getName(String id, String objectName) {
+        return recordCache.getValue(objectName, id, OBJFIELD_NAME);
     }
 
     public String getNotNullValue(String value) {
@@ -181,6 +225,82 @@ public class VpsDocIDGenerator implements DocumentAction {
         return value;
     }
 
+    /**
+     * Queue the generated Document IDs. Pairs are packed into as few messages as the
+     * item bounds allow, so one processor execution handles many documents.
+     *
+     * @param docIds
+     * @param base30DocumentIds base30 ID for the document at the same position in docIds
+     */
+    public void queueLocalMessages(List<String> docIds, List<String> base30DocumentIds) {
+        queueLocalMessages(docIds, base30DocumentIds, false);
+    }
+
+    /**
+     * Queue Document IDs, see queueLocalMessages(List, List)
+     *
+     * @param docIds
+     * @param base30DocumentIds base30 ID for the document at the same position in docIds
+     * @param repair true to overwrite versions that carry a different Document ID or export file name,
+     *               not only the versions without one
+     */
+    public void queueLocalMessages(List<String> docIds, List<String> base30DocumentIds, boolean repair) {
+        List<String> messageItems = VaultCollections.newList();
+        int messageItemChars = 0;
+        for (int i = 0; i < docIds.size(); i++) {
+            if (base30DocumentIds.get(i).equals("")) {
+                continue;
+            }
+            String messageItem = docIds.get(i) + MESSAGE_ITEM_DELIMITER + base30DocumentIds.get(i);
+            if (!messageItems.isEmpty() && (messageItems.size() == MESSAGE_MAX_ITEMS
+                    || messageItemChars + messageItem.length() > MESSAGE_MAX_ITEM_CHARS)) {
+                queueLocalMessage(messageItems, repair);
+                messageItems = VaultCollections.newList();
+                messageItemChars = 0;
+            }
+            messageItems.add(messageItem);
+            messageItemChars += messageItem.length();
+        }
+        if (!messageItems.isEmpty()) {
+            queueLocalMessage(messageItems, repair);
+        }
+    }
+
+    /**
+     * Queue one message carrying many documents
+     *
+     * @param messageItems docId:base30DocumentId pairs
+     */
+    public void queueLocalMessage(List<String> messageItems) {
+        queueLocalMessage(messageItems, false);
+    }
+
+    /**
+     * Queue one message carrying many documents
+     *
+     * @param messageItems docId:base30DocumentId pairs
+     * @param repair true to overwrite mismatching versions as well
+     */
+    public void queueLocalMessage(List<String> messageItems, boolean repair) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        QueueService queueService = ServiceLocator.locate(QueueService.class);
+        Message message = queueService.newMessage(QUEUE_NAME)
+                .setAttribute("apiConnection", API_CONNECTION)
+                .setAttribute("repair", repair)
+                .setMessageItems(messageItems);
+        PutMessageResponse response = queueService.putMessage(message);
+        logger.info("Put 'document' Message in Queue - for {} documents", messageItems.size());
+
+        if (response.getError() != null) {
+            logger.info("ERROR Queuing Failed: " + response.getError().getMessage());
+        } else {
+            response.getPutMessageResults().stream().forEach(result -> {
+                logger.info("SUCCESS: " + result.getMessageId() + " " + result.getConnectionName());
+            });
+        }
+    }
+
     /**
      * updatePreviousVersions : Queue each version
      *
@@ -0,0 +1,65 @@
+/*
+ * --------------------------------------------------------------------
+ * DocumentAction:	VpsDocIdBackfillAction
+ * Author:			achinchalkar @ Veeva
+ * Date:			2026-10-18
+ *---------------------------------------------------------------------
+ * Description:	Starts or resumes the Document ID backfill of all
+ *				documents missing a Document ID
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *		This code is based on pre-existing content developed and
+ *		owned by Veeva Systems Inc. and may only be used in connection
+ *		with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.action;
+
+
+import com.veeva.vault.custom.processor.VpsDocIdBackfillProcessor;
+import com.veeva.vault.custom.util.VpsJobCheckpoint;
+import com.veeva.vault.sdk.api.action.DocumentAction;
+import com.veeva.vault.sdk.api.action.DocumentActionContext;
+import com.veeva.vault.sdk.api.action.DocumentActionInfo;
+import com.veeva.vault.sdk.api.core.LogService;
+import com.veeva.vault.sdk.api.core.ServiceLocator;
+
+
+@DocumentActionInfo(label = "Backfill Document IDs")
+
+public class VpsDocIdBackfillAction implements DocumentAction {
+
+    private static final String API_CONNECTION = "local_http_callout_connection";
+
+    @Override
+    public boolean isExecutable(DocumentActionContext documentActionContext) {
+        return true;
+    }
+
+    /**
+     * Queues the backfill. An unfinished backfill resumes after its checkpoint;
+     * a finished one starts a new pass, which picks up documents created without
+     * a Document ID since, and any whose version update failed.
+     * Does nothing while a run is in progress, which also covers Vault calling
+     * execute once per batch of a large selection.
+     * Runs independently of the selected documents.
+     */
+    @Override
+    public void execute(DocumentActionContext documentActionContext) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        VpsJobCheckpoint checkpoint = new VpsJobCheckpoint(VpsDocIdBackfillProcessor.JOB_NAME).load();
+        if (checkpoint.isRunning(VpsDocIdBackfillProcessor.RUN_STALE_MILLIS)) {
+            logger.info("Document ID backfill run {} is in progress after document {}",
+                    checkpoint.getRunToken(), checkpoint.getLastKey());
+            return;
+        }
+        if (checkpoint.isComplete()) {
+            checkpoint.reset();
+            logger.info("Starting new Document ID backfill");
+        } else {
+            logger.info("Resuming Document ID backfill after document {}", checkpoint.getLastKey());
+        }
+        VpsDocIdBackfillProcessor.queueBackfill(API_CONNECTION, checkpoint.startRun());
+    }
+}//EOF
@@ -0,0 +1,299 @@
+/*
+ * --------------------------------------------------------------------
+ * MessageProcessor:	VpsDocIdBackfillProcessor
+ * Author:				achinchalkar @ Veeva
+ * Date:				2026-10-18
+ *---------------------------------------------------------------------
+ * Description:	Assigns Document IDs to every document still missing
+ *				one, a slice per message, resuming from a checkpoint
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *		This code is based on pre-existing content developed and
+ *		owned by Veeva Systems Inc. and may only be used in connection
+ *		with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.processor;
+
+
+import com.veeva.vault.custom.action.VpsDocIDGenerator;
+import com.veeva.vault.custom.util.VpsAssignmentJournal;
+import com.veeva.vault.custom.util.VpsJobCheckpoint;
+import com.veeva.vault.custom.util.VpsRecordCache;
+import com.veeva.vault.custom.util.VpsVQLChunkedQuery;
+import com.veeva.vault.custom.util.VpsVQLTemplate;
+import com.veeva.vault.sdk.api.core.LogService;
+import com.veeva.vault.sdk.api.core.ServiceLocator;
+import com.veeva.vault.sdk.api.core.ValueType;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.queue.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@MessageProcessorInfo()
+public class VpsDocIdBackfillProcessor implements MessageProcessor {
+
+    public static final String JOB_NAME = "document_id_backfill";
+    public static final String QUEUE_NAME = "doc_id_backfill_queue__c";
+
+    private static final String DOCFIELD_ID = "id";
+    private static final String DOCFIELD_BASE30_DOCUMENT_ID = "document_id__c";
+    //documents per ID generation and batch version update
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    //batches per message, keeping each execution well inside the processor limits;
+    //the slice is counted in versions without a Document ID, so it never holds more documents
+    private static final int BACKFILL_BATCHES_PER_MESSAGE = 10;
+    //a run whose checkpoint has not been saved for this long is taken to have died
+    public static final long RUN_STALE_MILLIS = 60 * 60 * 1000;
+
+    //one cache for the ID generator and the version updates of an execution
+    private VpsRecordCache recordCache = new VpsRecordCache();
+
+    /**
+     * Processes the next slice of documents after the checkpoint, then queues
+     * the following slice until no document is left without a Document ID.
+     * Only messages carrying the run token of the checkpoint are processed, so
+     * a second chain, e.g. from running the action twice, stops at its first message.
+     */
+    public void execute(MessageContext context) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+        logger.info("Initialize processor VpsDocIdBackfillProcessor");
+        String apiConnection = context.getMessage().getAttribute("apiConnection", MessageAttributeValueType.STRING);
+        String runToken = context.getMessage().getAttribute("runToken", MessageAttributeValueType.STRING);
+
+        VpsJobCheckpoint checkpoint = new VpsJobCheckpoint(JOB_NAME).load();
+        if (!checkpoint.isCurrentRun(runToken)) {
+            logger.info("Dropping Document ID backfill message of run {} - current run {}, complete {}",
+                    runToken, checkpoint.getRunToken(), checkpoint.isComplete());
+            return;
+        }
+
+        SliceOutcome outcome = backfillSlice(checkpoint, apiConnection);
+        if (outcome == SliceOutcome.MORE) {
+            queueBackfill(apiConnection, runToken);
+        } else if (outcome == SliceOutcome.DONE) {
+            checkpoint.markComplete();
+            logger.info("Document ID backfill complete - {} documents", checkpoint.getProcessedCount());
+        } else {
+            checkpoint.stopRun();
+            logger.error("Document ID backfill stopped at document {} - its versions could not be updated;"
+                    + " run the action again to resume", checkpoint.getLastKey());
+        }
+    }
+
+    /**
+     * Result of one slice
+     */
+    public enum SliceOutcome {
+        //the slice was full, documents may be left
+        MORE,
+        //no document is left after the checkpoint
+        DONE,
+        //a batch failed before any of its documents was finished
+        STUCK
+    }
+
+    /**
+     * Reads the documents without a Document ID after the checkpoint in id order,
+     * assigns IDs, reusing any an earlier attempt gave them, and updates all versions
+     * batch by batch, advancing the checkpoint
+     * after each batch so a restart never repeats a finished batch. A batch with failed
+     * versions advances only up to the document before the first failure and ends the
+     * slice, so the next slice selects the failed documents again. A document whose failed
+     * versions had all been journaled as failed before is given up on and reported, so it
+     * cannot hold the backfill back.
+     * Candidates are read from allversions: a document whose latest version has its ID but
+     * an older one does not is selected too.
+     */
+    public SliceOutcome backfillSlice(VpsJobCheckpoint checkpoint, String apiConnection) {
+        //every version is journaled, so versions that failed can be redone with a replayRun message
+        VpsAssignmentJournal journal = new VpsAssignmentJournal(JOB_NAME, apiConnection);
+        int sliceSize = BACKFILL_BATCH_SIZE * BACKFILL_BATCHES_PER_MESSAGE;
+        String afterDocId = checkpoint.getLastKey().equals("") ? "0" : checkpoint.getLastKey();
+
+        VpsVQLTemplate candidateQuery = new VpsVQLTemplate("SELECT " + DOCFIELD_ID
+                + " FROM allversions documents"
+                + " WHERE " + DOCFIELD_BASE30_DOCUMENT_ID + " = null"
+                + " AND " + DOCFIELD_ID + " > :afterDocId"
+                + " ORDER BY " + DOCFIELD_ID + " ASC"
+                + " LIMIT :limit");
+        candidateQuery.setNumber("afterDocId", afterDocId);
+        candidateQuery.setNumber("limit", sliceSize);
+
+        //one row per version; the versions of a document are adjacent
+        List<String> sliceDocIds = VaultCollections.newList();
+        int[] candidateVersions = {0};
+        candidateQuery.runVQL().streamResults().forEach(queryResult -> {
+            String docId = queryResult.getValue(DOCFIELD_ID, ValueType.NUMBER).toString();
+            if (sliceDocIds.isEmpty() || !sliceDocIds.get(sliceDocIds.size() - 1).equals(docId)) {
+                sliceDocIds.add(docId);
+            }
+            candidateVersions[0]++;
+        });
+        if (sliceDocIds.isEmpty()) {
+            return SliceOutcome.DONE;
+        }
+
+        //IDs of documents an earlier attempt drew an ID for but could not save on any version
+        Set<String> sliceDocIdSet = VaultCollections.newSet();
+        sliceDocIdSet.addAll(sliceDocIds);
+        Map<String, VpsAssignmentJournal.VpsJournalEntry> journaledEntries = journal.replay(sliceDocIdSet);
+        Map<String, String> journaledIds = getJournaledIds(journaledEntries.values());
+
+        for (int start = 0; start < sliceDocIds.size(); start += BACKFILL_BATCH_SIZE) {
+            List<String> batchDocIds = sliceDocIds.subList(start, Math.min(sliceDocIds.size(), start + BACKFILL_BATCH_SIZE));
+            int finished = backfillBatch(batchDocIds, journaledEntries, journaledIds, checkpoint, journal, apiConnection);
+            if (finished < batchDocIds.size()) {
+                journal.flush();
+                return finished == 0 ? SliceOutcome.STUCK : SliceOutcome.MORE;
+            }
+        }
+        //outcomes of the last batch; every earlier batch's were saved with the next batch's pending entries
+        journal.flush();
+        return candidateVersions[0] == sliceSize ? SliceOutcome.MORE : SliceOutcome.DONE;
+    }
+
+    /**
+     * @return base30 Document ID journaled per document
+     */
+    static Map<String, String> getJournaledIds(Collection<VpsAssignmentJournal.VpsJournalEntry> entries) {
+        Map<String, String> journaledIds = VaultCollections.newMap();
+        for (VpsAssignmentJournal.VpsJournalEntry entry : entries) {
+            journaledIds.put(entry.getDocId(), entry.getBase30Id());
+        }
+        return journaledIds;
+    }
+
+    /**
+     * Document IDs an earlier attempt already gave the documents: the ID on any of their
+     * versions, read with one chunked allversions query, or else the ID journaled for them.
+     * Reusing them keeps every version of a re-selected document on the same ID.
+     *
+     * @return base30 Document ID by document id, for the documents that have one
+     */
+    private Map<String, String> findExistingIds(List<String> docIds, Map<String, String> journaledIds) {
+        VpsVQLTemplate vqlTemplate = new VpsVQLTemplate("SELECT " + DOCFIELD_ID + ", " + DOCFIELD_BASE30_DOCUMENT_ID
+                + " FROM allversions documents"
+                + " WHERE " + DOCFIELD_ID + " CONTAINS (:docIds)"
+                + " AND " + DOCFIELD_BASE30_DOCUMENT_ID + " != null");
+        Map<String, String> existingIds = VaultCollections.newMap();
+        new VpsVQLChunkedQuery(vqlTemplate, "docIds", false).streamResults(docIds).forEachRemaining(queryResult ->
+                existingIds.put(queryResult.getValue(DOCFIELD_ID, ValueType.NUMBER).toString(),
+                        queryResult.getValue(DOCFIELD_BASE30_DOCUMENT_ID, ValueType.STRING)));
+        for (String docId : docIds) {
+            if (!existingIds.containsKey(docId) && journaledIds.containsKey(docId)) {
+                existingIds.put(docId, journaledIds.get(docId));
+            }
+        }
+        return existingIds;
+    }
+
+    /**
+     * @param journaledEntries latest journal entry per version before this slice, keyed by version key
+     * @return documents finished or given up on, in id order, before the first document
+     * with a version failing for the first time
+     */
+    private int backfillBatch(List<String> docIds,
+                              Map<String, VpsAssignmentJournal.VpsJournalEntry> journaledEntries,
+                              Map<String, String> journaledIds,
+                              VpsJobCheckpoint checkpoint,
+                              VpsAssignmentJournal journal,
+                              String apiConnection) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        //new IDs are drawn only for documents no earlier attempt gave one
+        Map<String, String> base30DocumentIds = findExistingIds(docIds, journaledIds);
+        List<String> newDocIds = VaultCollections.newList();
+        for (String docId : docIds) {
+            if (!base30DocumentIds.containsKey(docId)) {
+                newDocIds.add(docId);
+            }
+        }
+        if (!newDocIds.isEmpty()) {
+            VpsDocIDGenerator docIDGenerator = new VpsDocIDGenerator();
+            docIDGenerator.setRecordCache(recordCache);
+            List<String> base30DocIds = docIDGenerator.generateDocumentIds(newDocIds.size(), newDocIds.get(0));
+            for (int i = 0; i < newDocIds.size(); i++) {
+                base30DocumentIds.put(newDocIds.get(i), base30DocIds.get(i));
+            }
+        }
+        logger.info("Document ID backfill - {} documents, {} existing IDs reused",
+                docIds.size(), docIds.size() - newDocIds.size());
+        VpsDocIdMessageProcessor messageProcessor = new VpsDocIdMessageProcessor();
+        messageProcessor.setJournal(journal);
+        messageProcessor.setRecordCache(recordCache);
+        Map<String, Boolean> updateResults = messageProcessor.updateAllVersions(base30DocumentIds, apiConnection);
+
+        Set<String> failedDocIds = VaultCollections.newSet();
+        Set<String> newlyFailedDocIds = VaultCollections.newSet();
+        for (String versionKey : updateResults.keySet()) {
+            if (!updateResults.get(versionKey)) {
+                String docId = versionKey.substring(0, versionKey.indexOf('_'));
+                failedDocIds.add(docId);
+                VpsAssignmentJournal.VpsJournalEntry earlierEntry = journaledEntries.get(versionKey);
+                if (earlierEntry == null || earlierEntry.getStatus() != VpsAssignmentJournal.STATUS_FAILED) {
+                    newlyFailedDocIds.add(docId);
+                }
+            }
+        }
+        List<String> givenUpDocIds = VaultCollections.newList();
+        int finished = countFinished(docIds, failedDocIds, newlyFailedDocIds, givenUpDocIds);
+        if (finished > 0) {
+            checkpoint.advance(docIds.get(finished - 1), finished);
+        }
+        if (!givenUpDocIds.isEmpty()) {
+            logger.error("Document ID backfill - gave up on {} documents whose versions failed again: {}",
+                    givenUpDocIds.size(), String.join(",", givenUpDocIds));
+        }
+        if (finished < docIds.size()) {
+            logger.error("Document ID backfill - versions of {} documents failed, first {}",
+                    failedDocIds.size(), docIds.get(finished));
+        }
+        logger.info("Document ID backfill checkpoint {} - {} documents", checkpoint.getLastKey(),
+                checkpoint.getProcessedCount());
+        return finished;
+    }
+
+    /**
+     * Counts the documents, in id order, the checkpoint can move past: documents without
+     * failed versions, and documents whose failed versions had all failed before, which
+     * are added to givenUpDocIds. Stops at the first document failing for the first time.
+     *
+     * @param newlyFailedDocIds documents with a failed version not journaled as failed before
+     */
+    static int countFinished(List<String> docIds, Set<String> failedDocIds, Set<String> newlyFailedDocIds,
+                             List<String> givenUpDocIds) {
+        int finished = 0;
+        while (finished < docIds.size() && !newlyFailedDocIds.contains(docIds.get(finished))) {
+            if (failedDocIds.contains(docIds.get(finished))) {
+                givenUpDocIds.add(docIds.get(finished));
+            }
+            finished++;
+        }
+        return finished;
+    }
+
+    /**
+     * Queue the next slice of the backfill
+     *
+     * @param apiConnection
+     * @param runToken token of the run, from VpsJobCheckpoint.startRun
+     */
+    public static void queueBackfill(String apiConnection, String runToken) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        QueueService queueService = ServiceLocator.locate(QueueService.class);
+        Message message = queueService.newMessage(QUEUE_NAME)
+                .setAttribute("runToken", runToken)
+                .setAttribute("apiConnection", apiConnection);
+        PutMessageResponse response = queueService.putMessage(message);
+        logger.info("Put 'backfill' Message in Queue");
+
+        if (response.getError() != null) {
+            logger.info("ERROR Queuing Failed: " + response.getError().getMessage());
+        }
+    }
+}
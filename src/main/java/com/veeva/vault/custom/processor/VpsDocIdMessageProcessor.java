@@ -15,18 +15,26 @@
 package com.veeva.vault.custom.processor;
 
 
+import com.veeva.vault.custom.util.VpsAssignmentJournal;
+import com.veeva.vault.custom.util.VpsRecordCache;
 import com.veeva.vault.custom.util.VpsUtilHelper;
-import com.veeva.vault.custom.util.VpsVQLHelper;
+import com.veeva.vault.custom.util.VpsVQLChunkedQuery;
+import com.veeva.vault.custom.util.VpsVQLTemplate;
 import com.veeva.vault.custom.util.api.VpsAPIClient;
 import com.veeva.vault.sdk.api.core.LogService;
 import com.veeva.vault.sdk.api.core.ServiceLocator;
 import com.veeva.vault.sdk.api.core.ValueType;
 import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.core.VaultRuntimeException;
+import com.veeva.vault.sdk.api.document.DocumentService;
+import com.veeva.vault.sdk.api.document.DocumentVersion;
 import com.veeva.vault.sdk.api.query.QueryResponse;
 import com.veeva.vault.sdk.api.queue.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @MessageProcessorInfo()
 public class VpsDocIdMessageProcessor implements MessageProcessor {
@@ -37,15 +45,374 @@ public class VpsDocIdMessageProcessor implements MessageProcessor {
     private static final String DOCFIELD_MINOR_VERSION_NUMBER = "minor_version_number__v";
     private static final String DOCFIELD_ID = "id";
     private static final String DOCFIELD_BINDER = "binder__v";
+    private static final String MESSAGE_ITEM_DELIMITER = ":";
+    private static final String QUEUE_NAME = "doc_id_queue__c";
+    //journal run of the versions updated from queued messages; replayed with a replayRun message
+    public static final String QUEUE_JOURNAL_RUN = "doc_id_queue";
+    //saveDocumentVersions accepts up to 500 versions per call
+    private static final int SAVE_BATCH_SIZE = 500;
+    //messages a document is queued again for when its HTTP retries are deferred
+    private static final int MAX_DEFERRED_RETRIES = 5;
+    private static final List<String> VERSION_KEY_FIELDS = newVersionKeyFields();
+
+    private boolean inProcessUpdates = true;
+    private VpsAssignmentJournal journal;
+    private int deferredRetries = 0;
+    private VpsRecordCache recordCache;
 
 
     public void execute(MessageContext context) {
         LogService logger = ServiceLocator.locate(LogService.class);
         logger.info("Initialize processor VpsDocIdMessageProcessor");
-        String docId = context.getMessage().getAttribute("docId", MessageAttributeValueType.STRING);
-        String base30DocumentId = context.getMessage().getAttribute("base30DocumentId", MessageAttributeValueType.STRING);
         String apiConnection = context.getMessage().getAttribute("apiConnection", MessageAttributeValueType.STRING);
-        updateAllVersions(docId, base30DocumentId, apiConnection);
+
+        //replay message: redo the unfinished versions of a journaled run
+        String replayRun = context.getMessage().getAttribute("replayRun", MessageAttributeValueType.STRING);
+        if (replayRun != null) {
+            replayJournal(replayRun, apiConnection);
+            return;
+        }
+
+        if (journal == null) {
+            journal = new VpsAssignmentJournal(QUEUE_JOURNAL_RUN, apiConnection);
+        }
+
+        //coalesced message: one docId:base30DocumentId pair per item
+        List<String> messageItems = context.getMessage().getMessageItems();
+        if (messageItems != null && !messageItems.isEmpty()) {
+            Map<String, String> base30DocumentIds = VaultCollections.newMap();
+            for (String messageItem : messageItems) {
+                int delimiter = messageItem.indexOf(MESSAGE_ITEM_DELIMITER);
+                base30DocumentIds.put(messageItem.substring(0, delimiter), messageItem.substring(delimiter + 1));
+            }
+            Boolean repair = context.getMessage().getAttribute("repair", MessageAttributeValueType.BOOLEAN);
+            BigDecimal retries = context.getMessage().getAttribute("deferredRetries", MessageAttributeValueType.NUMBER);
+            deferredRetries = retries == null ? 0 : retries.intValue();
+            logger.info("Processing Document IDs for {} documents", base30DocumentIds.size());
+            updateAllVersions(base30DocumentIds, apiConnection, Boolean.TRUE.equals(repair));
+        } else {
+            String docId = context.getMessage().getAttribute("docId", MessageAttributeValueType.STRING);
+            String base30DocumentId = context.getMessage().getAttribute("base30DocumentId", MessageAttributeValueType.STRING);
+            updateAllVersions(docId, base30DocumentId, apiConnection, true);
+        }
+        flushJournal();
+    }
+
+    /**
+     * updateAllVersions : update every version missing the Document ID for many documents
+     * with chunked version queries and batch version updates
+     *
+     * @param base30DocumentIds base30 Document ID by document id
+     * @param apiConnection
+     * @return update result per updated version, keyed by VpsAPIClient.getVersionKey
+     */
+    public Map<String, Boolean> updateAllVersions(Map<String, String> base30DocumentIds, String apiConnection) {
+        return updateAllVersions(base30DocumentIds, apiConnection, false);
+    }
+
+    /**
+     * updateAllVersions : update the versions of many documents
+     *
+     * @param base30DocumentIds base30 Document ID by document id
+     * @param apiConnection
+     * @param repair true to also overwrite versions whose Document ID or export file name
+     *               differs from the given ID; false to update only versions without a Document ID
+     * @return update result per updated version, keyed by VpsAPIClient.getVersionKey
+     */
+    public Map<String, Boolean> updateAllVersions(Map<String, String> base30DocumentIds, String apiConnection, boolean repair) {
+
+        VpsUtilHelper utilHelper = new VpsUtilHelper();
+
+        VpsVQLTemplate vqlTemplate = new VpsVQLTemplate("SELECT " + DOCFIELD_ID + ", "
+                + DOCFIELD_MAJOR_VERSION_NUMBER + ", "
+                + DOCFIELD_MINOR_VERSION_NUMBER + ", "
+                + DOCFIELD_BASE30_DOCUMENT_ID + ", "
+                + DOCFIELD_EXPORT_FILENAME
+                + " FROM allversions documents"
+                + " WHERE " + DOCFIELD_ID + " CONTAINS (:docIds)");
+        //documents are queried in bounded CONTAINS chunks however many the message holds
+        VpsVQLChunkedQuery versionQuery = new VpsVQLChunkedQuery(vqlTemplate, "docIds", false);
+
+        List<Map<String, String>> versionFieldsList = VaultCollections.newList();
+        versionQuery.streamResults(base30DocumentIds.keySet()).forEachRemaining(versionResult -> {
+            String existingDocId = utilHelper.getNotNullValue(versionResult.getValue(DOCFIELD_BASE30_DOCUMENT_ID, ValueType.STRING));
+            String docId = versionResult.getValue(DOCFIELD_ID, ValueType.NUMBER).toString();
+            String base30DocumentId = base30DocumentIds.get(docId);
+            boolean mismatch = repair && (!existingDocId.equals(base30DocumentId)
+                    || !base30DocumentId.equals(versionResult.getValue(DOCFIELD_EXPORT_FILENAME, ValueType.STRING)));
+            if (existingDocId.equals("") || mismatch) {
+                BigDecimal majorVersionNumber = versionResult.getValue(DOCFIELD_MAJOR_VERSION_NUMBER, ValueType.NUMBER);
+                BigDecimal minorVersionNumber = versionResult.getValue(DOCFIELD_MINOR_VERSION_NUMBER, ValueType.NUMBER);
+
+                //documents and binders share the batch version update
+                Map<String, String> versionFields = VaultCollections.newMap();
+                versionFields.put(DOCFIELD_ID, docId);
+                versionFields.put(DOCFIELD_MAJOR_VERSION_NUMBER, majorVersionNumber.toString());
+                versionFields.put(DOCFIELD_MINOR_VERSION_NUMBER, minorVersionNumber.toString());
+                versionFields.put(DOCFIELD_BASE30_DOCUMENT_ID, base30DocumentId);
+                versionFields.put(DOCFIELD_EXPORT_FILENAME, base30DocumentId);
+                versionFieldsList.add(versionFields);
+            }
+        });
+        if (versionFieldsList.isEmpty()) {
+            return VaultCollections.newMap();
+        }
+        return updateVersions(versionFieldsList, apiConnection, repair);
+    }
+
+    /**
+     * Redoes the versions a journaled run left pending or failed, without
+     * querying the documents again
+     *
+     * @param runName run of the journal, e.g. VpsDocIdBackfillProcessor.JOB_NAME
+     * @param apiConnection
+     */
+    public void replayJournal(String runName, String apiConnection) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+        if (journal == null || !journal.getRunName().equals(runName)) {
+            journal = new VpsAssignmentJournal(runName, apiConnection);
+        }
+
+        List<Map<String, String>> versionFieldsList = VaultCollections.newList();
+        for (VpsAssignmentJournal.VpsJournalEntry entry : journal.getUnfinished()) {
+            Map<String, String> versionFields = VaultCollections.newMap();
+            versionFields.put(DOCFIELD_ID, entry.getDocId());
+            versionFields.put(DOCFIELD_MAJOR_VERSION_NUMBER, entry.getMajorVersion());
+            versionFields.put(DOCFIELD_MINOR_VERSION_NUMBER, entry.getMinorVersion());
+            versionFields.put(DOCFIELD_BASE30_DOCUMENT_ID, entry.getBase30Id());
+            versionFields.put(DOCFIELD_EXPORT_FILENAME, entry.getBase30Id());
+            versionFieldsList.add(versionFields);
+        }
+        logger.info("Replaying {} unfinished versions of {}", versionFieldsList.size(), runName);
+        if (!versionFieldsList.isEmpty()) {
+            updateVersions(versionFieldsList, apiConnection, true);
+        }
+        flushJournal();
+    }
+
+    /**
+     * Queue a replay of a journaled run
+     *
+     * @param runName
+     * @param apiConnection
+     */
+    public static void queueReplay(String runName, String apiConnection) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        QueueService queueService = ServiceLocator.locate(QueueService.class);
+        Message message = queueService.newMessage(QUEUE_NAME)
+                .setAttribute("replayRun", runName)
+                .setAttribute("apiConnection", apiConnection);
+        PutMessageResponse response = queueService.putMessage(message);
+        logger.info("Put 'replay' Message in Queue - for run {}", runName);
+
+        if (response.getError() != null) {
+            logger.info("ERROR Queuing Failed: " + response.getError().getMessage());
+        }
+    }
+
+    /**
+     * Cache the processor's API clients keep up to date, shared with the other helpers of the execution
+     */
+    public void setRecordCache(VpsRecordCache recordCache) {
+        this.recordCache = recordCache;
+    }
+
+    /**
+     * Journal to record every version as pending before the update and with its outcome after it.
+     * The pending entries of a batch are saved together with the outcomes of the batch before
+     * it, in one journal write per batch; the outcomes of the last batch are saved by flushJournal.
+     */
+    public void setJournal(VpsAssignmentJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Saves the outcomes journaled since the last update; a caller that sets its own journal
+     * calls this once it is done with the processor
+     */
+    public void flushJournal() {
+        if (journal != null) {
+            journal.flush();
+        }
+    }
+
+    /**
+     * Updates the versions, in process first; whatever the platform refuses goes through
+     * the batch HTTP update. Each version is journaled when a journal is set.
+     * Documents whose HTTP retries were deferred are queued again.
+     *
+     * @param repair repair flag of the message the documents are queued again with
+     * @return update result per version, keyed by VpsAPIClient.getVersionKey
+     */
+    private Map<String, Boolean> updateVersions(List<Map<String, String>> versionFieldsList, String apiConnection, boolean repair) {
+        VpsAPIClient apiClient = newAPIClient(apiConnection);
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        journal(versionFieldsList, null);
+        flushJournal();
+        Map<String, Boolean> updateResults = updateVersionsInProcess(versionFieldsList);
+        List<Map<String, String>> fallbackFieldsList = VaultCollections.newList();
+        for (Map<String, String> versionFields : versionFieldsList) {
+            if (!updateResults.get(getVersionKey(versionFields))) {
+                fallbackFieldsList.add(versionFields);
+            }
+        }
+        if (!fallbackFieldsList.isEmpty()) {
+            logger.info("Updating {} versions through HTTP callout", fallbackFieldsList.size());
+            updateResults.putAll(apiClient.updateDocumentVersionsBulk(fallbackFieldsList));
+            if (apiClient.isRetryDeferred()) {
+                requeueFailedVersions(fallbackFieldsList, updateResults, apiConnection, repair);
+            }
+        }
+        journal(versionFieldsList, updateResults);
+        for (String versionKey : updateResults.keySet()) {
+            if (!updateResults.get(versionKey)) {
+                logger.error("Failed to update binder/document with id {}", versionKey);
+            } else {
+                logger.info("Successfully updated binder/document with id {}", versionKey);
+            }
+        }
+        logger.info("VpsAPIClient metrics\n{}", apiClient.getMetrics().dump());
+        return updateResults;
+    }
+
+    /**
+     * Queues the documents of the failed versions again, so that the retries the HTTP
+     * fallback could not wait for run from a later message instead of right away.
+     * Gives up after MAX_DEFERRED_RETRIES messages.
+     */
+    private void requeueFailedVersions(List<Map<String, String>> versionFieldsList,
+                                       Map<String, Boolean> updateResults,
+                                       String apiConnection,
+                                       boolean repair) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+        List<String> messageItems = VaultCollections.newList();
+        Set<String> docIds = VaultCollections.newSet();
+        for (Map<String, String> versionFields : versionFieldsList) {
+            String docId = versionFields.get(DOCFIELD_ID);
+            if (!updateResults.get(getVersionKey(versionFields)) && docIds.add(docId)) {
+                messageItems.add(docId + MESSAGE_ITEM_DELIMITER + versionFields.get(DOCFIELD_BASE30_DOCUMENT_ID));
+            }
+        }
+        if (messageItems.isEmpty()) {
+            return;
+        }
+        if (deferredRetries >= MAX_DEFERRED_RETRIES) {
+            logger.error("Giving up on {} documents after {} deferred retries", messageItems.size(), deferredRetries);
+            return;
+        }
+
+        QueueService queueService = ServiceLocator.locate(QueueService.class);
+        Message message = queueService.newMessage(QUEUE_NAME)
+                .setAttribute("apiConnection", apiConnection)
+                .setAttribute("repair", repair)
+                .setAttribute("deferredRetries", deferredRetries + 1)
+                .setMessageItems(messageItems);
+        PutMessageResponse response = queueService.putMessage(message);
+        logger.info("Put 'deferred retry' Message in Queue - for {} documents", messageItems.size());
+
+        if (response.getError() != null) {
+            logger.info("ERROR Queuing Failed: " + response.getError().getMessage());
+        }
+    }
+
+    /**
+     * Buffers an entry per version; nothing is saved until the journal is flushed
+     *
+     * @param updateResults null to journal the versions as pending
+     */
+    private void journal(List<Map<String, String>> versionFieldsList, Map<String, Boolean> updateResults) {
+        if (journal == null) {
+            return;
+        }
+        for (Map<String, String> versionFields : versionFieldsList) {
+            char status = VpsAssignmentJournal.STATUS_PENDING;
+            if (updateResults != null) {
+                status = updateResults.get(getVersionKey(versionFields))
+                        ? VpsAssignmentJournal.STATUS_SUCCESS
+                        : VpsAssignmentJournal.STATUS_FAILED;
+            }
+            journal.append(versionFields.get(DOCFIELD_ID),
+                    versionFields.get(DOCFIELD_MAJOR_VERSION_NUMBER),
+                    versionFields.get(DOCFIELD_MINOR_VERSION_NUMBER),
+                    versionFields.get(DOCFIELD_BASE30_DOCUMENT_ID),
+                    status);
+        }
+    }
+
+    /**
+     * Saves the fields of many versions with DocumentService in the processor's own
+     * transaction, SAVE_BATCH_SIZE versions per call, with no HTTP callout.
+     * A batch the platform rejects is reported as failed as a whole, to be retried
+     * through the HTTP path; setInProcessUpdates(false) skips this path entirely.
+     *
+     * @param versionFieldsList id, major_version_number__v, minor_version_number__v and the fields to set
+     * @return save result per version, keyed by VpsAPIClient.getVersionKey
+     */
+    public Map<String, Boolean> updateVersionsInProcess(List<Map<String, String>> versionFieldsList) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+        Map<String, Boolean> results = VaultCollections.newMap();
+        for (Map<String, String> versionFields : versionFieldsList) {
+            results.put(getVersionKey(versionFields), false);
+        }
+        if (!inProcessUpdates) {
+            return results;
+        }
+
+        DocumentService documentService = ServiceLocator.locate(DocumentService.class);
+        for (int start = 0; start < versionFieldsList.size(); start += SAVE_BATCH_SIZE) {
+            List<Map<String, String>> batch = versionFieldsList.subList(start,
+                    Math.min(versionFieldsList.size(), start + SAVE_BATCH_SIZE));
+            List<DocumentVersion> documentVersions = VaultCollections.newList();
+            for (Map<String, String> versionFields : batch) {
+                DocumentVersion documentVersion = documentService.newVersionWithId(getVersionKey(versionFields));
+                for (String key : versionFields.keySet()) {
+                    if (!VERSION_KEY_FIELDS.contains(key)) {
+                        documentVersion.setValue(key, versionFields.get(key));
+                    }
+                }
+                documentVersions.add(documentVersion);
+            }
+            try {
+                documentService.saveDocumentVersions(documentVersions);
+                for (Map<String, String> versionFields : batch) {
+                    results.put(getVersionKey(versionFields), true);
+                }
+            } catch (VaultRuntimeException e) {
+                logger.error("In-process save of {} versions failed: {}", batch.size(), e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @param inProcessUpdates false to always update through HTTP callouts
+     */
+    public void setInProcessUpdates(boolean inProcessUpdates) {
+        this.inProcessUpdates = inProcessUpdates;
+    }
+
+    private VpsAPIClient newAPIClient(String apiConnection) {
+        VpsAPIClient apiClient = new VpsAPIClient(apiConnection);
+        if (recordCache != null) {
+            apiClient.setRecordCache(recordCache);
+        }
+        return apiClient;
+    }
+
+    private static List<String> newVersionKeyFields() {
+        List<String> versionKeyFields = VaultCollections.newList();
+        versionKeyFields.add(DOCFIELD_ID);
+        versionKeyFields.add(DOCFIELD_MAJOR_VERSION_NUMBER);
+        versionKeyFields.add(DOCFIELD_MINOR_VERSION_NUMBER);
+        return versionKeyFields;
+    }
+
+    private static String getVersionKey(Map<String, String> versionFields) {
+        return VpsAPIClient.getVersionKey(versionFields.get(DOCFIELD_ID),
+                versionFields.get(DOCFIELD_MAJOR_VERSION_NUMBER),
+                versionFields.get(DOCFIELD_MINOR_VERSION_NUMBER));
     }
 
     /**
@@ -55,19 +422,39 @@ public class VpsDocIdMessageProcessor implements MessageProcessor {
      * @param base30DocumentId
      */
     public void updateAllVersions(String docId, String base30DocumentId, String apiConnection) {
+        updateAllVersions(docId, base30DocumentId, apiConnection, false);
+    }
+
+    /**
+     * updateAllVersions : update every version missing the Document ID
+     *
+     * @param docId
+     * @param base30DocumentId
+     * @param apiConnection
+     * @param bulkUpdate send all versions through the batch version update instead of one call per version
+     */
+    public void updateAllVersions(String docId, String base30DocumentId, String apiConnection, boolean bulkUpdate) {
+
+        if (bulkUpdate) {
+            Map<String, String> base30DocumentIds = VaultCollections.newMap();
+            base30DocumentIds.put(docId, base30DocumentId);
+            updateAllVersions(base30DocumentIds, apiConnection);
+            return;
+        }
 
-        VpsVQLHelper vqlHelper = new VpsVQLHelper();
         VpsUtilHelper utilHelper = new VpsUtilHelper();
-        VpsAPIClient apiClient = new VpsAPIClient(apiConnection);
+        VpsAPIClient apiClient = newAPIClient(apiConnection);
         LogService logger = ServiceLocator.locate(LogService.class);
 
-        vqlHelper.appendVQL("SELECT"+  DOCFIELD_MAJOR_VERSION_NUMBER + ",");
-        vqlHelper.appendVQL(DOCFIELD_MINOR_VERSION_NUMBER + "," );
-        vqlHelper.appendVQL(DOCFIELD_BASE30_DOCUMENT_ID +",");
-        vqlHelper.appendVQL(DOCFIELD_BINDER);
-        vqlHelper.appendVQL(" FROM " + "allversions documents");
-        vqlHelper.appendVQL(" WHERE " + DOCFIELD_ID + "=" + docId);
-        QueryResponse versionResponse = vqlHelper.runVQL();
+        VpsVQLTemplate vqlTemplate = new VpsVQLTemplate("SELECT " + DOCFIELD_MAJOR_VERSION_NUMBER + ", "
+                + DOCFIELD_MINOR_VERSION_NUMBER + ", "
+                + DOCFIELD_BASE30_DOCUMENT_ID + ", "
+                + DOCFIELD_BINDER
+                + " FROM allversions documents"
+                + " WHERE " + DOCFIELD_ID + " = :docId");
+        vqlTemplate.setNumber("docId", docId);
+        QueryResponse versionResponse = vqlTemplate.runVQL();
+
         //update previous versions one by one
         versionResponse.streamResults().forEach(versionResult -> {
             BigDecimal majorVersionNumber = versionResult.getValue(DOCFIELD_MAJOR_VERSION_NUMBER, ValueType.NUMBER);
@@ -80,11 +467,20 @@ public class VpsDocIdMessageProcessor implements MessageProcessor {
             documentFieldsToUpdate.put(DOCFIELD_EXPORT_FILENAME, base30DocumentId);
 
             if (existingDocId != null && existingDocId.equals("")) {
-                boolean updateSuccess = false;
-                if (isBinder) {
+                Map<String, String> versionFields = VaultCollections.newMap();
+                versionFields.putAll(documentFieldsToUpdate);
+                versionFields.put(DOCFIELD_ID, docId);
+                versionFields.put(DOCFIELD_MAJOR_VERSION_NUMBER, majorVersionNumber.toString());
+                versionFields.put(DOCFIELD_MINOR_VERSION_NUMBER, minorVersionNumber.toString());
+                List<Map<String, String>> versionFieldsList = VaultCollections.newList();
+                versionFieldsList.add(versionFields);
+
+                boolean updateSuccess = updateVersionsInProcess(versionFieldsList).get(getVersionKey(versionFields));
+                //HTTP callout only if the in-process save was refused
+                if (!updateSuccess && isBinder) {
                     updateSuccess = apiClient.updateBinderFields(docId, majorVersionNumber.toString(),
                             minorVersionNumber.toString(), documentFieldsToUpdate);
-                } else {
+                } else if (!updateSuccess) {
                     updateSuccess = apiClient.updateDocumentFields(docId, majorVersionNumber.toString(),
                             minorVersionNumber.toString(), documentFieldsToUpdate);
                 }
@@ -98,6 +494,7 @@ public class VpsDocIdMessageProcessor implements MessageProcessor {
             }
 
         });
+        logger.info("VpsAPIClient metrics\n{}", apiClient.getMetrics().dump());
     }
 }
 
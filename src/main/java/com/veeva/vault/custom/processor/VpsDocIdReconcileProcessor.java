@@ -0,0 +1,240 @@
+/*
+ * --------------------------------------------------------------------
+ * MessageProcessor:	VpsDocIdReconcileProcessor
+ * Author:				achinchalkar @ Veeva
+ * Date:				2026-10-18
+ *---------------------------------------------------------------------
+ * Description:	Checks that every version carries its document's
+ *				Document ID and export file name, one document id
+ *				range per message, and queues only the mismatches
+ *				for repair
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *		This code is based on pre-existing content developed and
+ *		owned by Veeva Systems Inc. and may only be used in connection
+ *		with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.processor;
+
+
+import com.veeva.vault.custom.action.VpsDocIDGenerator;
+import com.veeva.vault.custom.util.VpsSequenceGenerator;
+import com.veeva.vault.custom.util.VpsVQLTemplate;
+import com.veeva.vault.sdk.api.core.LogService;
+import com.veeva.vault.sdk.api.core.ServiceLocator;
+import com.veeva.vault.sdk.api.core.ValueType;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.query.QueryResult;
+import com.veeva.vault.sdk.api.queue.*;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+
+@MessageProcessorInfo()
+public class VpsDocIdReconcileProcessor implements MessageProcessor {
+
+    public static final String QUEUE_NAME = "doc_id_reconcile_queue__c";
+
+    private static final String DOCFIELD_ID = "id";
+    private static final String DOCFIELD_BASE30_DOCUMENT_ID = "document_id__c";
+    private static final String DOCFIELD_EXPORT_FILENAME = "export_filename__v";
+    private static final String DOCFIELD_MAJOR_VERSION_NUMBER = "major_version_number__v";
+    private static final String DOCFIELD_MINOR_VERSION_NUMBER = "minor_version_number__v";
+    private static final int DOCID_FORMAT_LEGTH = 6;
+    private static final int DOCID_MAX_VALUE = 728999999;
+    //document ids per partition message
+    private static final long DEFAULT_PARTITION_SIZE = 20000;
+
+    private long documentCount = 0;
+    private long versionCount = 0;
+    private long missingCount = 0;
+    private List<String> repairDocIds = VaultCollections.newList();
+    private List<String> repairBase30DocIds = VaultCollections.newList();
+
+
+    /**
+     * A message without a range splits the document id space into partitions and queues
+     * one message per partition; the queue runs the partitions concurrently.
+     * A message with fromDocId and toDocId reconciles that range.
+     */
+    public void execute(MessageContext context) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+        logger.info("Initialize processor VpsDocIdReconcileProcessor");
+        String apiConnection = context.getMessage().getAttribute("apiConnection", MessageAttributeValueType.STRING);
+        BigDecimal fromDocId = context.getMessage().getAttribute("fromDocId", MessageAttributeValueType.NUMBER);
+        BigDecimal toDocId = context.getMessage().getAttribute("toDocId", MessageAttributeValueType.NUMBER);
+
+        if (fromDocId == null || toDocId == null) {
+            BigDecimal partitionSize = context.getMessage().getAttribute("partitionSize", MessageAttributeValueType.NUMBER);
+            queuePartitions(partitionSize == null ? DEFAULT_PARTITION_SIZE : partitionSize.longValue(), apiConnection);
+        } else {
+            reconcile(fromDocId.longValue(), toDocId.longValue());
+        }
+    }
+
+    /**
+     * Queues one message per range of partitionSize document ids, up to the highest document id
+     */
+    public void queuePartitions(long partitionSize, String apiConnection) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        final long[] maxDocId = {0};
+        new VpsVQLTemplate("SELECT " + DOCFIELD_ID + " FROM documents ORDER BY " + DOCFIELD_ID + " DESC LIMIT 1")
+                .runVQL().streamResults().forEach(queryResult -> {
+                    maxDocId[0] = queryResult.getValue(DOCFIELD_ID, ValueType.NUMBER).longValue();
+                });
+
+        int partitions = 0;
+        for (long fromDocId = 1; fromDocId <= maxDocId[0]; fromDocId += partitionSize) {
+            queuePartition(fromDocId, Math.min(maxDocId[0], fromDocId + partitionSize - 1), apiConnection);
+            partitions++;
+        }
+        logger.info("Queued {} reconciliation partitions up to document {}", partitions, maxDocId[0]);
+    }
+
+    /**
+     * Streams every version of the documents in the range in document id order and
+     * queues the documents with mismatching versions for repair
+     *
+     * @param fromDocId first document id, inclusive
+     * @param toDocId last document id, inclusive
+     */
+    public void reconcile(long fromDocId, long toDocId) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        VpsVQLTemplate versionQuery = new VpsVQLTemplate("SELECT " + DOCFIELD_ID + ", "
+                + DOCFIELD_MAJOR_VERSION_NUMBER + ", "
+                + DOCFIELD_MINOR_VERSION_NUMBER + ", "
+                + DOCFIELD_BASE30_DOCUMENT_ID + ", "
+                + DOCFIELD_EXPORT_FILENAME
+                + " FROM allversions documents"
+                + " WHERE " + DOCFIELD_ID + " >= :fromDocId AND " + DOCFIELD_ID + " <= :toDocId"
+                + " ORDER BY " + DOCFIELD_ID + " ASC");
+        versionQuery.setNumber("fromDocId", fromDocId);
+        versionQuery.setNumber("toDocId", toDocId);
+
+        //versions arrive grouped by document; each document is checked once its last version is read
+        List<QueryResult> documentVersions = VaultCollections.newList();
+        String currentDocId = null;
+        Iterator<QueryResult> results = versionQuery.runVQL().streamResults().iterator();
+        while (results.hasNext()) {
+            QueryResult versionResult = results.next();
+            String docId = versionResult.getValue(DOCFIELD_ID, ValueType.NUMBER).toString();
+            if (currentDocId != null && !currentDocId.equals(docId)) {
+                reconcileDocument(currentDocId, documentVersions);
+                documentVersions.clear();
+            }
+            currentDocId = docId;
+            documentVersions.add(versionResult);
+        }
+        if (currentDocId != null) {
+            reconcileDocument(currentDocId, documentVersions);
+        }
+
+        if (!repairDocIds.isEmpty()) {
+            new VpsDocIDGenerator().queueLocalMessages(repairDocIds, repairBase30DocIds, true);
+        }
+        logger.info("Reconciled documents {} - {}: {} documents, {} versions, {} to repair, {} without Document ID",
+                fromDocId, toDocId, documentCount, versionCount, repairDocIds.size(), missingCount);
+    }
+
+    /**
+     * The expected Document ID is the one on the latest version, or else the one on the
+     * earliest version that has a valid ID. Documents with no valid ID at all are left
+     * to the backfill.
+     */
+    private void reconcileDocument(String docId, List<QueryResult> documentVersions) {
+        documentCount++;
+        versionCount += documentVersions.size();
+
+        String expectedDocId = null;
+        QueryResult latestVersion = null;
+        QueryResult earliestNumberedVersion = null;
+        for (QueryResult versionResult : documentVersions) {
+            if (latestVersion == null || compareVersions(versionResult, latestVersion) > 0) {
+                latestVersion = versionResult;
+            }
+            if (isValidDocId(versionResult.getValue(DOCFIELD_BASE30_DOCUMENT_ID, ValueType.STRING))
+                    && (earliestNumberedVersion == null || compareVersions(versionResult, earliestNumberedVersion) < 0)) {
+                earliestNumberedVersion = versionResult;
+            }
+        }
+        if (isValidDocId(latestVersion.getValue(DOCFIELD_BASE30_DOCUMENT_ID, ValueType.STRING))) {
+            expectedDocId = latestVersion.getValue(DOCFIELD_BASE30_DOCUMENT_ID, ValueType.STRING);
+        } else if (earliestNumberedVersion != null) {
+            expectedDocId = earliestNumberedVersion.getValue(DOCFIELD_BASE30_DOCUMENT_ID, ValueType.STRING);
+        }
+        if (expectedDocId == null) {
+            missingCount++;
+            return;
+        }
+
+        for (QueryResult versionResult : documentVersions) {
+            if (!expectedDocId.equals(versionResult.getValue(DOCFIELD_BASE30_DOCUMENT_ID, ValueType.STRING))
+                    || !expectedDocId.equals(versionResult.getValue(DOCFIELD_EXPORT_FILENAME, ValueType.STRING))) {
+                repairDocIds.add(docId);
+                repairBase30DocIds.add(expectedDocId);
+                return;
+            }
+        }
+    }
+
+    private static int compareVersions(QueryResult first, QueryResult second) {
+        int major = first.getValue(DOCFIELD_MAJOR_VERSION_NUMBER, ValueType.NUMBER)
+                .compareTo(second.getValue(DOCFIELD_MAJOR_VERSION_NUMBER, ValueType.NUMBER));
+        if (major != 0) {
+            return major;
+        }
+        return first.getValue(DOCFIELD_MINOR_VERSION_NUMBER, ValueType.NUMBER)
+                .compareTo(second.getValue(DOCFIELD_MINOR_VERSION_NUMBER, ValueType.NUMBER));
+    }
+
+    private static boolean isValidDocId(String base30DocId) {
+        return base30DocId != null
+                && VpsSequenceGenerator.isValidBase30(base30DocId, DOCID_FORMAT_LEGTH, DOCID_MAX_VALUE);
+    }
+
+    /**
+     * Queue a full reconciliation; the message is split into partitions when processed
+     *
+     * @param apiConnection
+     */
+    public static void queueReconciliation(String apiConnection) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        QueueService queueService = ServiceLocator.locate(QueueService.class);
+        Message message = queueService.newMessage(QUEUE_NAME)
+                .setAttribute("apiConnection", apiConnection);
+        PutMessageResponse response = queueService.putMessage(message);
+        logger.info("Put 'reconcile' Message in Queue");
+
+        if (response.getError() != null) {
+            logger.info("ERROR Queuing Failed: " + response.getError().getMessage());
+        }
+    }
+
+    /**
+     * Queue the reconciliation of one document id range
+     *
+     * @param fromDocId
+     * @param toDocId
+     * @param apiConnection
+     */
+    public static void queuePartition(long fromDocId, long toDocId, String apiConnection) {
+        LogService logger = ServiceLocator.locate(LogService.class);
+
+        QueueService queueService = ServiceLocator.locate(QueueService.class);
+        Message message = queueService.newMessage(QUEUE_NAME)
+                .setAttribute("fromDocId", BigDecimal.valueOf(fromDocId))
+                .setAttribute("toDocId", BigDecimal.valueOf(toDocId))
+                .setAttribute("apiConnection", apiConnection);
+        PutMessageResponse response = queueService.putMessage(message);
+        logger.info("Put 'reconcile' Message in Queue - for documents {} - {}", fromDocId, toDocId);
+
+        if (response.getError() != null) {
+            logger.info("ERROR Queuing Failed: " + response.getError().getMessage());
+        }
+    }
+}
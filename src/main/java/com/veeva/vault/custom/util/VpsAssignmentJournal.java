@@ -0,0 +1,282 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsAssignmentJournal
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Append-only journal of Document ID assignments per
+ *              version, packed as fixed-width entries into Vault
+ *              records, with replay of the unfinished versions
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.custom.util.api.VpsAPIClient;
+import com.veeva.vault.custom.util.api.VpsCreateObjectsResult;
+import com.veeva.vault.sdk.api.core.RollbackException;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.ValueType;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@UserDefinedClassInfo()
+public class VpsAssignmentJournal extends VpsBaseHelper {
+
+	public static final String JOURNAL_OBJ_NAME = "vps_docid_journal__c";
+
+	public static final char STATUS_PENDING = 'P';
+	public static final char STATUS_SUCCESS = 'S';
+	public static final char STATUS_FAILED = 'F';
+
+	//entry layout: docId(10) major(5) minor(5) base30 ID(7) status(1), space padded on the left
+	private static final int WIDTH_DOC_ID = 10;
+	private static final int WIDTH_VERSION = 5;
+	private static final int WIDTH_BASE30_ID = VpsSequenceGenerator.MAX_BASE30_DIGITS;
+	public static final int ENTRY_WIDTH = WIDTH_DOC_ID + 2 * WIDTH_VERSION + WIDTH_BASE30_ID + 1;
+	//entries per record, keeping entries__c below the 32000 character long text limit
+	private static final int MAX_ENTRIES_PER_RECORD = 1000;
+
+	private static final String OBJFIELD_NAME = "name__v";
+	private static final String OBJFIELD_RUN = "run__c";
+	private static final String OBJFIELD_SEQUENCE = "sequence__c";
+	private static final String OBJFIELD_ENTRIES = "entries__c";
+
+	private String runName;
+	private String apiConnection;
+	private String writerKey;
+	private int writerSequence = 0;
+	private StringBuilder buffer = new StringBuilder();
+	private int bufferedEntries = 0;
+	private List<Map<String, String>> pendingRecords = VaultCollections.newList();
+
+	/**
+	 * Journal of one run, e.g. a backfill or a migration load, for replay only
+	 *
+	 * @param runName run the entries belong to
+	 */
+	public VpsAssignmentJournal(String runName) {
+		this(runName, null);
+	}
+
+	/**
+	 * Journal of one run that also appends entries. Entries are buffered and created as new
+	 * vps_docid_journal__c records on flush; records are never updated.
+	 * The records are created through the API connection, so they commit on their own:
+	 * pending entries survive a rollback of the work they track, and so do the outcomes of
+	 * HTTP updates, which a rollback does not undo either. A success entry of an in-process
+	 * save outlives a rollback of that save; reconciliation finds those versions.
+	 * Each instance writes its own records, named runName-writerKey-n, so several
+	 * executions can journal the same run at once.
+	 *
+	 * @param runName run the entries belong to
+	 * @param apiConnection connection to the local vault, e.g. local_http_callout_connection
+	 */
+	public VpsAssignmentJournal(String runName, String apiConnection) {
+		super();
+		this.runName = runName;
+		this.apiConnection = apiConnection;
+		this.writerKey = Long.toString(Instant.now().toEpochMilli(), 36)
+				+ Long.toString((long) (Math.random() * Integer.MAX_VALUE), 36);
+	}
+
+	/**
+	 * Buffers an entry for a version
+	 *
+	 * @param status STATUS_PENDING before the update, STATUS_SUCCESS or STATUS_FAILED after it
+	 */
+	public void append(String docId, String majorVersion, String minorVersion, String base30Id, char status) {
+		encode(buffer, docId, majorVersion, minorVersion, base30Id, status);
+		bufferedEntries++;
+		if (bufferedEntries == MAX_ENTRIES_PER_RECORD) {
+			closeRecord();
+		}
+	}
+
+	/**
+	 * Creates records for the buffered entries, MAX_ENTRIES_PER_RECORD per record
+	 */
+	public void flush() {
+		if (bufferedEntries > 0) {
+			closeRecord();
+		}
+		if (pendingRecords.isEmpty()) {
+			return;
+		}
+		if (apiConnection == null) {
+			throw new RollbackException("OPERATION_NOT_ALLOWED", "Journal of " + runName + " was opened for replay only");
+		}
+		VpsAPIClient apiClient = new VpsAPIClient(apiConnection);
+		VpsCreateObjectsResult result = apiClient.createObjects(JOURNAL_OBJ_NAME, pendingRecords);
+		if (!result.isSuccess()) {
+			String errMsg = result.getErrors().isEmpty()
+					? String.join(", ", apiClient.getErrorList())
+					: result.getErrors().values().iterator().next();
+			throw new RollbackException("OPERATION_NOT_ALLOWED", "Unable to save journal of " + runName + ": " + errMsg);
+		}
+		pendingRecords.clear();
+	}
+
+	/**
+	 * Reads every entry of the run in append order; the last entry of a version is its state
+	 *
+	 * @return latest entry per version, keyed by docId_major_minor
+	 */
+	public Map<String, VpsJournalEntry> replay() {
+		return replay(null);
+	}
+
+	/**
+	 * Reads the entries of some documents only; the records are still read in full,
+	 * but only the entries of those documents are kept in memory
+	 *
+	 * @param docIds documents to keep; null for every document
+	 * @return latest entry per version, keyed by docId_major_minor
+	 */
+	public Map<String, VpsJournalEntry> replay(Set<String> docIds) {
+		Map<String, VpsJournalEntry> entries = VaultCollections.newMap();
+		VpsVQLTemplate vqlTemplate = new VpsVQLTemplate("SELECT " + OBJFIELD_SEQUENCE + ", " + OBJFIELD_ENTRIES
+				+ " FROM " + JOURNAL_OBJ_NAME
+				+ " WHERE " + OBJFIELD_RUN + " = :run"
+				+ " ORDER BY " + OBJFIELD_SEQUENCE + " ASC");
+		vqlTemplate.setServiceLocator(getServiceLocator());
+		vqlTemplate.setString("run", runName);
+		vqlTemplate.runVQL().streamResults().forEach(queryResult -> {
+			String recordEntries = queryResult.getValue(OBJFIELD_ENTRIES, ValueType.STRING);
+			if (recordEntries == null) {
+				return;
+			}
+			for (int offset = 0; offset + ENTRY_WIDTH <= recordEntries.length(); offset += ENTRY_WIDTH) {
+				VpsJournalEntry entry = decode(recordEntries, offset);
+				if (docIds == null || docIds.contains(entry.getDocId())) {
+					entries.put(entry.getVersionKey(), entry);
+				}
+			}
+		});
+		getLogService().info("VpsAssignmentJournal {} replayed {} versions", runName, entries.size());
+		return entries;
+	}
+
+	/**
+	 * @return versions whose latest entry is not STATUS_SUCCESS, i.e. still to be redone
+	 */
+	public List<VpsJournalEntry> getUnfinished() {
+		List<VpsJournalEntry> unfinished = VaultCollections.newList();
+		for (VpsJournalEntry entry : replay().values()) {
+			if (entry.getStatus() != STATUS_SUCCESS) {
+				unfinished.add(entry);
+			}
+		}
+		return unfinished;
+	}
+
+	public String getRunName() {
+		return runName;
+	}
+
+	/**
+	 * Appends an entry of ENTRY_WIDTH characters to a record's entries
+	 */
+	public static StringBuilder encode(StringBuilder recordEntries, String docId, String majorVersion,
+									   String minorVersion, String base30Id, char status) {
+		appendPadded(recordEntries, docId, WIDTH_DOC_ID);
+		appendPadded(recordEntries, majorVersion, WIDTH_VERSION);
+		appendPadded(recordEntries, minorVersion, WIDTH_VERSION);
+		appendPadded(recordEntries, base30Id, WIDTH_BASE30_ID);
+		return recordEntries.append(status);
+	}
+
+	/**
+	 * Parses the entry at offset of a record's entries
+	 */
+	public static VpsJournalEntry decode(String recordEntries, int offset) {
+		int position = offset;
+		String docId = recordEntries.substring(position, position += WIDTH_DOC_ID).trim();
+		String majorVersion = recordEntries.substring(position, position += WIDTH_VERSION).trim();
+		String minorVersion = recordEntries.substring(position, position += WIDTH_VERSION).trim();
+		String base30Id = recordEntries.substring(position, position += WIDTH_BASE30_ID).trim();
+		return new VpsJournalEntry(docId, majorVersion, minorVersion, base30Id, recordEntries.charAt(position));
+	}
+
+	private static void appendPadded(StringBuilder recordEntries, String value, int width) {
+		if (value.length() > width) {
+			throw new RollbackException("OPERATION_NOT_ALLOWED", "Journal value " + value + " is wider than " + width);
+		}
+		for (int i = value.length(); i < width; i++) {
+			recordEntries.append(' ');
+		}
+		recordEntries.append(value);
+	}
+
+	/**
+	 * Records are ordered by the time they were closed, with the writer's own count
+	 * breaking ties, so replay reads the entries of concurrent writers in time order
+	 */
+	private void closeRecord() {
+		writerSequence++;
+		long sequence = Instant.now().toEpochMilli() * 1000 + writerSequence % 1000;
+		Map<String, String> recordFields = VaultCollections.newMap();
+		recordFields.put(OBJFIELD_NAME, runName + "-" + writerKey + "-" + writerSequence);
+		recordFields.put(OBJFIELD_RUN, runName);
+		recordFields.put(OBJFIELD_SEQUENCE, Long.toString(sequence));
+		recordFields.put(OBJFIELD_ENTRIES, buffer.toString());
+		pendingRecords.add(recordFields);
+		buffer.setLength(0);
+		bufferedEntries = 0;
+	}
+
+	/**
+	 * One journaled version
+	 */
+	public static class VpsJournalEntry {
+
+		private final String docId;
+		private final String majorVersion;
+		private final String minorVersion;
+		private final String base30Id;
+		private final char status;
+
+		public VpsJournalEntry(String docId, String majorVersion, String minorVersion, String base30Id, char status) {
+			this.docId = docId;
+			this.majorVersion = majorVersion;
+			this.minorVersion = minorVersion;
+			this.base30Id = base30Id;
+			this.status = status;
+		}
+
+		public String getDocId() {
+			return docId;
+		}
+
+		public String getMajorVersion() {
+			return majorVersion;
+		}
+
+		public String getMinorVersion() {
+			return minorVersion;
+		}
+
+		public String getBase30Id() {
+			return base30Id;
+		}
+
+		public char getStatus() {
+			return status;
+		}
+
+		/**
+		 * @return version key in the Vault version id format, e.g. 101_0_1
+		 */
+		public String getVersionKey() {
+			return docId + "_" + majorVersion + "_" + minorVersion;
+		}
+	}
+}
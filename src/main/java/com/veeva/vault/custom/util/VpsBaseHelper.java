@@ -15,17 +15,15 @@
 package com.veeva.vault.custom.util;
 
 import com.veeva.vault.sdk.api.core.*;
-import com.veeva.vault.sdk.api.query.QueryService;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 @UserDefinedClassInfo()
 public class VpsBaseHelper {
 
 	private List<String> errorList = VaultCollections.newList();
-	private LogService logService = ServiceLocator.locate(LogService.class);
-	private static final String USER_QUERY = "select id from user__sys where id = '%s' limit 0";
+	private LogService logService = null;
+	private VpsServiceLocator serviceLocator = null;
 
 	public VpsBaseHelper() {
 		super();
@@ -43,31 +41,27 @@ public class VpsBaseHelper {
 	protected LogService getLogService() {
 		//initialize the service on the first call
 		if (logService == null) {
-			logService = ServiceLocator.locate(LogService.class);
+			logService = getServiceLocator().locate(LogService.class);
 		}
 		return logService;
 	}
 
 	/**
-	 * Method to simulate a delay. Default 1 second
+	 * @return locator the helper gets its services from; ServiceLocator unless one was set
 	 */
-	protected void sleep() {
-		sleep(1);
+	public VpsServiceLocator getServiceLocator() {
+		if (serviceLocator == null) {
+			serviceLocator = new VpsSdkServiceLocator();
+		}
+		return serviceLocator;
 	}
 
 	/**
-	 * Method to simulate a delay. Queries the current user.
+	 * Replaces the locator the helper gets its services from, e.g. when it runs outside Vault.
+	 * Services located earlier are released.
 	 */
-	protected void sleep(long seconds) {
-		try {
-			LocalDateTime startTime = LocalDateTime.now();
-			while (LocalDateTime.now().isBefore(startTime.plusSeconds(seconds))) {
-				QueryService queryService = ServiceLocator.locate(QueryService.class);
-				queryService.query(String.format(USER_QUERY, RequestContext.get().getCurrentUserId()));
-			}
-		}
-		catch (VaultRuntimeException exception) {
-			getLogService().error("VpsRecordHelper.sleep - {}", exception.getMessage());
-		}
+	public void setServiceLocator(VpsServiceLocator serviceLocator) {
+		this.serviceLocator = serviceLocator;
+		this.logService = null;
 	}
 }
\ No newline at end of file
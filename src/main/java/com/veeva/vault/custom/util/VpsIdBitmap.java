@@ -0,0 +1,261 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsIdBitmap
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Compact registry of issued sequence values, e.g. the
+ *              decoded base30 Document IDs, for duplicate and gap
+ *              audits without rescanning Vault
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.ValueType;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+
+import java.util.Iterator;
+import java.util.List;
+
+@UserDefinedClassInfo()
+public class VpsIdBitmap extends VpsBaseHelper {
+
+	//65536 values per chunk, held in 1024 longs (8 KB)
+	private static final int CHUNK_SHIFT = 16;
+	private static final int CHUNK_WORDS = 1 << (CHUNK_SHIFT - 6);
+	private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+	//duplicates kept for the report; the count is always exact
+	private static final int MAX_REPORTED_DUPLICATES = 1000;
+
+	private int maxValue;
+	//chunks are allocated on the first value in their range, so memory follows the values actually issued
+	private long[][] chunks;
+	private long cardinality = 0;
+	private long duplicateCount = 0;
+	private long invalidCount = 0;
+	private List<Integer> duplicates = VaultCollections.newList();
+
+	/**
+	 * Bitmap over the values 0 - maxValue, e.g. DOCID_MAX_VALUE. A fully issued
+	 * range costs one bit per value; ranges with no value cost nothing.
+	 * The SDK allows no off-heap or mapped memory, so chunks live on the heap:
+	 * 10 million issued IDs take about 1.3 MB.
+	 *
+	 * @param maxValue largest value tracked
+	 */
+	public VpsIdBitmap(int maxValue) {
+		super();
+		this.maxValue = maxValue;
+		this.chunks = new long[(maxValue >>> CHUNK_SHIFT) + 1][];
+	}
+
+	/**
+	 * Marks a value as issued
+	 *
+	 * @return false if the value was already issued (a duplicate) or is outside 0 - maxValue
+	 */
+	public boolean add(int value) {
+		if (value < 0 || value > maxValue) {
+			invalidCount++;
+			return false;
+		}
+		long[] chunk = chunks[value >>> CHUNK_SHIFT];
+		if (chunk == null) {
+			chunk = new long[CHUNK_WORDS];
+			chunks[value >>> CHUNK_SHIFT] = chunk;
+		}
+		int word = (value & CHUNK_MASK) >>> 6;
+		long bit = 1L << value;
+		if ((chunk[word] & bit) != 0) {
+			duplicateCount++;
+			if (duplicates.size() < MAX_REPORTED_DUPLICATES) {
+				duplicates.add(value);
+			}
+			return false;
+		}
+		chunk[word] |= bit;
+		cardinality++;
+		return true;
+	}
+
+	/**
+	 * Marks a base30 ID as issued, see add(int)
+	 *
+	 * @return false for duplicates and IDs that are not valid base30
+	 */
+	public boolean addBase30(CharSequence base30Id) {
+		if (!VpsSequenceGenerator.isValidBase30(base30Id)) {
+			invalidCount++;
+			return false;
+		}
+		return add(VpsSequenceGenerator.decodeBase30(base30Id));
+	}
+
+	/**
+	 * @return true if the value was issued
+	 */
+	public boolean contains(int value) {
+		if (value < 0 || value > maxValue) {
+			return false;
+		}
+		long[] chunk = chunks[value >>> CHUNK_SHIFT];
+		return chunk != null && (chunk[(value & CHUNK_MASK) >>> 6] & (1L << value)) != 0;
+	}
+
+	/**
+	 * @return first issued value at or after from; -1 if there is none
+	 */
+	public int nextIssued(int from) {
+		return next(from, true);
+	}
+
+	/**
+	 * @return first unissued value at or after from; -1 if every value up to maxValue is issued
+	 */
+	public int nextUnissued(int from) {
+		return next(from, false);
+	}
+
+	/**
+	 * Ranges of unissued values between from and to, both inclusive, in ascending order
+	 *
+	 * @param maxGaps stop after this many ranges
+	 * @return gaps as {first, last} pairs
+	 */
+	public List<int[]> getGaps(int from, int to, int maxGaps) {
+		List<int[]> gaps = VaultCollections.newList();
+		int last = Math.min(to, maxValue);
+		int position = Math.max(0, from);
+		while (position <= last && gaps.size() < maxGaps) {
+			int gapStart = nextUnissued(position);
+			if (gapStart < 0 || gapStart > last) {
+				break;
+			}
+			int nextIssued = nextIssued(gapStart);
+			int gapEnd = nextIssued < 0 || nextIssued > last ? last : nextIssued - 1;
+			gaps.add(new int[]{gapStart, gapEnd});
+			if (gapEnd == Integer.MAX_VALUE) {
+				break;
+			}
+			position = gapEnd + 1;
+		}
+		return gaps;
+	}
+
+	/**
+	 * Loads the base30 IDs of a query result, e.g. every document_id__c in the vault.
+	 * Rows are streamed page by page, so only the bitmap stays in memory.
+	 *
+	 * @param vqlTemplate query with every parameter bound
+	 * @param fieldName field holding the base30 ID
+	 * @return number of rows read
+	 */
+	public long load(VpsVQLTemplate vqlTemplate, String fieldName) {
+		final long[] rows = {0};
+		vqlTemplate.runVQL().streamResults().forEach(queryResult -> {
+			String base30Id = queryResult.getValue(fieldName, ValueType.STRING);
+			if (base30Id != null) {
+				addBase30(base30Id);
+			}
+			rows[0]++;
+		});
+		getLogService().info("VpsIdBitmap loaded {} rows - {} issued, {} duplicates, {} invalid",
+				rows[0], cardinality, duplicateCount, invalidCount);
+		return rows[0];
+	}
+
+	/**
+	 * Loads base30 IDs from any source, e.g. VpsVQLResultIterator values
+	 *
+	 * @return number of IDs read
+	 */
+	public long load(Iterator<String> base30Ids) {
+		long rows = 0;
+		while (base30Ids.hasNext()) {
+			String base30Id = base30Ids.next();
+			if (base30Id != null) {
+				addBase30(base30Id);
+			}
+			rows++;
+		}
+		return rows;
+	}
+
+	/**
+	 * @return number of distinct issued values
+	 */
+	public long getCardinality() {
+		return cardinality;
+	}
+
+	/**
+	 * @return number of values added more than once
+	 */
+	public long getDuplicateCount() {
+		return duplicateCount;
+	}
+
+	/**
+	 * @return the first duplicated values, at most 1000
+	 */
+	public List<Integer> getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return number of values that were out of range or not valid base30
+	 */
+	public long getInvalidCount() {
+		return invalidCount;
+	}
+
+	/**
+	 * @return approximate heap used by the allocated chunks
+	 */
+	public long getMemoryBytes() {
+		long bytes = (long) chunks.length * 8;
+		for (long[] chunk : chunks) {
+			if (chunk != null) {
+				bytes += (long) CHUNK_WORDS * 8;
+			}
+		}
+		return bytes;
+	}
+
+	private int next(int from, boolean issued) {
+		if (from < 0) {
+			from = 0;
+		}
+		int chunkIndex = from >>> CHUNK_SHIFT;
+		int word = (from & CHUNK_MASK) >>> 6;
+		//bits below from in the first word are masked out
+		long firstWordMask = -1L << from;
+		for (; chunkIndex < chunks.length; chunkIndex++) {
+			long[] chunk = chunks[chunkIndex];
+			if (chunk == null) {
+				if (!issued) {
+					int value = Math.max(from, chunkIndex << CHUNK_SHIFT);
+					return value > maxValue ? -1 : value;
+				}
+			} else {
+				for (; word < CHUNK_WORDS; word++) {
+					long bits = (issued ? chunk[word] : ~chunk[word]) & firstWordMask;
+					firstWordMask = -1L;
+					if (bits != 0) {
+						int value = (chunkIndex << CHUNK_SHIFT) + (word << 6) + Long.numberOfTrailingZeros(bits);
+						return value > maxValue ? -1 : value;
+					}
+				}
+			}
+			word = 0;
+			firstWordMask = -1L;
+		}
+		return -1;
+	}
+}
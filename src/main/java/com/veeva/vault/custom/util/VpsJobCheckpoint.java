@@ -0,0 +1,215 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsJobCheckpoint
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Progress of a long running job, persisted in a Vault
+ *              object record so a restarted job resumes where it
+ *              left off
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.RollbackException;
+import com.veeva.vault.sdk.api.core.ServiceLocator;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.ValueType;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.data.Record;
+import com.veeva.vault.sdk.api.data.RecordService;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@UserDefinedClassInfo()
+public class VpsJobCheckpoint extends VpsBaseHelper {
+
+	public static final String CHECKPOINT_OBJ_NAME = "vps_job_checkpoint__c";
+
+	private static final String OBJFIELD_ID = "id";
+	private static final String OBJFIELD_NAME = "name__v";
+	private static final String OBJFIELD_LAST_KEY = "last_key__c";
+	private static final String OBJFIELD_PROCESSED_COUNT = "processed_count__c";
+	private static final String OBJFIELD_COMPLETE = "complete__c";
+	private static final String OBJFIELD_RUN_TOKEN = "run_token__c";
+	private static final String OBJFIELD_MODIFIED_DATE = "modified_date__v";
+
+	private String jobName;
+	private String recordId = null;
+	private String lastKey = "";
+	private long processedCount = 0;
+	private boolean complete = false;
+	private String runToken = "";
+	private ZonedDateTime modifiedDate = null;
+
+	/**
+	 * Checkpoint of one job, one vps_job_checkpoint__c record per job name.
+	 * The record is read by load and created on the first save.
+	 *
+	 * @param jobName unique job name, e.g. document_id_backfill
+	 */
+	public VpsJobCheckpoint(String jobName) {
+		super();
+		this.jobName = jobName;
+	}
+
+	/**
+	 * Reads the saved progress; a job without a record starts from the beginning
+	 */
+	public VpsJobCheckpoint load() {
+		VpsVQLTemplate vqlTemplate = new VpsVQLTemplate("SELECT " + OBJFIELD_ID + ", "
+				+ OBJFIELD_LAST_KEY + ", "
+				+ OBJFIELD_PROCESSED_COUNT + ", "
+				+ OBJFIELD_COMPLETE + ", "
+				+ OBJFIELD_RUN_TOKEN + ", "
+				+ OBJFIELD_MODIFIED_DATE
+				+ " FROM " + CHECKPOINT_OBJ_NAME
+				+ " WHERE " + OBJFIELD_NAME + " = :name");
+		vqlTemplate.setString("name", jobName);
+		vqlTemplate.runVQL().streamResults().forEach(queryResult -> {
+			recordId = queryResult.getValue(OBJFIELD_ID, ValueType.STRING);
+			String key = queryResult.getValue(OBJFIELD_LAST_KEY, ValueType.STRING);
+			lastKey = key == null ? "" : key;
+			BigDecimal count = queryResult.getValue(OBJFIELD_PROCESSED_COUNT, ValueType.NUMBER);
+			processedCount = count == null ? 0 : count.longValue();
+			complete = Boolean.TRUE.equals(queryResult.getValue(OBJFIELD_COMPLETE, ValueType.BOOLEAN));
+			String token = queryResult.getValue(OBJFIELD_RUN_TOKEN, ValueType.STRING);
+			runToken = token == null ? "" : token;
+			modifiedDate = queryResult.getValue(OBJFIELD_MODIFIED_DATE, ValueType.DATETIME);
+		});
+		getLogService().info("VpsJobCheckpoint {} loaded - last key {}, {} processed", jobName, lastKey, processedCount);
+		return this;
+	}
+
+	/**
+	 * Records that every item up to and including lastKey has been processed, and saves
+	 *
+	 * @param lastKey key of the last processed item
+	 * @param count items processed since the previous save
+	 */
+	public void advance(String lastKey, int count) {
+		this.lastKey = lastKey;
+		this.processedCount += count;
+		save();
+	}
+
+	/**
+	 * Marks the job as finished, and saves
+	 */
+	public void markComplete() {
+		this.complete = true;
+		save();
+	}
+
+	/**
+	 * Clears the progress so the next run starts from the beginning, and saves
+	 */
+	public void reset() {
+		this.lastKey = "";
+		this.processedCount = 0;
+		this.complete = false;
+		save();
+	}
+
+	/**
+	 * Starts a run with a new run token, keeping the progress, and saves. Messages of
+	 * an earlier run carry the old token and are dropped by isCurrentRun.
+	 *
+	 * @return token to pass along with the run's messages
+	 */
+	public String startRun() {
+		this.runToken = Long.toString(Instant.now().toEpochMilli(), 36)
+				+ Long.toString((long) (Math.random() * Integer.MAX_VALUE), 36);
+		save();
+		return runToken;
+	}
+
+	/**
+	 * Ends the current run without completing the job, and saves; the next start resumes
+	 * after the last key
+	 */
+	public void stopRun() {
+		this.runToken = "";
+		save();
+	}
+
+	/**
+	 * @return true if a message carrying runToken belongs to the run in progress
+	 */
+	public boolean isCurrentRun(String runToken) {
+		return !complete && !this.runToken.equals("") && this.runToken.equals(runToken);
+	}
+
+	/**
+	 * A run that saved nothing for staleMillis is taken to have died, e.g. after a lost message,
+	 * so that a new run can take over
+	 *
+	 * @return true if a run is in progress and saved its progress within staleMillis
+	 */
+	public boolean isRunning(long staleMillis) {
+		if (complete || runToken.equals("")) {
+			return false;
+		}
+		return modifiedDate != null && modifiedDate.toInstant().plusMillis(staleMillis).isAfter(Instant.now());
+	}
+
+	public String getRunToken() {
+		return runToken;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	/**
+	 * @return key of the last processed item; "" before the first checkpoint
+	 */
+	public String getLastKey() {
+		return lastKey;
+	}
+
+	public long getProcessedCount() {
+		return processedCount;
+	}
+
+	public boolean isComplete() {
+		return complete;
+	}
+
+	private void save() {
+		RecordService recordService = ServiceLocator.locate(RecordService.class);
+		Record record = recordId == null
+				? recordService.newRecord(CHECKPOINT_OBJ_NAME)
+				: recordService.newRecordWithId(CHECKPOINT_OBJ_NAME, recordId);
+		if (recordId == null) {
+			record.setValue(OBJFIELD_NAME, jobName);
+		}
+		record.setValue(OBJFIELD_LAST_KEY, lastKey);
+		record.setValue(OBJFIELD_PROCESSED_COUNT, BigDecimal.valueOf(processedCount));
+		record.setValue(OBJFIELD_COMPLETE, complete);
+		record.setValue(OBJFIELD_RUN_TOKEN, runToken);
+
+		List<Record> recordList = VaultCollections.newList();
+		recordList.add(record);
+		modifiedDate = ZonedDateTime.now();
+		recordService.batchSaveRecords(recordList)
+				.onSuccesses(batchOperationSuccess -> {
+					batchOperationSuccess.stream().forEach(success -> recordId = success.getRecordId());
+				})
+				.onErrors(batchOperationErrors -> {
+					batchOperationErrors.stream().findFirst().ifPresent(error -> {
+						String errMsg = error.getError().getMessage();
+						throw new RollbackException("OPERATION_NOT_ALLOWED", "Unable to save checkpoint of " + jobName + ": " + errMsg);
+					});
+				})
+				.execute();
+	}
+}
@@ -0,0 +1,314 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsRecordCache
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Bounded read-through cache for point reads of object
+ *              record fields, with LRU eviction and a TTL
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.ValueType;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@UserDefinedClassInfo()
+public class VpsRecordCache extends VpsBaseHelper {
+
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+	public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000;
+
+	private static final String OBJFIELD_ID = "id";
+	private static final String KEY_DELIMITER = "|";
+
+	private int maxEntries;
+	private long ttlMillis;
+	private Map<String, VpsCacheEntry> entries = VaultCollections.newMap();
+	//keys of the cached fields per record, and records per object, for invalidation without a scan
+	private Map<String, Set<String>> recordFieldKeys = VaultCollections.newMap();
+	private Map<String, Set<String>> objectRecordKeys = VaultCollections.newMap();
+	//incremented on every read and write; the entry with the lowest stamp is the least recently used
+	private long accessCount = 0;
+	private VpsVQLTemplate pointQuery = new VpsVQLTemplate("SELECT :field FROM :object WHERE " + OBJFIELD_ID + " = :id");
+	private VpsVQLTemplate listQuery = new VpsVQLTemplate("SELECT " + OBJFIELD_ID + ", :field FROM :object WHERE " + OBJFIELD_ID + " CONTAINS (:ids)");
+	private int hits = 0;
+	private int misses = 0;
+
+	public VpsRecordCache() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+	}
+
+	/**
+	 * Cache of record field values. It holds no state across executions; create one per
+	 * execution or job and pass it to the helpers that read and write the same records.
+	 *
+	 * @param maxEntries field values kept before the least recently used is evicted
+	 * @param ttlMillis age after which a value is read again; 0 or less never expires
+	 */
+	public VpsRecordCache(int maxEntries, long ttlMillis) {
+		super();
+		this.maxEntries = Math.max(1, maxEntries);
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * The cache's queries get their QueryService from the same locator
+	 */
+	@Override
+	public void setServiceLocator(VpsServiceLocator serviceLocator) {
+		super.setServiceLocator(serviceLocator);
+		pointQuery.setServiceLocator(serviceLocator);
+		listQuery.setServiceLocator(serviceLocator);
+	}
+
+	/**
+	 * Returns a field value of a record, querying it only on a cache miss
+	 *
+	 * @param objectName object api name, e.g. docid_autonumber__c
+	 * @param id record id
+	 * @param fieldName text field to read
+	 * @return field value; "" if the record does not exist or the field is empty
+	 */
+	public String getValue(String objectName, String id, String fieldName) {
+		String key = getKey(objectName, id, fieldName);
+		VpsCacheEntry entry = getEntry(key);
+		if (entry != null) {
+			hits++;
+			return entry.value;
+		}
+		misses++;
+
+		final String[] value = {""};
+		pointQuery.setIdentifier("field", fieldName);
+		pointQuery.setIdentifier("object", objectName);
+		pointQuery.setString("id", id);
+		pointQuery.runVQL().streamResults().forEach(queryResult -> {
+			value[0] = getNotNull(queryResult.getValue(fieldName, ValueType.STRING));
+		});
+		put(objectName, id, fieldName, value[0]);
+		return value[0];
+	}
+
+	/**
+	 * Returns a field value for many records of one object. All misses are read with one query per chunk of ids.
+	 *
+	 * @param objectName object api name
+	 * @param ids record ids
+	 * @param fieldName text field to read
+	 * @return field value by record id; "" for records that do not exist
+	 */
+	public Map<String, String> getValues(String objectName, List<String> ids, String fieldName) {
+		Map<String, String> values = VaultCollections.newMap();
+		Set<String> missingIds = VaultCollections.newSet();
+		for (String id : ids) {
+			VpsCacheEntry entry = getEntry(getKey(objectName, id, fieldName));
+			if (entry != null) {
+				hits++;
+				values.put(id, entry.value);
+			} else if (missingIds.add(id)) {
+				misses++;
+			}
+		}
+		if (missingIds.isEmpty()) {
+			return values;
+		}
+
+		listQuery.setIdentifier("field", fieldName);
+		listQuery.setIdentifier("object", objectName);
+		VpsVQLChunkedQuery chunkedQuery = new VpsVQLChunkedQuery(listQuery, "ids", true);
+		chunkedQuery.setServiceLocator(getServiceLocator());
+		chunkedQuery.streamResults(missingIds).forEachRemaining(queryResult -> {
+			values.put(queryResult.getValue(OBJFIELD_ID, ValueType.STRING),
+					getNotNull(queryResult.getValue(fieldName, ValueType.STRING)));
+		});
+		for (String id : missingIds) {
+			if (!values.containsKey(id)) {
+				values.put(id, "");
+			}
+			putEntry(objectName, id, fieldName, values.get(id));
+		}
+		evict();
+		return values;
+	}
+
+	/**
+	 * Stores a value that was just written, so the next read needs no query
+	 */
+	public void put(String objectName, String id, String fieldName, String value) {
+		putEntry(objectName, id, fieldName, value);
+		evict();
+	}
+
+	/**
+	 * Drops every cached field of a record. Call after the record was updated or deleted.
+	 */
+	public void invalidate(String objectName, String id) {
+		Set<String> fieldKeys = recordFieldKeys.get(getRecordKey(objectName, id));
+		if (fieldKeys == null) {
+			return;
+		}
+		List<String> keys = VaultCollections.newList();
+		keys.addAll(fieldKeys);
+		for (String key : keys) {
+			removeEntry(key);
+		}
+	}
+
+	/**
+	 * Drops every cached record of an object
+	 */
+	public void invalidate(String objectName) {
+		Set<String> recordKeys = objectRecordKeys.get(objectName);
+		if (recordKeys == null) {
+			return;
+		}
+		List<String> keys = VaultCollections.newList();
+		for (String recordKey : recordKeys) {
+			keys.addAll(recordFieldKeys.get(recordKey));
+		}
+		for (String key : keys) {
+			removeEntry(key);
+		}
+	}
+
+	public void invalidateAll() {
+		entries.clear();
+		recordFieldKeys.clear();
+		objectRecordKeys.clear();
+	}
+
+	public int getHits() {
+		return hits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private VpsCacheEntry getEntry(String key) {
+		VpsCacheEntry entry = entries.get(key);
+		if (entry != null && entry.expiresAt <= Instant.now().toEpochMilli()) {
+			removeEntry(key);
+			return null;
+		}
+		if (entry != null) {
+			entry.lastAccess = ++accessCount;
+		}
+		return entry;
+	}
+
+	private void putEntry(String objectName, String id, String fieldName, String value) {
+		long expiresAt = ttlMillis > 0 ? Instant.now().toEpochMilli() + ttlMillis : Long.MAX_VALUE;
+		String key = getKey(objectName, id, fieldName);
+		String recordKey = getRecordKey(objectName, id);
+		entries.put(key, new VpsCacheEntry(getNotNull(value), expiresAt, ++accessCount, objectName, recordKey));
+
+		Set<String> fieldKeys = recordFieldKeys.get(recordKey);
+		if (fieldKeys == null) {
+			fieldKeys = VaultCollections.newSet();
+			recordFieldKeys.put(recordKey, fieldKeys);
+			Set<String> recordKeys = objectRecordKeys.get(objectName);
+			if (recordKeys == null) {
+				recordKeys = VaultCollections.newSet();
+				objectRecordKeys.put(objectName, recordKeys);
+			}
+			recordKeys.add(recordKey);
+		}
+		fieldKeys.add(key);
+	}
+
+	/**
+	 * Removes an entry and its index references, dropping index sets that become empty
+	 */
+	private void removeEntry(String key) {
+		VpsCacheEntry entry = entries.remove(key);
+		if (entry == null) {
+			return;
+		}
+		Set<String> fieldKeys = recordFieldKeys.get(entry.recordKey);
+		fieldKeys.remove(key);
+		if (fieldKeys.isEmpty()) {
+			recordFieldKeys.remove(entry.recordKey);
+			Set<String> recordKeys = objectRecordKeys.get(entry.objectName);
+			recordKeys.remove(entry.recordKey);
+			if (recordKeys.isEmpty()) {
+				objectRecordKeys.remove(entry.objectName);
+			}
+		}
+	}
+
+	/**
+	 * Removes the least recently used entries above maxEntries. A single overflow is found
+	 * with one scan; a larger one, e.g. after getValues, with one sort.
+	 */
+	private void evict() {
+		int overflow = entries.size() - maxEntries;
+		if (overflow <= 0) {
+			return;
+		}
+		if (overflow == 1) {
+			String eldestKey = null;
+			long eldestAccess = Long.MAX_VALUE;
+			for (Map.Entry<String, VpsCacheEntry> entry : entries.entrySet()) {
+				if (entry.getValue().lastAccess < eldestAccess) {
+					eldestKey = entry.getKey();
+					eldestAccess = entry.getValue().lastAccess;
+				}
+			}
+			removeEntry(eldestKey);
+			return;
+		}
+		List<String> keys = VaultCollections.newList();
+		keys.addAll(entries.keySet());
+		keys.sort(Comparator.comparingLong(key -> entries.get(key).lastAccess));
+		for (int i = 0; i < overflow; i++) {
+			removeEntry(keys.get(i));
+		}
+	}
+
+	private static String getKey(String objectName, String id, String fieldName) {
+		return getRecordKey(objectName, id) + KEY_DELIMITER + fieldName;
+	}
+
+	private static String getRecordKey(String objectName, String id) {
+		return objectName + KEY_DELIMITER + id;
+	}
+
+	private static String getNotNull(String value) {
+		return value == null ? "" : value;
+	}
+
+	private static class VpsCacheEntry {
+
+		private final String value;
+		private final long expiresAt;
+		private final String objectName;
+		private final String recordKey;
+		private long lastAccess;
+
+		VpsCacheEntry(String value, long expiresAt, long lastAccess, String objectName, String recordKey) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+			this.lastAccess = lastAccess;
+			this.objectName = objectName;
+			this.recordKey = recordKey;
+		}
+	}
+}
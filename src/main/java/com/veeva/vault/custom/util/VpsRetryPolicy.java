@@ -0,0 +1,176 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsRetryPolicy
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Retry classification and retry budgets
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+
+import java.time.Instant;
+import java.util.Set;
+
+@UserDefinedClassInfo()
+public class VpsRetryPolicy extends VpsBaseHelper {
+
+	public static final int DEFAULT_MAX_ATTEMPTS = 5;
+	public static final int DEFAULT_MAX_EXECUTION_RETRIES = 20;
+	public static final long DEFAULT_MAX_RETRY_MILLIS = 20000;
+	public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 200;
+	public static final long DEFAULT_MAX_BACKOFF_MILLIS = 5000;
+
+	private static final String ERRORTYPE_API_LIMIT_EXCEEDED = "API_LIMIT_EXCEEDED";
+	private static final String ERRORTYPE_RACE_CONDITION = "RACE_CONDITION";
+
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+	private int maxExecutionRetries = DEFAULT_MAX_EXECUTION_RETRIES;
+	private long maxRetryMillis = DEFAULT_MAX_RETRY_MILLIS;
+	private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+	private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+	private Set<String> retriableErrorTypes = VaultCollections.newSet();
+	private Set<Integer> retriableStatusCodes = VaultCollections.newSet();
+
+	private int executionRetries = 0;
+	private long firstRetryMillis = 0;
+
+	/**
+	 * Retry policy with the default budgets. RACE_CONDITION and API_LIMIT_EXCEEDED
+	 * errors and HTTP 429 are retriable; HTTP 502, 503 and 504 only for idempotent requests.
+	 * Share one instance between clients to apply the execution budget across all of them.
+	 */
+	public VpsRetryPolicy() {
+		super();
+		retriableErrorTypes.add(ERRORTYPE_RACE_CONDITION);
+		retriableErrorTypes.add(ERRORTYPE_API_LIMIT_EXCEEDED);
+		retriableStatusCodes.add(429);
+		retriableStatusCodes.add(502);
+		retriableStatusCodes.add(503);
+		retriableStatusCodes.add(504);
+	}
+
+	/**
+	 * Policy that never retries
+	 */
+	public static VpsRetryPolicy noRetry() {
+		return new VpsRetryPolicy().setMaxAttempts(1);
+	}
+
+	/**
+	 * @param maxAttempts attempts per call, including the first
+	 */
+	public VpsRetryPolicy setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = Math.max(1, maxAttempts);
+		return this;
+	}
+
+	/**
+	 * @param maxExecutionRetries retries allowed across every call made with this policy
+	 */
+	public VpsRetryPolicy setMaxExecutionRetries(int maxExecutionRetries) {
+		this.maxExecutionRetries = Math.max(0, maxExecutionRetries);
+		return this;
+	}
+
+	/**
+	 * @param maxRetryMillis time after the first retry of the execution during which further
+	 *                       retries are allowed; keeps retrying well inside the execution time limit
+	 */
+	public VpsRetryPolicy setMaxRetryMillis(long maxRetryMillis) {
+		this.maxRetryMillis = Math.max(0, maxRetryMillis);
+		return this;
+	}
+
+	/**
+	 * @param initialBackoffMillis delay cap before the first retry of a call; doubles with every further retry
+	 * @param maxBackoffMillis upper bound of the delay cap
+	 */
+	public VpsRetryPolicy setBackoff(long initialBackoffMillis, long maxBackoffMillis) {
+		this.initialBackoffMillis = Math.max(1, initialBackoffMillis);
+		this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+		return this;
+	}
+
+	/**
+	 * Exponential backoff with equal jitter: the delay cap doubles with every attempt up to
+	 * the maximum, and the delay is a random value between half the cap and the cap, so
+	 * callers failing together do not retry together.
+	 *
+	 * @param attempt attempt that just failed, starting at 1
+	 * @return milliseconds to wait before the next attempt
+	 */
+	public long getBackoffMillis(int attempt) {
+		long cap = initialBackoffMillis;
+		for (int i = 1; i < attempt && cap < maxBackoffMillis; i++) {
+			cap *= 2;
+		}
+		cap = Math.min(cap, maxBackoffMillis);
+		long half = cap / 2;
+		return half + (long) (Math.random() * (cap - half + 1));
+	}
+
+	public Set<String> getRetriableErrorTypes() {
+		return retriableErrorTypes;
+	}
+
+	public Set<Integer> getRetriableStatusCodes() {
+		return retriableStatusCodes;
+	}
+
+	public boolean isRetriable(String errorType) {
+		return errorType != null && retriableErrorTypes.contains(errorType);
+	}
+
+	public boolean isRetriable(int httpStatusCode) {
+		return retriableStatusCodes.contains(httpStatusCode);
+	}
+
+	/**
+	 * A gateway error can arrive after Vault committed the request, so a create or an
+	 * action sent again could apply twice. HTTP 429 means it was refused before it ran.
+	 *
+	 * @param idempotent false for requests that must not be applied twice, e.g. record creates
+	 */
+	public boolean isRetriable(int httpStatusCode, boolean idempotent) {
+		return isRetriable(httpStatusCode) && (idempotent || httpStatusCode == 429);
+	}
+
+	/**
+	 * Allows another attempt of a call if the call and execution budgets allow it. Callers
+	 * track the attempts themselves, so one policy serves calls in flight at the same time,
+	 * and wait getBackoffMillis before the next attempt.
+	 *
+	 * @param attempt attempt that just failed, starting at 1
+	 * @return true if the caller should retry
+	 */
+	public boolean retry(int attempt) {
+		if (attempt >= maxAttempts || executionRetries >= maxExecutionRetries) {
+			return false;
+		}
+		long now = Instant.now().toEpochMilli();
+		if (firstRetryMillis == 0) {
+			firstRetryMillis = now;
+		} else if (now - firstRetryMillis > maxRetryMillis) {
+			return false;
+		}
+		getLogService().info("VpsRetryPolicy.retry - attempt {}", attempt + 1);
+		executionRetries++;
+		return true;
+	}
+
+	/**
+	 * @return retries made so far across every call
+	 */
+	public int getExecutionRetries() {
+		return executionRetries;
+	}
+}
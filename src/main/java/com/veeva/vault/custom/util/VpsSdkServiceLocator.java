@@ -0,0 +1,32 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsSdkServiceLocator
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: VpsServiceLocator over the SDK ServiceLocator
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.Service;
+import com.veeva.vault.sdk.api.core.ServiceLocator;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+
+@UserDefinedClassInfo
+public class VpsSdkServiceLocator implements VpsServiceLocator {
+
+	public VpsSdkServiceLocator() {
+		super();
+	}
+
+	@Override
+	public <T extends Service> T locate(Class<T> serviceClass) {
+		return ServiceLocator.locate(serviceClass);
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsSequenceAllocator
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Leases blocks of sequence numbers from an autonumber
+ *              object and hands them out locally
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.RollbackException;
+import com.veeva.vault.sdk.api.core.ServiceLocator;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.ValueType;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.data.Record;
+import com.veeva.vault.sdk.api.data.RecordService;
+
+import java.util.List;
+import java.util.Map;
+
+@UserDefinedClassInfo()
+public class VpsSequenceAllocator extends VpsBaseHelper {
+
+	public static final int DEFAULT_BLOCK_SIZE = 100;
+	//batchSaveRecords and batchDeleteRecords accept at most 500 records per call
+	public static final int MAX_BLOCK_SIZE = 500;
+
+	private static final String OBJFIELD_ID = "id";
+	private static final String OBJFIELD_NAME = "name__v";
+
+	private String autonumberObjectName;
+	private int blockSize;
+	private List<Integer> leasedValues = VaultCollections.newList();
+	private List<String> leasedRecordIds = VaultCollections.newList();
+	private int position = 0;
+	private VpsRecordCache recordCache;
+	private VpsVQLTemplate leaseQuery;
+
+	public VpsSequenceAllocator(String autonumberObjectName) {
+		this(autonumberObjectName, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Allocator for the autonumber (name__v) values of an object.
+	 * A block is leased by creating blockSize records in one batch save and
+	 * reading their names back in one query, instead of one save and one query per value.
+	 *
+	 * @param autonumberObjectName object with a system managed numeric name__v
+	 * @param blockSize number of values leased per platform round trip (1 - MAX_BLOCK_SIZE)
+	 */
+	public VpsSequenceAllocator(String autonumberObjectName, int blockSize) {
+		super();
+		this.autonumberObjectName = autonumberObjectName;
+		this.blockSize = Math.max(1, Math.min(blockSize, MAX_BLOCK_SIZE));
+	}
+
+	/**
+	 * Leased records are written to the cache, and released ones invalidated,
+	 * so name lookups of issued values need no query
+	 */
+	public void setRecordCache(VpsRecordCache recordCache) {
+		this.recordCache = recordCache;
+	}
+
+	/**
+	 * Returns the next leased sequence number, leasing a new block when the
+	 * current one is used up. Values are returned in ascending order within a block.
+	 *
+	 * @return sequence number
+	 */
+	public int next() {
+		if (remaining() == 0) {
+			lease(blockSize);
+		}
+		return leasedValues.get(position++);
+	}
+
+	/**
+	 * Makes sure at least count values are leased so that the next count calls
+	 * to next() make no platform calls. Leases in chunks of MAX_BLOCK_SIZE.
+	 *
+	 * @param count number of values about to be requested
+	 */
+	public void reserve(int count) {
+		int needed = count - remaining();
+		while (needed > 0) {
+			int size = Math.min(needed, MAX_BLOCK_SIZE);
+			lease(size);
+			needed -= size;
+		}
+	}
+
+	/**
+	 * @return number of leased values not yet handed out
+	 */
+	public int remaining() {
+		return leasedValues.size() - position;
+	}
+
+	/**
+	 * Releases a half-used block. The autonumber records behind values that were
+	 * never handed out are deleted so the object only holds issued values.
+	 * The numbers themselves are never reused; they remain as gaps in the sequence.
+	 */
+	public void release() {
+		if (remaining() == 0) {
+			return;
+		}
+		RecordService recordService = ServiceLocator.locate(RecordService.class);
+		List<Record> unusedRecords = VaultCollections.newList();
+		for (int i = position; i < leasedRecordIds.size(); i++) {
+			unusedRecords.add(recordService.newRecordWithId(autonumberObjectName, leasedRecordIds.get(i)));
+			if (unusedRecords.size() == MAX_BLOCK_SIZE || i == leasedRecordIds.size() - 1) {
+				recordService.batchDeleteRecords(unusedRecords)
+						.onErrors(batchOperationErrors -> {
+							batchOperationErrors.stream().forEach(error -> {
+								String errMsg = error.getError().getMessage();
+								getLogService().error("VpsSequenceAllocator.release - {}", errMsg);
+								getErrorList().add(errMsg);
+							});
+						})
+						.execute();
+				unusedRecords = VaultCollections.newList();
+			}
+		}
+		getLogService().info("Released {} unused {} values", remaining(), autonumberObjectName);
+		if (recordCache != null) {
+			for (int i = position; i < leasedRecordIds.size(); i++) {
+				recordCache.invalidate(autonumberObjectName, leasedRecordIds.get(i));
+			}
+		}
+
+		leasedValues.subList(position, leasedValues.size()).clear();
+		leasedRecordIds.subList(position, leasedRecordIds.size()).clear();
+	}
+
+	/**
+	 * Creates size autonumber records in a single batch and appends their
+	 * values, sorted ascending, to the leased values.
+	 *
+	 * @param size number of values to lease
+	 */
+	private void lease(int size) {
+		RecordService recordService = ServiceLocator.locate(RecordService.class);
+		List<Record> recordList = VaultCollections.newList();
+		for (int i = 0; i < size; i++) {
+			//new record is created with the name__v set as "system managed field value"
+			recordList.add(recordService.newRecord(autonumberObjectName));
+		}
+
+		List<String> recordIds = VaultCollections.newList();
+		recordService.batchSaveRecords(recordList)
+				.onSuccesses(batchOperationSuccess -> {
+					batchOperationSuccess.stream().forEach(success -> recordIds.add(success.getRecordId()));
+				})
+				.onErrors(batchOperationErrors -> {
+					batchOperationErrors.stream().findFirst().ifPresent(error -> {
+						String errMsg = error.getError().getMessage();
+						throw new RollbackException("OPERATION_NOT_ALLOWED", "Unable to lease sequence block: " + errMsg);
+					});
+				})
+				.execute();
+
+		if (leaseQuery == null) {
+			leaseQuery = new VpsVQLTemplate("SELECT " + OBJFIELD_ID + ", " + OBJFIELD_NAME
+					+ " FROM :object WHERE " + OBJFIELD_ID + " CONTAINS (:ids)");
+			leaseQuery.setIdentifier("object", autonumberObjectName);
+		}
+		leaseQuery.setStrings("ids", recordIds);
+
+		Map<Integer, String> block = VaultCollections.newMap();
+		Map<Integer, String> blockNames = VaultCollections.newMap();
+		leaseQuery.runVQL().streamResults().forEach(queryResult -> {
+			// convert ######### (9 digit String) to int value
+			String name = queryResult.getValue(OBJFIELD_NAME, ValueType.STRING);
+			int value = Integer.parseInt(name);
+			block.put(value, queryResult.getValue(OBJFIELD_ID, ValueType.STRING));
+			blockNames.put(value, name);
+		});
+
+		List<Integer> blockValues = VaultCollections.newList();
+		blockValues.addAll(block.keySet());
+		blockValues.sort(null);
+		for (Integer value : blockValues) {
+			leasedValues.add(value);
+			leasedRecordIds.add(block.get(value));
+		}
+		if (recordCache != null) {
+			for (Integer value : blockValues) {
+				recordCache.put(autonumberObjectName, block.get(value), OBJFIELD_NAME, blockNames.get(value));
+			}
+		}
+		getLogService().info("Leased {} {} values", blockValues.size(), autonumberObjectName);
+	}
+}
@@ -21,6 +21,19 @@ import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
 @UserDefinedClassInfo()
 public class VpsSequenceGenerator {
 
+    //Use Base 30 numbering system without number “one” and any vowels
+    private static final char[] BASE30_ALPHABET = new char[]{'0', '2', '3', '4', '5', '6', '7', '8', '9', 'B', 'C', 'D', 'F', 'G', 'H',
+            'J', 'K', 'L', 'M', 'N', 'P', 'Q', 'R', 'S', 'T', 'V', 'W', 'X', 'Y', 'Z'};
+    private static final int BASE30_RADIX = 30;
+    private static final int BASE30_PAIR_RADIX = BASE30_RADIX * BASE30_RADIX;
+    //every two digit combination, so the encoder emits two characters per division
+    private static final char[] BASE30_PAIRS = buildPairTable();
+    //character -> digit value, -1 for characters outside the alphabet
+    private static final byte[] BASE30_DIGITS = buildDigitTable();
+    //30^1 .. 30^6; an int never needs more than 7 base30 digits
+    private static final int[] BASE30_POWERS = new int[]{30, 900, 27000, 810000, 24300000, 729000000};
+    public static final int MAX_BASE30_DIGITS = 7;
+
     /**
      * Generate special base30 numbering based on client's legacy system
      * @param base10Id
@@ -29,23 +42,195 @@ public class VpsSequenceGenerator {
      * @return based30 String
      */
     public String getBase30Number(int base10Id, int numberWidth, String padding) {
-        //Use Base 30 numbering system without number “one” and any vowels
-        char[] BASE30_ALPHABET = new char[]{'0', '2', '3', '4', '5', '6', '7', '8', '9', 'B', 'C', 'D', 'F', 'G', 'H',
-                'J', 'K', 'L', 'M', 'N', 'P', 'Q', 'R', 'S', 'T', 'V', 'W', 'X', 'Y', 'Z'};
+        StringBuilder base30Id = new StringBuilder(Math.max(numberWidth, MAX_BASE30_DIGITS));
+        if (padding != null && padding.length() == 1) {
+            appendBase30(base30Id, base10Id, numberWidth, padding.charAt(0));
+        } else {
+            appendBase30(base30Id, base10Id, 0, BASE30_ALPHABET[0]);
+            while (padding != null && !padding.isEmpty() && base30Id.length() < numberWidth) {
+                base30Id.insert(0, padding);
+            }
+        }
+//        String base30IdFormatted= StringUtils.leftPad(base30Id, numberWidth, padding);
+        return base30Id.toString();
+    }
 
+    /**
+     * Appends the base30 value to the builder without intermediate Strings
+     *
+     * @param builder builder to append to
+     * @param base10Id non-negative value to encode
+     * @param numberWidth minimum width; shorter values are left padded
+     * @param padding padding character
+     * @return the builder
+     */
+    public static StringBuilder appendBase30(StringBuilder builder, int base10Id, int numberWidth, char padding) {
+        int width = Math.max(getBase30Length(base10Id), numberWidth);
+        int end = builder.length() + width;
+        builder.setLength(end);
+        int pos = end;
         int quotient = base10Id;
-        String base30Id = "";
-        int base = BASE30_ALPHABET.length;
-        while (quotient >= BASE30_ALPHABET.length) {
-            int base30Index = (int) (quotient % base);
-            base30Id = String.valueOf(BASE30_ALPHABET[base30Index]) + base30Id;
-            quotient = quotient / base;
+        while (quotient >= BASE30_PAIR_RADIX) {
+            int pair = (quotient % BASE30_PAIR_RADIX) << 1;
+            builder.setCharAt(--pos, BASE30_PAIRS[pair + 1]);
+            builder.setCharAt(--pos, BASE30_PAIRS[pair]);
+            quotient = quotient / BASE30_PAIR_RADIX;
         }
-        base30Id = String.valueOf(BASE30_ALPHABET[(int) (quotient)]) + base30Id;
-        while (base30Id.length() < numberWidth) {
-            base30Id = padding + base30Id;
+        if (quotient >= BASE30_RADIX) {
+            builder.setCharAt(--pos, BASE30_PAIRS[(quotient << 1) + 1]);
+            builder.setCharAt(--pos, BASE30_PAIRS[quotient << 1]);
+        } else {
+            builder.setCharAt(--pos, BASE30_ALPHABET[quotient]);
         }
-//        String base30IdFormatted= StringUtils.leftPad(base30Id, numberWidth, padding);
-        return base30Id;
+        while (pos > end - width) {
+            builder.setCharAt(--pos, padding);
+        }
+        return builder;
+    }
+
+    /**
+     * Writes the base30 value into the buffer starting at offset
+     *
+     * @param base10Id non-negative value to encode
+     * @param numberWidth minimum width; shorter values are left padded
+     * @param padding padding character
+     * @param buffer destination, needs max(numberWidth, MAX_BASE30_DIGITS) chars from offset
+     * @param offset first position to write
+     * @return number of characters written
+     */
+    public static int encodeBase30(int base10Id, int numberWidth, char padding, char[] buffer, int offset) {
+        int width = Math.max(getBase30Length(base10Id), numberWidth);
+        int pos = offset + width;
+        int quotient = base10Id;
+        while (quotient >= BASE30_PAIR_RADIX) {
+            int pair = (quotient % BASE30_PAIR_RADIX) << 1;
+            buffer[--pos] = BASE30_PAIRS[pair + 1];
+            buffer[--pos] = BASE30_PAIRS[pair];
+            quotient = quotient / BASE30_PAIR_RADIX;
+        }
+        if (quotient >= BASE30_RADIX) {
+            buffer[--pos] = BASE30_PAIRS[(quotient << 1) + 1];
+            buffer[--pos] = BASE30_PAIRS[quotient << 1];
+        } else {
+            buffer[--pos] = BASE30_ALPHABET[quotient];
+        }
+        while (pos > offset) {
+            buffer[--pos] = padding;
+        }
+        return width;
+    }
+
+    /**
+     * Decodes a base30 value. Values padded with "0" decode as is.
+     *
+     * @param base30Id base30 value
+     * @return base10 value
+     * @throws IllegalArgumentException when the value is empty, has characters outside
+     *                                  the alphabet or does not fit in an int
+     */
+    public static int decodeBase30(CharSequence base30Id) {
+        if (base30Id == null) {
+            throw new IllegalArgumentException("Base30 value is null");
+        }
+        return decodeBase30(base30Id, 0, base30Id.length());
+    }
+
+    /**
+     * Decodes the base30 characters between start (inclusive) and end (exclusive)
+     *
+     * @param base30Id base30 value
+     * @param start first character
+     * @param end end of the value
+     * @return base10 value
+     */
+    public static int decodeBase30(CharSequence base30Id, int start, int end) {
+        if (start >= end) {
+            throw new IllegalArgumentException("Base30 value is empty");
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = getBase30Digit(base30Id.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid base30 character '" + base30Id.charAt(i) + "' in " + base30Id);
+            }
+            result = result * BASE30_RADIX + digit;
+            if (result > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Base30 value out of range: " + base30Id);
+            }
+        }
+        return (int) result;
+    }
+
+    /**
+     * @param base30Id value to check
+     * @return true if the value is non-empty, uses only the base30 alphabet and fits in an int
+     */
+    public static boolean isValidBase30(CharSequence base30Id) {
+        if (base30Id == null || base30Id.length() == 0) {
+            return false;
+        }
+        long result = 0;
+        for (int i = 0; i < base30Id.length(); i++) {
+            int digit = getBase30Digit(base30Id.charAt(i));
+            if (digit < 0) {
+                return false;
+            }
+            result = result * BASE30_RADIX + digit;
+            if (result > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param base30Id value to check
+     * @param numberWidth exact expected width
+     * @param maxValue largest allowed base10 value
+     * @return true if the value is valid base30 of the given width and within maxValue
+     */
+    public static boolean isValidBase30(CharSequence base30Id, int numberWidth, int maxValue) {
+        return isValidBase30(base30Id)
+                && base30Id.length() == numberWidth
+                && decodeBase30(base30Id) <= maxValue;
+    }
+
+    /**
+     * @param base10Id non-negative value
+     * @return number of base30 digits needed for the value, without padding
+     */
+    public static int getBase30Length(int base10Id) {
+        if (base10Id < 0) {
+            throw new IllegalArgumentException("Cannot encode negative value as base30: " + base10Id);
+        }
+        int length = 1;
+        while (length < MAX_BASE30_DIGITS && base10Id >= BASE30_POWERS[length - 1]) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int getBase30Digit(char c) {
+        return c < BASE30_DIGITS.length ? BASE30_DIGITS[c] : -1;
+    }
+
+    private static char[] buildPairTable() {
+        char[] pairs = new char[BASE30_PAIR_RADIX * 2];
+        for (int i = 0; i < BASE30_PAIR_RADIX; i++) {
+            pairs[i * 2] = BASE30_ALPHABET[i / BASE30_RADIX];
+            pairs[i * 2 + 1] = BASE30_ALPHABET[i % BASE30_RADIX];
+        }
+        return pairs;
+    }
+
+    private static byte[] buildDigitTable() {
+        byte[] digits = new byte[128];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = -1;
+        }
+        for (int i = 0; i < BASE30_ALPHABET.length; i++) {
+            digits[BASE30_ALPHABET[i]] = (byte) i;
+        }
+        return digits;
     }
 }
@@ -0,0 +1,28 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsServiceLocator
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Source of the SDK services used by the helpers;
+ *              ServiceLocator inside Vault, a registry outside it
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.Service;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+
+@UserDefinedClassInfo
+public interface VpsServiceLocator {
+
+	/**
+	 * @return the implementation of the service; fails if the locator has none
+	 */
+	<T extends Service> T locate(Class<T> serviceClass);
+}
@@ -0,0 +1,156 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsStripedSequence
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Sequence spread over several autonumber objects whose
+ *              values interleave, so parallel workers do not insert
+ *              into the same object
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.RollbackException;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+
+import java.util.List;
+
+@UserDefinedClassInfo()
+public class VpsStripedSequence extends VpsBaseHelper {
+
+	private static final String OBJECT_SUFFIX = "__c";
+
+	private List<String> stripeObjectNames;
+	private long baseValue;
+	private int maxValue;
+	private int blockSize;
+	private List<VpsSequenceAllocator> allocators = VaultCollections.newList();
+	private VpsRecordCache recordCache;
+
+	/**
+	 * Sequence over stripeObjectNames.size() autonumber objects. The n-th value
+	 * leased from stripe s is issued as
+	 * <pre>
+	 * baseValue + n * stripeCount + s
+	 * </pre>
+	 * so stripes never collide and a worker only ever inserts into its own stripe's object.
+	 * With a single stripe and baseValue 0 the values are the plain autonumber values.
+	 * When striping an existing sequence, baseValue must be above every value it already issued.
+	 *
+	 * @param stripeObjectNames autonumber object of each stripe, see getStripeObjectNames
+	 * @param baseValue offset added to every value
+	 * @param maxValue highest value that may be issued
+	 * @param blockSize values leased per platform round trip in each stripe
+	 */
+	public VpsStripedSequence(List<String> stripeObjectNames, long baseValue, int maxValue, int blockSize) {
+		super();
+		if (stripeObjectNames.isEmpty()) {
+			throw new RollbackException("OPERATION_NOT_ALLOWED", "VpsStripedSequence needs at least one stripe");
+		}
+		this.stripeObjectNames = stripeObjectNames;
+		this.baseValue = baseValue;
+		this.maxValue = maxValue;
+		this.blockSize = blockSize;
+		for (int i = 0; i < stripeObjectNames.size(); i++) {
+			allocators.add(null);
+		}
+	}
+
+	/**
+	 * Names of the stripe objects: stripe 0 is the object itself, stripe n is
+	 * the object name with _n before the suffix, e.g. docid_autonumber__c, docid_autonumber_1__c
+	 */
+	public static List<String> getStripeObjectNames(String objectName, int stripeCount) {
+		List<String> stripeObjectNames = VaultCollections.newList();
+		stripeObjectNames.add(objectName);
+		String prefix = objectName.endsWith(OBJECT_SUFFIX)
+				? objectName.substring(0, objectName.length() - OBJECT_SUFFIX.length())
+				: objectName;
+		for (int stripe = 1; stripe < stripeCount; stripe++) {
+			stripeObjectNames.add(prefix + "_" + stripe + OBJECT_SUFFIX);
+		}
+		return stripeObjectNames;
+	}
+
+	/**
+	 * Cache the allocators of every stripe write their leased records to,
+	 * see VpsSequenceAllocator.setRecordCache
+	 */
+	public void setRecordCache(VpsRecordCache recordCache) {
+		this.recordCache = recordCache;
+		for (VpsSequenceAllocator allocator : allocators) {
+			if (allocator != null) {
+				allocator.setRecordCache(recordCache);
+			}
+		}
+	}
+
+	public int getStripeCount() {
+		return stripeObjectNames.size();
+	}
+
+	/**
+	 * Picks a stripe from a key such as a document id, spreading workers that
+	 * handle different keys over the stripes
+	 */
+	public int getStripe(String key) {
+		return Math.floorMod(key.hashCode(), stripeObjectNames.size());
+	}
+
+	/**
+	 * Returns the next value of a stripe
+	 *
+	 * @throws RollbackException if the value is above maxValue
+	 */
+	public int next(int stripe) {
+		long value = getSequenceValue(baseValue, getAllocator(stripe).next(), stripeObjectNames.size(), stripe);
+		if (value > maxValue) {
+			throw new RollbackException("OPERATION_NOT_ALLOWED",
+					"Sequence value " + value + " of " + stripeObjectNames.get(stripe) + " is exceeding max limit " + maxValue);
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Leases at least count values of a stripe up front, see VpsSequenceAllocator.reserve
+	 */
+	public void reserve(int stripe, int count) {
+		getAllocator(stripe).reserve(count);
+	}
+
+	/**
+	 * Releases the unused values of every stripe, see VpsSequenceAllocator.release
+	 */
+	public void release() {
+		for (VpsSequenceAllocator allocator : allocators) {
+			if (allocator != null) {
+				allocator.release();
+			}
+		}
+	}
+
+	/**
+	 * @param leasedValue autonumber value leased from the stripe's object
+	 * @return value issued for it
+	 */
+	static long getSequenceValue(long baseValue, int leasedValue, int stripeCount, int stripe) {
+		return baseValue + (long) leasedValue * stripeCount + stripe;
+	}
+
+	private VpsSequenceAllocator getAllocator(int stripe) {
+		VpsSequenceAllocator allocator = allocators.get(stripe);
+		if (allocator == null) {
+			allocator = new VpsSequenceAllocator(stripeObjectNames.get(stripe), blockSize);
+			allocator.setRecordCache(recordCache);
+			allocators.set(stripe, allocator);
+		}
+		return allocator;
+	}
+}
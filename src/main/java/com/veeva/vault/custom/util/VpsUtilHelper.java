@@ -14,8 +14,6 @@
  */
 package com.veeva.vault.custom.util;
 
-import com.veeva.vault.sdk.api.core.LogService;
-import com.veeva.vault.sdk.api.core.ServiceLocator;
 import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
 
 import java.util.List;
@@ -106,9 +104,6 @@ public class VpsUtilHelper {
 	 * @return string of values
 	 */
 	public static String listToString(List<String> valueList, String delimiter, Boolean addQuotes) {
-		LogService logService = ServiceLocator.locate(LogService.class);
-		logService.info("VpsUtilHelper.listToString; delimiter = {}; addQuotes = {}", delimiter, addQuotes);
-
 		StringBuilder result = new StringBuilder();
 		if (valueList != null) {
 			int i = 0;
@@ -138,9 +133,6 @@ public class VpsUtilHelper {
 	 * @return string of values
 	 */
 	public static String setToString(Set<String> valueSet, String delimiter, Boolean addQuotes) {
-		LogService logService = ServiceLocator.locate(LogService.class);
-		logService.info("VpsUtilHelper.setToString; delimiter = {}; addQuotes = {}", delimiter, addQuotes);
-
 		StringBuilder result = new StringBuilder();
 		if (valueSet != null) {
 			int i = 0;
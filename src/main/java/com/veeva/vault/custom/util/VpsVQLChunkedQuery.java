@@ -0,0 +1,180 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsVQLChunkedQuery
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Runs a CONTAINS / IN query over any number of values
+ *              in bounded chunks and streams the merged results
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.custom.util.api.VpsAPIClient;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.json.JsonObject;
+import com.veeva.vault.sdk.api.query.QueryResult;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+@UserDefinedClassInfo()
+public class VpsVQLChunkedQuery extends VpsBaseHelper {
+
+	public static final int DEFAULT_MAX_CHUNK_VALUES = 500;
+	//stays well below the VQL statement length limit, leaving room for the rest of the query
+	public static final int DEFAULT_MAX_LIST_LENGTH = 40000;
+
+	private VpsVQLTemplate template;
+	private String listParameter;
+	private boolean quoted;
+	private int maxChunkValues = DEFAULT_MAX_CHUNK_VALUES;
+	private int maxListLength = DEFAULT_MAX_LIST_LENGTH;
+	private int chunkCount = 0;
+
+	/**
+	 * Query whose list parameter is filled chunk by chunk, e.g.
+	 * <pre>
+	 * new VpsVQLChunkedQuery(new VpsVQLTemplate("SELECT id FROM allversions documents WHERE id CONTAINS (:ids)"), "ids", false)
+	 * </pre>
+	 * Other parameters of the template must be bound before streaming.
+	 *
+	 * @param template query with the list parameter inside CONTAINS ( ) or IN ( )
+	 * @param listParameter name of the list parameter
+	 * @param quoted true for text values such as object record ids, false for numbers such as document ids
+	 */
+	public VpsVQLChunkedQuery(VpsVQLTemplate template, String listParameter, boolean quoted) {
+		super();
+		this.template = template;
+		this.listParameter = listParameter;
+		this.quoted = quoted;
+	}
+
+	/**
+	 * @param maxChunkValues values per query
+	 * @param maxListLength characters of the rendered value list per query
+	 */
+	public VpsVQLChunkedQuery setChunkLimits(int maxChunkValues, int maxListLength) {
+		this.maxChunkValues = Math.max(1, maxChunkValues);
+		this.maxListLength = Math.max(1, maxListLength);
+		return this;
+	}
+
+	/**
+	 * Splits the values, without duplicates, into chunks within both limits.
+	 * A single value longer than maxListLength gets a chunk of its own.
+	 */
+	public List<List<String>> getChunks(Collection<String> values) {
+		List<List<String>> chunks = VaultCollections.newList();
+		Set<String> seen = VaultCollections.newSet();
+		List<String> chunk = VaultCollections.newList();
+		int chunkLength = 0;
+		for (String value : values) {
+			if (value == null || !seen.add(value)) {
+				continue;
+			}
+			//value, quotes and escapes, separator
+			int valueLength = value.length() + (quoted ? 2 + countEscapes(value) : 0) + 1;
+			if (!chunk.isEmpty() && (chunk.size() >= maxChunkValues || chunkLength + valueLength > maxListLength)) {
+				chunks.add(chunk);
+				chunk = VaultCollections.newList();
+				chunkLength = 0;
+			}
+			chunk.add(value);
+			chunkLength += valueLength;
+		}
+		if (!chunk.isEmpty()) {
+			chunks.add(chunk);
+		}
+		return chunks;
+	}
+
+	/**
+	 * Streams the rows of every chunk through QueryService. A chunk is queried only
+	 * once the rows of the previous one have been consumed.
+	 */
+	public Iterator<QueryResult> streamResults(Collection<String> values) {
+		return new VpsChunkIterator<>(getChunks(values),
+				chunk -> bind(chunk).runVQL().streamResults().iterator());
+	}
+
+	/**
+	 * Streams the rows of every chunk, all pages each, through VpsAPIClient.streamVQL.
+	 * A chunk whose query or page fails throws a RollbackException.
+	 */
+	public Iterator<JsonObject> streamResults(VpsAPIClient apiClient, Collection<String> values) {
+		return new VpsChunkIterator<>(getChunks(values),
+				chunk -> apiClient.streamVQL(bind(chunk).toVQLRequest()));
+	}
+
+	/**
+	 * @return queries run so far
+	 */
+	public int getChunkCount() {
+		return chunkCount;
+	}
+
+	private VpsVQLTemplate bind(List<String> chunk) {
+		chunkCount++;
+		getLogService().info("VpsVQLChunkedQuery chunk {} - {} values", chunkCount, chunk.size());
+		if (quoted) {
+			template.setStrings(listParameter, chunk);
+		} else {
+			template.setNumbers(listParameter, chunk);
+		}
+		return template;
+	}
+
+	private static int countEscapes(String value) {
+		int count = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\'' || c == '\\') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Concatenates the row iterators of the chunks, opening each one lazily
+	 */
+	private static class VpsChunkIterator<T> implements Iterator<T> {
+
+		private Iterator<List<String>> chunks;
+		private Function<List<String>, Iterator<T>> runChunk;
+		private Iterator<T> rows = null;
+
+		VpsChunkIterator(List<List<String>> chunks, Function<List<String>, Iterator<T>> runChunk) {
+			this.chunks = chunks.iterator();
+			this.runChunk = runChunk;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while ((rows == null || !rows.hasNext()) && chunks.hasNext()) {
+				rows = null;
+				rows = runChunk.apply(chunks.next());
+			}
+			return rows != null && rows.hasNext();
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return rows.next();
+		}
+	}
+}
@@ -38,7 +38,8 @@ public class VpsVQLHelper extends VpsBaseHelper {
 	}
 
 	/**
-	 * Adds a list of values to the VQL query
+	 * Adds a list of values to the VQL query.
+	 * For id lists of unbounded size use VpsVQLChunkedQuery instead.
 	 *
 	 * @param valueList values to add
 	 * @param delimiter delimiter between values (usually a comma)
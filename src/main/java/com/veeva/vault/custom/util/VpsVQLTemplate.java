@@ -0,0 +1,293 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsVQLTemplate
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: VQL query skeleton parsed once, with typed parameters
+ *              rendered into a reused buffer
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.custom.util.api.VpsVQLRequest;
+import com.veeva.vault.sdk.api.core.RollbackException;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.query.QueryResponse;
+import com.veeva.vault.sdk.api.query.QueryService;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@UserDefinedClassInfo()
+public class VpsVQLTemplate extends VpsBaseHelper {
+
+	private String skeleton;
+	//literals.get(i) is followed by parameter parameterNames.get(i); the last literal has no parameter
+	private List<String> literals = VaultCollections.newList();
+	private List<String> parameterNames = VaultCollections.newList();
+	private Map<String, String> bindings = VaultCollections.newMap();
+	private StringBuilder buffer = new StringBuilder();
+	private QueryService queryService;
+	private boolean logged = false;
+
+	/**
+	 * Parses a VQL skeleton with named parameters, e.g.
+	 * <pre>
+	 * SELECT :field FROM :object WHERE id = :id
+	 * </pre>
+	 * A parameter is a colon followed by a letter or underscore and word characters.
+	 * Colons inside quoted literals are not parameters.
+	 *
+	 * @param skeleton query text with :name parameters
+	 */
+	public VpsVQLTemplate(String skeleton) {
+		super();
+		this.skeleton = skeleton;
+		parse(skeleton);
+	}
+
+	/**
+	 * Binds a text value, quoted and escaped
+	 */
+	public VpsVQLTemplate setString(String name, String value) {
+		StringBuilder rendered = new StringBuilder(value.length() + 2);
+		appendQuoted(rendered, value);
+		return bind(name, rendered.toString());
+	}
+
+	/**
+	 * Binds a list of text values for CONTAINS / IN, each quoted and escaped, comma separated
+	 */
+	public VpsVQLTemplate setStrings(String name, Collection<String> values) {
+		StringBuilder rendered = new StringBuilder(values.size() * 20);
+		for (String value : values) {
+			if (rendered.length() > 0) {
+				rendered.append(',');
+			}
+			appendQuoted(rendered, value);
+		}
+		return bind(name, rendered.toString());
+	}
+
+	public VpsVQLTemplate setNumber(String name, long value) {
+		return bind(name, Long.toString(value));
+	}
+
+	public VpsVQLTemplate setNumber(String name, BigDecimal value) {
+		return bind(name, value.toPlainString());
+	}
+
+	/**
+	 * Binds a numeric value held as a string, e.g. a document id. Values that are not numbers are rejected.
+	 */
+	public VpsVQLTemplate setNumber(String name, String value) {
+		if (!isNumber(value)) {
+			throw new RollbackException("OPERATION_NOT_ALLOWED", "Invalid VQL number for " + name + ": " + value);
+		}
+		return bind(name, value);
+	}
+
+	/**
+	 * Binds a list of numeric values for CONTAINS / IN, e.g. document ids held as strings.
+	 * Values that are not numbers are rejected.
+	 */
+	public VpsVQLTemplate setNumbers(String name, Collection<String> values) {
+		StringBuilder rendered = new StringBuilder(values.size() * 8);
+		for (String value : values) {
+			if (!isNumber(value)) {
+				throw new RollbackException("OPERATION_NOT_ALLOWED", "Invalid VQL number for " + name + ": " + value);
+			}
+			if (rendered.length() > 0) {
+				rendered.append(',');
+			}
+			rendered.append(value);
+		}
+		return bind(name, rendered.toString());
+	}
+
+	/**
+	 * Binds an object or field name. Only letters, digits, underscores and dots are accepted.
+	 */
+	public VpsVQLTemplate setIdentifier(String name, String identifier) {
+		if (!isIdentifier(identifier)) {
+			throw new RollbackException("OPERATION_NOT_ALLOWED", "Invalid VQL identifier for " + name + ": " + identifier);
+		}
+		return bind(name, identifier);
+	}
+
+	/**
+	 * Renders the query into the template's buffer. The returned string is a fresh copy;
+	 * the buffer itself is reused by the next render.
+	 *
+	 * @return query text with every parameter bound
+	 */
+	public String render() {
+		buffer.setLength(0);
+		for (int i = 0; i < parameterNames.size(); i++) {
+			buffer.append(literals.get(i));
+			String value = bindings.get(parameterNames.get(i));
+			if (value == null) {
+				throw new RollbackException("OPERATION_NOT_ALLOWED",
+						"VQL parameter " + parameterNames.get(i) + " is not bound in: " + skeleton);
+			}
+			buffer.append(value);
+		}
+		buffer.append(literals.get(literals.size() - 1));
+		return buffer.toString();
+	}
+
+	/**
+	 * Runs the rendered query. The skeleton is logged on the first run only,
+	 * rendered queries are logged at debug level.
+	 */
+	public QueryResponse runVQL() {
+		String vql = render();
+		logQuery(vql);
+		if (queryService == null) {
+			queryService = getServiceLocator().locate(QueryService.class);
+		}
+		return queryService.query(vql);
+	}
+
+	/**
+	 * @return request with the rendered query, for VpsAPIClient.runVQL / streamVQL
+	 */
+	public VpsVQLRequest toVQLRequest() {
+		VpsVQLRequest vqlRequest = new VpsVQLRequest();
+		vqlRequest.setServiceLocator(getServiceLocator());
+		vqlRequest.appendVQL(render());
+		return vqlRequest;
+	}
+
+	@Override
+	public void setServiceLocator(VpsServiceLocator serviceLocator) {
+		super.setServiceLocator(serviceLocator);
+		this.queryService = null;
+	}
+
+	/**
+	 * Removes every bound value, keeping the parsed skeleton
+	 */
+	public void clearBindings() {
+		bindings.clear();
+	}
+
+	public String getSkeleton() {
+		return skeleton;
+	}
+
+	public List<String> getParameterNames() {
+		return parameterNames;
+	}
+
+	private VpsVQLTemplate bind(String name, String renderedValue) {
+		if (!parameterNames.contains(name)) {
+			throw new RollbackException("OPERATION_NOT_ALLOWED", "Unknown VQL parameter " + name + " in: " + skeleton);
+		}
+		bindings.put(name, renderedValue);
+		return this;
+	}
+
+	private void logQuery(String vql) {
+		if (!logged) {
+			getLogService().info("VQL template {}", skeleton);
+			logged = true;
+		}
+		getLogService().debug(vql);
+	}
+
+	private void parse(String text) {
+		StringBuilder literal = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (c == '\\' && quoted && i + 1 < text.length()) {
+				literal.append(c).append(text.charAt(i + 1));
+				i += 2;
+				continue;
+			}
+			if (c == '\'') {
+				quoted = !quoted;
+			} else if (c == ':' && !quoted && i + 1 < text.length() && isNameStart(text.charAt(i + 1))) {
+				int end = i + 2;
+				while (end < text.length() && isNamePart(text.charAt(end))) {
+					end++;
+				}
+				literals.add(literal.toString());
+				parameterNames.add(text.substring(i + 1, end));
+				literal.setLength(0);
+				i = end;
+				continue;
+			}
+			literal.append(c);
+			i++;
+		}
+		literals.add(literal.toString());
+	}
+
+	/**
+	 * VQL string literal: single quotes, with backslash escapes for quotes and backslashes
+	 */
+	private static void appendQuoted(StringBuilder rendered, String value) {
+		rendered.append('\'');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\'' || c == '\\') {
+				rendered.append('\\');
+			}
+			rendered.append(c);
+		}
+		rendered.append('\'');
+	}
+
+	private static boolean isNameStart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+	}
+
+	private static boolean isNamePart(char c) {
+		return isNameStart(c) || (c >= '0' && c <= '9');
+	}
+
+	private static boolean isIdentifier(String value) {
+		if (value == null || value.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (!isNamePart(c) && c != '.') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isNumber(String value) {
+		if (value == null || value.isEmpty()) {
+			return false;
+		}
+		int start = value.charAt(0) == '-' ? 1 : 0;
+		if (start == value.length()) {
+			return false;
+		}
+		boolean dot = false;
+		for (int i = start; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '.' && !dot) {
+				dot = true;
+			} else if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -16,21 +16,23 @@ package com.veeva.vault.custom.util.api;
 
 
 import com.veeva.vault.custom.util.VpsBaseHelper;
+import com.veeva.vault.custom.util.VpsRecordCache;
+import com.veeva.vault.custom.util.VpsRetryPolicy;
+import com.veeva.vault.custom.util.VpsServiceLocator;
 import com.veeva.vault.custom.util.VpsUtilHelper;
 import com.veeva.vault.sdk.api.core.*;
 import com.veeva.vault.sdk.api.http.HttpMethod;
-import com.veeva.vault.sdk.api.http.HttpRequest;
-import com.veeva.vault.sdk.api.http.HttpResponseBodyValueType;
-import com.veeva.vault.sdk.api.http.HttpService;
 import com.veeva.vault.sdk.api.json.JsonArray;
-import com.veeva.vault.sdk.api.json.JsonData;
 import com.veeva.vault.sdk.api.json.JsonObject;
+import com.veeva.vault.sdk.api.json.JsonService;
 import com.veeva.vault.sdk.api.json.JsonValueType;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 @UserDefinedClassInfo
 public class VpsAPIClient extends VpsBaseHelper {
@@ -45,11 +47,8 @@ public class VpsAPIClient extends VpsBaseHelper {
     private static final String APIFIELD_ERROR_MESSAGE = "message";
     private static final String APIFIELD_ERROR_TYPE = "type";
     private static final String APIFIELD_QUERY = "q";
-    private static final String PROCESS_ERROR = "ERROR";
     private static final String PROCESS_RACECONDITION = "RACE_CONDITION";
-    private static final String PROCESS_SUCCESS = "SUCCESS";
     private static final String RESPONSESTATUS_SUCCESS = "SUCCESS";
-    private static final int RETRY_ATTEMPTS_COUNT = 5;
     private static final String SDK_EXTERNAL_ID = "VpsAPIClient";
     private static final String SETTING_APIVERSION = "api_version";
     private static final String URL_BINDER_CREATETEMPLATE = "/api/%s/objects/binders";
@@ -60,21 +59,47 @@ public class VpsAPIClient extends VpsBaseHelper {
     private static final String URL_DOCUMENT_LIFEYCLEACTIONS = "/api/%s/objects/documents/%s/versions/%s/%s/lifecycle_actions/";
     private static final String URL_INITIATE_DOCUMENT_LIFEYCLEACTIONS = "/api/%s/objects/documents/%s/versions/%s/%s/lifecycle_actions/%s";
     private static final String URL_INITIATE_OBJECT_ACTION = "/api/%s/vobjects/%s/%s/actions/%s";
+    private static final String URL_INITIATE_OBJECT_ACTION_BULK = "/api/%s/vobjects/%s/actions/%s";
     private static final String URL_QUERY = "/api/%s/query";
+    private static final String URL_QUERY_NEXT_PAGE = "/api/%s/query/%s";
     private static final String URL_ROLES = "/api/%s/objects/documents/%s/roles/%s";
     private static final String URL_RETRIEVE_DOCUMENT_VERSIONS = "/api/%s/objects/documents/%s/versions";
-
-
-    HttpService httpService = ServiceLocator.locate(HttpService.class);
+    private static final String URL_UPDATE_DOCUMENT_VERSIONS_BATCH = "/api/%s/objects/documents/versions/batch";
+    private static final String APIFIELD_DATA = "data";
+    private static final String APIFIELD_ID = "id";
+    private static final String APIFIELD_MAJOR_VERSION_NUMBER = "major_version_number__v";
+    private static final String APIFIELD_MINOR_VERSION_NUMBER = "minor_version_number__v";
+    private static final String APIFIELD_RESPONSE_STATUS = "responseStatus";
+    private static final String APIFIELD_ERRORS = "errors";
+    private static final String APIFIELD_IDS = "ids";
+    //the batch version update accepts up to 1000 versions (documents and binders) per request
+    private static final int BULK_UPDATE_BATCH_SIZE = 1000;
+    //the bulk object create accepts up to 500 records per request
+    public static final int OBJECT_CREATE_BATCH_SIZE = 500;
+    //the multi-record object action accepts up to 500 records per request
+    public static final int OBJECT_ACTION_BATCH_SIZE = 500;
+    //asynchronous calls in flight before the next one waits for the oldest
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+
+
+    VpsHttpTransport transport;
     String apiVersion = "v19.1";
     String apiConnection;
+    VpsRetryPolicy retryPolicy = new VpsRetryPolicy();
+    VpsAPIMetrics metrics = new VpsAPIMetrics();
+    VpsRecordCache recordCache;
+    VpsServiceLocator serviceLocator;
+    JsonService jsonService;
+    int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    boolean retryDeferred = false;
+    List<VpsAPIFuture<?>> inFlight = VaultCollections.newList();
    // VpsSettingRecord sdkSettings;
 
     /**
      * Class to assist in making using Vault Query Language
      */
     public VpsAPIClient(String apiConnection) {
-        super();
+        this(new VpsSdkHttpTransport(apiConnection));
 
         this.apiConnection = apiConnection;
 
@@ -85,6 +110,107 @@ public class VpsAPIClient extends VpsBaseHelper {
 //		}
     }
 
+    /**
+     * Client sending its requests through the given transport, e.g. a pooled HTTP client
+     * when the client runs outside Vault
+     */
+    public VpsAPIClient(VpsHttpTransport transport) {
+        super();
+
+        this.transport = transport;
+    }
+
+    /**
+     * Client getting its services from the locator instead of ServiceLocator, e.g. when it
+     * runs outside Vault. Fails here if the locator has no LogService or JsonService.
+     */
+    public VpsAPIClient(VpsHttpTransport transport, VpsServiceLocator serviceLocator) {
+        this(transport);
+
+        setServiceLocator(serviceLocator);
+    }
+
+    public VpsHttpTransport getTransport() {
+        return transport;
+    }
+
+    public VpsRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Replaces the retry policy used for every call. Pass the same policy to all clients
+     * of an execution to share its retry budget.
+     */
+    public void setRetryPolicy(VpsRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        if (serviceLocator != null) {
+            retryPolicy.setServiceLocator(serviceLocator);
+        }
+    }
+
+    /**
+     * Resolves the services of the client and its retry policy from the locator right away,
+     * so a locator missing one fails here rather than in the middle of a call. The SDK
+     * transport gets its HttpService from the same locator.
+     */
+    @Override
+    public void setServiceLocator(VpsServiceLocator serviceLocator) {
+        super.setServiceLocator(serviceLocator);
+        this.serviceLocator = serviceLocator;
+        getLogService();
+        jsonService = serviceLocator.locate(JsonService.class);
+        retryPolicy.setServiceLocator(serviceLocator);
+        if (transport instanceof VpsSdkHttpTransport) {
+            ((VpsSdkHttpTransport) transport).setServiceLocator(serviceLocator);
+        }
+    }
+
+    /**
+     * @return true if a call of this client failed retriably and its retry was deferred
+     * because the transport cannot wait out the backoff; run that work again later,
+     * e.g. from a new queue message
+     */
+    public boolean isRetryDeferred() {
+        return retryDeferred;
+    }
+
+    /**
+     * @return latency and outcome metrics of every call made by this client, per endpoint template
+     */
+    public VpsAPIMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Replaces the metrics recorder. Pass the same instance to all clients of an execution
+     * to get a single dump for the whole run.
+     */
+    public void setMetrics(VpsAPIMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Limits the asynchronous calls in flight. Starting a call beyond the limit first
+     * completes an earlier one, so a caller queuing thousands of calls never holds more
+     * than maxInFlight requests and responses at a time.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Cache to keep in step with the object records this client writes:
+     * created records are added, records changed by an object action are invalidated
+     */
+    public void setRecordCache(VpsRecordCache recordCache) {
+        this.recordCache = recordCache;
+    }
+
     public Boolean createBinderFromTemplate(String templateName, Map<String, String> documentMetadata) {
         return createDocumentFromTemplate(templateName, documentMetadata, true);
     }
@@ -97,8 +223,6 @@ public class VpsAPIClient extends VpsBaseHelper {
                                                Map<String, String> documentMetadata,
                                                Boolean isBinder) {
 
-        List<Boolean> successList = VaultCollections.newList();
-
         String createTemplateUrl;
         if (isBinder) {
             createTemplateUrl = String.format(URL_BINDER_CREATETEMPLATE, apiVersion);
@@ -107,7 +231,7 @@ public class VpsAPIClient extends VpsBaseHelper {
         }
         getLogService().info("createDocumentFromTemplate {}", createTemplateUrl);
 
-        HttpRequest request = httpService.newHttpRequest(apiConnection)
+        VpsHttpRequest request = new VpsHttpRequest()
                 .setMethod(HttpMethod.POST)
                 .setBodyParam(APIFIELD_FROM_TEMPLATE, templateName)
                 .appendPath(createTemplateUrl);
@@ -117,47 +241,18 @@ public class VpsAPIClient extends VpsBaseHelper {
             request.setBodyParam(fieldName, fieldValue);
         }
 
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("createDocumentFromTemplate {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        successList.add(true);
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("createDocumentFromTemplate {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
-
-                })
-                .execute();
-
-        return successList.size() > 0;
+        String endpoint = "POST " + (isBinder ? URL_BINDER_CREATETEMPLATE : URL_DOCUMENT_CREATETEMPLATE);
+        return isSuccess(send("createDocumentFromTemplate", endpoint, request));
     }
 
     /**
      * @param objectType
      * @param fieldsToUpdate
+     * @return id of the created record; "" if the call failed at HTTP level
      */
     public String createObject(String objectType, Map<String, String> fieldsToUpdate) {
 
-        LogService logService = ServiceLocator.locate(LogService.class);
-        HttpService httpService = ServiceLocator.locate(HttpService.class);
-        final String[] usertaskId = {""};
-        List<String> usertaskIdList = VaultCollections.newList();
-
-        HttpRequest request = httpService.newHttpRequest(apiConnection);
+        VpsHttpRequest request = new VpsHttpRequest();
         request.setMethod(HttpMethod.POST);
         String createObjectPath = String.format(
                 URL_OBJECT_CREATE,
@@ -168,51 +263,96 @@ public class VpsAPIClient extends VpsBaseHelper {
         for (String key : fieldsToUpdate.keySet()) {
             request.setBodyParam(key, fieldsToUpdate.get(key));
         }
-        httpService.send(request, HttpResponseBodyValueType.JSONDATA)
-                .onSuccess(httpResponse -> {
-                    int responseCode = httpResponse.getHttpStatusCode();
-                    logService.info("RESPONSE: " + responseCode);
-                    logService.info("RESPONSE: " + httpResponse.getResponseBody());
-
-                    JsonData response = httpResponse.getResponseBody();
-
-                    //This API call just initiates a workflow. Log success or errors messages depending on the results of the call.
-                    if (response.isValidJson()) {
-                        String responseStatus = response.getJsonObject().getValue("responseStatus", JsonValueType.STRING);
-                        JsonObject data = response.getJsonObject().getValue("data", JsonValueType.OBJECT);
-                        usertaskIdList.add(data.getValue("id", JsonValueType.STRING));
-                        if (responseStatus.equals("SUCCESS")) {
-                            logService.info("Starting HTTP Create Object");
-                        } else {
-                            logService.info("Failed to create object.");
-                            if (response.getJsonObject().contains("responseMessage") == true) {
-                                String responseMessage = response.getJsonObject().getValue("responseMessage", JsonValueType.STRING);
-                                logService.error("ERROR: {}", responseMessage);
-                                throw new RollbackException("OPERATION_NOT_ALLOWED", "HttpService Error on HTTP Call Out: " + responseMessage);
-                            }
-                            if (response.getJsonObject().contains("errors") == true) {
-                                JsonArray errors = response.getJsonObject().getValue("errors", JsonValueType.ARRAY);
-                                String type = errors.getValue(0, JsonValueType.OBJECT).getValue("type", JsonValueType.STRING);
-                                String message = errors.getValue(0, JsonValueType.OBJECT).getValue("message", JsonValueType.STRING);
-                                logService.error("ERROR {}: {}", type, message);
-                                throw new RollbackException("OPERATION_NOT_ALLOWED", "HttpService Error on HTTP Call out: " + message);
-                            }
-                        }
-                    }
-                })
-                .onError(httpOperationError -> {
-                    int responseCode = httpOperationError.getHttpResponse().getHttpStatusCode();
-                    logService.info("RESPONSE: " + responseCode);
-                    logService.info(httpOperationError.getMessage());
-                    logService.info(httpOperationError.getHttpResponse().getResponseBody());
-                })
-                .execute();
-        if (usertaskId != null) {
-            return usertaskIdList.get(0);
-        } else {
+
+        VpsAPIResponse apiResponse = send("createObject", "POST " + URL_OBJECT_CREATE, request);
+        if (apiResponse == null) {
             return "";
         }
+        if (!isSuccess(apiResponse)) {
+            getLogService().info("Failed to create object.");
+            String responseMessage = apiResponse.getResponseMessage();
+            if (responseMessage == null && apiResponse.getErrors() != null) {
+                responseMessage = apiResponse.getErrors().getValue(0, JsonValueType.OBJECT)
+                        .getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
+            }
+            throw new RollbackException("OPERATION_NOT_ALLOWED", "HttpService Error on HTTP Call Out: " + responseMessage);
+        }
+        getLogService().info("Starting HTTP Create Object");
+        String recordId = apiResponse.getObject(APIFIELD_DATA).getValue(APIFIELD_ID, JsonValueType.STRING);
+        if (recordCache != null) {
+            for (String key : fieldsToUpdate.keySet()) {
+                recordCache.put(objectType, recordId, key, fieldsToUpdate.get(key));
+            }
+        }
+        return recordId;
+    }
+
+    /**
+     * Creates many records of one object with the bulk create endpoint, OBJECT_CREATE_BATCH_SIZE
+     * records per request sent as CSV. Unlike createObject, failed rows do not roll back;
+     * they are reported in the result and the remaining rows are still created.
+     *
+     * @param objectType object api name
+     * @param recordFieldsList field values of each record
+     * @return created ids in input order, with the errors of the rows that failed
+     */
+    public VpsCreateObjectsResult createObjects(String objectType, List<Map<String, String>> recordFieldsList) {
+        VpsCreateObjectsResult result = new VpsCreateObjectsResult(recordFieldsList.size());
+        for (int start = 0; start < recordFieldsList.size(); start += OBJECT_CREATE_BATCH_SIZE) {
+            int end = Math.min(recordFieldsList.size(), start + OBJECT_CREATE_BATCH_SIZE);
+            createObjectsBatch(objectType, recordFieldsList.subList(start, end), start, result);
+        }
+        return result;
+    }
+
+    /**
+     * Sends one bulk create request; the per row results come back in input order
+     */
+    private void createObjectsBatch(String objectType,
+                                    List<Map<String, String>> recordFieldsList,
+                                    int offset,
+                                    VpsCreateObjectsResult result) {
+
+        String csv = toCsv(recordFieldsList, VaultCollections.newList());
+        String createObjectPath = String.format(URL_OBJECT_CREATE, apiVersion, objectType);
+        getLogService().info("createObjects {} - {} records", createObjectPath, recordFieldsList.size());
+
+        VpsHttpRequest request = new VpsHttpRequest()
+                .setMethod(HttpMethod.POST)
+                .setHeader("Content-Type", "text/csv")
+                .setHeader("Accept", "application/json")
+                .setBody(csv)
+                .appendPath(createObjectPath);
+
+        VpsAPIResponse apiResponse = send("createObjects", "POST " + URL_OBJECT_CREATE + " (bulk)", request);
+        if (!isSuccess(apiResponse)) {
+            String errorMessage = apiResponse == null ? "HTTP error" : getFirstError(apiResponse.getErrors());
+            for (int i = 0; i < recordFieldsList.size(); i++) {
+                result.setError(offset + i, errorMessage);
+            }
+            return;
+        }
 
+        JsonArray rowArray = apiResponse.getArray(APIFIELD_DATA);
+        for (int i = 0; i < recordFieldsList.size(); i++) {
+            JsonObject row = i < rowArray.getSize() ? rowArray.getValue(i, JsonValueType.OBJECT) : null;
+            if (row == null) {
+                result.setError(offset + i, "No result returned for row");
+            } else if (RESPONSESTATUS_SUCCESS.equals(row.getValue(APIFIELD_RESPONSE_STATUS, JsonValueType.STRING))) {
+                String recordId = row.getValue(APIFIELD_DATA, JsonValueType.OBJECT).getValue(APIFIELD_ID, JsonValueType.STRING);
+                result.setId(offset + i, recordId);
+                if (recordCache != null) {
+                    Map<String, String> recordFields = recordFieldsList.get(i);
+                    for (String key : recordFields.keySet()) {
+                        recordCache.put(objectType, recordId, key, recordFields.get(key));
+                    }
+                }
+            } else {
+                JsonArray errors = row.contains(APIFIELD_ERRORS) ? row.getValue(APIFIELD_ERRORS, JsonValueType.ARRAY) : null;
+                result.setError(offset + i, getFirstError(errors));
+                logErrors("createObjects row " + (offset + i), errors);
+            }
+        }
     }
 
     public Map<String, String> getDocumentLifecycleActions(String docId,
@@ -224,39 +364,20 @@ public class VpsAPIClient extends VpsBaseHelper {
         String lifeycleActionUrl = String.format(URL_DOCUMENT_LIFEYCLEACTIONS, apiVersion, docId, majorVersion, minorVersion);
         getLogService().info("getDocumentLifecycleActions {}", lifeycleActionUrl);
 
-        HttpRequest request = httpService.newHttpRequest(apiConnection)
+        VpsHttpRequest request = new VpsHttpRequest()
                 .appendPath(lifeycleActionUrl);
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("getDocumentLifecycleActions {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        JsonArray actionArray = apiResponse.getArray(APIFIELD_ACTIONS);
-                        for (int i = 0; i < actionArray.getSize(); i++) {
-                            JsonObject lifecycleAction = actionArray.getValue(i, JsonValueType.OBJECT);
-
-                            lifecycleActionMap.put(
-                                    lifecycleAction.getValue(APIFIELD_LABEL, JsonValueType.STRING),
-                                    lifecycleAction.getValue(APIFIELD_NAME, JsonValueType.STRING));
-                        }
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("getDocumentLifecycleActions {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
-                })
-                .execute();
+
+        VpsAPIResponse apiResponse = send("getDocumentLifecycleActions", "GET " + URL_DOCUMENT_LIFEYCLEACTIONS, request);
+        if (isSuccess(apiResponse)) {
+            JsonArray actionArray = apiResponse.getArray(APIFIELD_ACTIONS);
+            for (int i = 0; i < actionArray.getSize(); i++) {
+                JsonObject lifecycleAction = actionArray.getValue(i, JsonValueType.OBJECT);
+
+                lifecycleActionMap.put(
+                        lifecycleAction.getValue(APIFIELD_LABEL, JsonValueType.STRING),
+                        lifecycleAction.getValue(APIFIELD_NAME, JsonValueType.STRING));
+            }
+        }
 
         return lifecycleActionMap;
     }
@@ -267,89 +388,57 @@ public class VpsAPIClient extends VpsBaseHelper {
 
         String lifeycleActionUrl = String.format(URL_INITIATE_DOCUMENT_LIFEYCLEACTIONS, apiVersion, docId, majorVersion, minorVersion, lifecycleActionName);
         getLogService().info("initiateDocumentLifecycleActions {}", lifeycleActionUrl);
-        List<Boolean> successList = VaultCollections.newList();
 
-        HttpRequest request = httpService.newHttpRequest(apiConnection)
+        VpsHttpRequest request = new VpsHttpRequest()
                 .appendPath(lifeycleActionUrl)
-				.setMethod(HttpMethod.PUT);
-
-
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("initiateDocumentLifecycleActions {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        getLogService().info("Initiating Lifecycle Action");
-                        successList.add(true);
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("initiateDocumentLifecycleActions {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
-                })
-                .execute();
+                .setMethod(HttpMethod.PUT);
 
-        return successList.size() > 0;
+        boolean success = isSuccess(send("initiateDocumentLifecycleActions", "PUT " + URL_INITIATE_DOCUMENT_LIFEYCLEACTIONS, request));
+        if (success) {
+            getLogService().info("Initiating Lifecycle Action");
+        }
+        return success;
     }
 
 
     public List<String> getDocumentUsersAndGroupsFromRole(String docId, String roleApiName) {
-        List<String> usersAndGroups = VaultCollections.newList();
+        return getUsersAndGroups(send("getDocumentUsersAndGroupsFromRole", "GET " + URL_ROLES,
+                newRoleRequest(docId, roleApiName)));
+    }
+
+    /**
+     * Asynchronous getDocumentUsersAndGroupsFromRole, see sendAsync
+     */
+    public VpsAPIFuture<List<String>> getDocumentUsersAndGroupsFromRoleAsync(String docId, String roleApiName) {
+        return sendAsync("getDocumentUsersAndGroupsFromRole", "GET " + URL_ROLES,
+                newRoleRequest(docId, roleApiName), this::getUsersAndGroups);
+    }
+
+    private VpsHttpRequest newRoleRequest(String docId, String roleApiName) {
         String roleUrl = String.format(URL_ROLES, apiVersion, docId, roleApiName);
         getLogService().info("getDocumentUsersAndGroupsFromRole {}", roleUrl);
-        List<Boolean> successList = VaultCollections.newList();
-        HttpRequest request = httpService.newHttpRequest(apiConnection)
+        return new VpsHttpRequest()
                 .appendPath(roleUrl);
+    }
 
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("getDocumentLifecycleActions {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        JsonArray roleArray = apiResponse.getArray(APIFIELD_DOCUMENT_ROLES);
-
-                        for (int i = 0; i < roleArray.getSize(); i++) {
-                            JsonObject role = roleArray.getValue(i, JsonValueType.OBJECT);
-
-                            JsonArray groupArray = role.getValue(APIFIELD_ASSIGNED_GROUPS, JsonValueType.ARRAY);
-                            for (int g = 0; g < groupArray.getSize(); g++) {
-                                usersAndGroups.add("group:" + groupArray.getValue(g, JsonValueType.NUMBER));
-                            }
-                            JsonArray userArray = role.getValue(APIFIELD_ASSIGNED_USERS, JsonValueType.ARRAY);
-                            for (int u = 0; u < userArray.getSize(); u++) {
-                                usersAndGroups.add("user:" + userArray.getValue(u, JsonValueType.NUMBER));
-                            }
-                        }
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("getDocumentLifecycleActions {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
-                })
-                .execute();
+    private List<String> getUsersAndGroups(VpsAPIResponse apiResponse) {
+        List<String> usersAndGroups = VaultCollections.newList();
+        if (isSuccess(apiResponse)) {
+            JsonArray roleArray = apiResponse.getArray(APIFIELD_DOCUMENT_ROLES);
+
+            for (int i = 0; i < roleArray.getSize(); i++) {
+                JsonObject role = roleArray.getValue(i, JsonValueType.OBJECT);
+
+                JsonArray groupArray = role.getValue(APIFIELD_ASSIGNED_GROUPS, JsonValueType.ARRAY);
+                for (int g = 0; g < groupArray.getSize(); g++) {
+                    usersAndGroups.add("group:" + groupArray.getValue(g, JsonValueType.NUMBER));
+                }
+                JsonArray userArray = role.getValue(APIFIELD_ASSIGNED_USERS, JsonValueType.ARRAY);
+                for (int u = 0; u < userArray.getSize(); u++) {
+                    usersAndGroups.add("user:" + userArray.getValue(u, JsonValueType.NUMBER));
+                }
+            }
+        }
 
         return usersAndGroups;
     }
@@ -360,16 +449,109 @@ public class VpsAPIClient extends VpsBaseHelper {
         return initiateObjectAction(objectName, userActionName, idList, true);
     }
 
+    /**
+     * Runs the action on every record through the bulk path. Unlike the single record
+     * call, the remaining records are still processed after a failure.
+     *
+     * @return true if the action succeeded on every record
+     */
     public Boolean initiateObjectAction(String objectName,
                                         String userActionName,
                                         List<String> idList,
                                         Boolean rollbackOnError) {
-        for (String objectId : idList) {
-            if (!initiateObjectAction(objectName, userActionName, objectId, rollbackOnError)) {
-                return false;
+        Map<String, Boolean> results = initiateObjectActionBulk(objectName, userActionName, idList);
+        List<String> failedIds = VaultCollections.newList();
+        for (String objectId : results.keySet()) {
+            if (!results.get(objectId)) {
+                failedIds.add(objectId);
             }
         }
-        return true;
+        if (failedIds.isEmpty()) {
+            return true;
+        }
+        if (rollbackOnError) {
+            throw new RollbackException("OPERATION_NOT_ALLOWED", "Object action " + userActionName
+                    + " failed for " + failedIds.size() + " records: " + VpsUtilHelper.listToString(failedIds, ",", false));
+        }
+        return false;
+    }
+
+    /**
+     * Runs an object user action on many records with the multi-record action endpoint,
+     * OBJECT_ACTION_BATCH_SIZE records per request. Records that fail with RACE_CONDITION
+     * are retried on their own according to the retry policy; other failures are logged
+     * and do not stop the remaining records.
+     *
+     * @param objectName object api name
+     * @param userActionName action name, e.g. Objectlifecyclestateuseraction.product__v.active_state__c.change_state_to_inactive_useraction__c
+     * @param idList record ids
+     * @return result per record id
+     */
+    public Map<String, Boolean> initiateObjectActionBulk(String objectName,
+                                                         String userActionName,
+                                                         List<String> idList) {
+        Map<String, Boolean> results = VaultCollections.newMap();
+        for (int start = 0; start < idList.size(); start += OBJECT_ACTION_BATCH_SIZE) {
+            List<String> batchIds = idList.subList(start, Math.min(idList.size(), start + OBJECT_ACTION_BATCH_SIZE));
+            int attempt = 1;
+            while (!batchIds.isEmpty()) {
+                List<String> raceConditionIds = initiateObjectActionBatch(objectName, userActionName, batchIds, results);
+                if (raceConditionIds.isEmpty() || !retryPolicy.retry(attempt) || !backoff(transport, attempt)) {
+                    break;
+                }
+                attempt++;
+                batchIds = raceConditionIds;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return ids that failed with RACE_CONDITION and may be retried
+     */
+    private List<String> initiateObjectActionBatch(String objectName,
+                                                   String userActionName,
+                                                   List<String> batchIds,
+                                                   Map<String, Boolean> results) {
+        List<String> raceConditionIds = VaultCollections.newList();
+        for (String objectId : batchIds) {
+            results.put(objectId, false);
+        }
+
+        String initiateObjectActionUrl = String.format(URL_INITIATE_OBJECT_ACTION_BULK, apiVersion, objectName, userActionName);
+        getLogService().info("initiateObjectActionBulk {} - {} records", initiateObjectActionUrl, batchIds.size());
+
+        VpsHttpRequest request = new VpsHttpRequest()
+                .setMethod(HttpMethod.POST)
+                .setBodyParam(APIFIELD_IDS, VpsUtilHelper.listToString(batchIds, ",", false))
+                .appendPath(initiateObjectActionUrl);
+
+        VpsAPIResponse apiResponse = send("initiateObjectActionBulk", "POST " + URL_INITIATE_OBJECT_ACTION_BULK, request);
+        if (!isSuccess(apiResponse)) {
+            return raceConditionIds;
+        }
+        JsonArray rowArray = apiResponse.getArray(APIFIELD_DATA);
+        for (int i = 0; i < rowArray.getSize(); i++) {
+            JsonObject row = rowArray.getValue(i, JsonValueType.OBJECT);
+            String objectId = row.getValue(APIFIELD_ID, JsonValueType.STRING);
+            if (RESPONSESTATUS_SUCCESS.equals(row.getValue(APIFIELD_RESPONSE_STATUS, JsonValueType.STRING))) {
+                results.put(objectId, true);
+                if (recordCache != null) {
+                    recordCache.invalidate(objectName, objectId);
+                }
+            } else if (row.contains(APIFIELD_ERRORS)) {
+                JsonArray errors = row.getValue(APIFIELD_ERRORS, JsonValueType.ARRAY);
+                String errorType = errors.getSize() > 0
+                        ? errors.getValue(0, JsonValueType.OBJECT).getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING)
+                        : null;
+                if (PROCESS_RACECONDITION.equals(errorType)) {
+                    raceConditionIds.add(objectId);
+                } else {
+                    logErrors("initiateObjectActionBulk " + objectId, errors);
+                }
+            }
+        }
+        return raceConditionIds;
     }
 
     public Boolean initiateObjectAction(String objectName,
@@ -390,126 +572,90 @@ public class VpsAPIClient extends VpsBaseHelper {
                 userActionName);
         getLogService().info("initiateObjectAction {}", initiateObjectActionUrl);
 
-        HttpRequest request = httpService.newHttpRequest(apiConnection)
+        VpsHttpRequest request = new VpsHttpRequest()
                 .setMethod(HttpMethod.POST)
                 .setBody("")
                 .appendPath(initiateObjectActionUrl);
 
-        //this list is used to track the results of the batch process (success vs. error)
-        //errors that are non-race conditions are marked as error
-        //note: using a list because lambda expressions require final variables
-        Set<String> results = VaultCollections.newSet();
-
-        //this list is used to track the number of batch attempts
-        //race condition errors are retried up to RETRY_ATTEMPTS_COUNT
-        //note: using a list because lambda expressions require final variables
-        List<String> batchAttempts = VaultCollections.newList();
-
-        while ((batchAttempts.size() < RETRY_ATTEMPTS_COUNT)
-                && (!results.contains(PROCESS_ERROR))
-                && (!results.contains(PROCESS_SUCCESS))) {
-            httpService.send(request, HttpResponseBodyValueType.STRING)
-                    .onError(response -> {
-                        batchAttempts.add(PROCESS_ERROR);
-                        results.add(PROCESS_ERROR);
-
-                        String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                        getLogService().error("initiateObjectAction {}", errorMessage);
-                        getErrorList().add(errorMessage);
-                    })
-                    .onSuccess(response -> {
-                        VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                        if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                            batchAttempts.add(PROCESS_SUCCESS);
-                            results.add(PROCESS_SUCCESS);
-                        }
-                        //This is HTTP 200, but an application level error
-                        else {
-                            JsonArray errors = apiResponse.getErrors();
-                            if (errors != null) {
-                                for (int i = 0; i < errors.getSize(); i++) {
-                                    JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                    String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                    String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                    getLogService().error("initiateObjectAction {}", errorType + " - " + errorMessage);
-                                    getErrorList().add(errorType + " - " + errorMessage);
-
-                                    //handles race conditions for record level locking
-                                    if (errorType.equals(PROCESS_RACECONDITION)) {
-                                        results.add(PROCESS_RACECONDITION);
-                                        sleep();
-
-                                        //if we reached the max number of retries and rollebackOnError=true
-                                        //throw rollback exception
-                                        if ((batchAttempts.size() == RETRY_ATTEMPTS_COUNT) && (rollbackOnError)) {
-                                            throw new RollbackException("OPERATION_NOT_ALLOWED", errorMessage + PROCESS_RACECONDITION);
-                                        }
-                                    } else {
-                                        results.add(PROCESS_ERROR);
-
-                                        if (rollbackOnError) {
-                                            throw new RollbackException("OPERATION_NOT_ALLOWED", errorMessage);
-                                        }
-                                    }
-                                }
-                            }
-                        }
-
-                    })
-                    .execute();
-        }
-
-        return results.contains(PROCESS_SUCCESS);
+        //race conditions for record level locking are retried by the retry policy
+        VpsAPIResponse apiResponse = send("initiateObjectAction", "POST " + URL_INITIATE_OBJECT_ACTION, request);
+        if (isSuccess(apiResponse)) {
+            if (recordCache != null) {
+                recordCache.invalidate(objectName, objectId);
+            }
+            return true;
+        }
+
+        //This is HTTP 200, but an application level error
+        if (apiResponse != null && rollbackOnError) {
+            String errorType = getFirstErrorType(apiResponse);
+            String errorMessage = apiResponse.getErrors() == null ? apiResponse.getResponseMessage()
+                    : apiResponse.getErrors().getValue(0, JsonValueType.OBJECT).getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
+            if (PROCESS_RACECONDITION.equals(errorType)) {
+                throw new RollbackException("OPERATION_NOT_ALLOWED", errorMessage + PROCESS_RACECONDITION);
+            }
+            throw new RollbackException("OPERATION_NOT_ALLOWED", errorMessage);
+        }
+        return false;
     }
 
     /**
      * Runs the current query. Query is logged to LogService
+     * Only the first page of results is returned; use streamVQL to read every page
      *
      * @return QueryResponse with results from the VQL query
      */
     public VpsVQLResponse runVQL(VpsVQLRequest vpsVQLRequest) {
-        vpsVQLRequest.logVQL();
-
-        List<VpsVQLResponse> resultList = VaultCollections.newList();
+        getLogService().info(vpsVQLRequest.getVQL());
 
         String queryUrl = String.format(URL_QUERY, apiVersion);
         getLogService().info("runVQL {}", queryUrl);
 
         //now call GET on the documents available user actions and build a map
-        HttpRequest request = httpService.newHttpRequest(apiConnection)
+        VpsHttpRequest request = new VpsHttpRequest()
                 .setMethod(HttpMethod.POST)
+                .setIdempotent(true)
                 .setBodyParam(APIFIELD_QUERY, vpsVQLRequest.getVQL())
                 .appendPath(queryUrl);
 
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("runVQL {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsVQLResponse vpsVQLResponse = new VpsVQLResponse(response.getResponseBody());
-                    resultList.add(vpsVQLResponse);
-
-                    JsonArray errors = vpsVQLResponse.getErrors();
-                    if (errors != null) {
-                        for (int i = 0; i < errors.getSize(); i++) {
-                            JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                            String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                            String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                            getLogService().error("VpsVQLResponse {}", errorType + " - " + errorMessage);
-                            getErrorList().add(errorType + " - " + errorMessage);
-                        }
-                    }
-
-                })
-                .execute();
+        return send("runVQL", "POST " + URL_QUERY, request, VpsVQLResponse::new);
+    }
 
-        if (resultList.size() > 0) {
-            return resultList.get(0);
+    /**
+     * Fetches the page of an earlier query referenced by responseDetails.next_page
+     *
+     * @param nextPageUrl next_page value, e.g. /api/v19.1/query/00001?pagesize=1000&pageoffset=1000
+     * @return VpsVQLResponse with the page, null if the call failed
+     */
+    public VpsVQLResponse runVQLNextPage(String nextPageUrl) {
+        getLogService().info("runVQLNextPage {}", nextPageUrl);
+
+        VpsHttpRequest request = new VpsHttpRequest()
+                .setMethod(HttpMethod.GET);
+        int querystringStart = nextPageUrl.indexOf('?');
+        if (querystringStart < 0) {
+            request.appendPath(nextPageUrl);
         } else {
-            return null;
+            request.appendPath(nextPageUrl.substring(0, querystringStart));
+            for (String param : nextPageUrl.substring(querystringStart + 1).split("&")) {
+                int valueStart = param.indexOf('=');
+                if (valueStart > 0) {
+                    request.setQuerystringParam(param.substring(0, valueStart), param.substring(valueStart + 1));
+                }
+            }
         }
+
+        return send("runVQLNextPage", "GET " + URL_QUERY_NEXT_PAGE, request, VpsVQLResponse::new);
+    }
+
+    /**
+     * Runs the query and iterates over every result row, fetching the following page
+     * only once the current one has been consumed. At most one page is held in memory.
+     *
+     * @return iterator over the data rows of all pages
+     */
+    public VpsVQLResultIterator streamVQL(VpsVQLRequest vpsVQLRequest) {
+        return new VpsVQLResultIterator(this, runVQL(vpsVQLRequest));
     }
 
     public Boolean startDocumentWorkflow(String docId,
@@ -520,8 +666,6 @@ public class VpsAPIClient extends VpsBaseHelper {
                                          Set<String> users,
                                          Set<String> groups) {
 
-        List<Boolean> successList = VaultCollections.newList();
-
         String startWorkflowUrl = String.format(
                 URL_DOCUMENT_LIFEYCLEACTIONS,
                 apiVersion,
@@ -542,38 +686,12 @@ public class VpsAPIClient extends VpsBaseHelper {
             }
         }
 
-        HttpRequest request = httpService.newHttpRequest(apiConnection)
+        VpsHttpRequest request = new VpsHttpRequest()
                 .setMethod(HttpMethod.PUT)
                 .setBodyParam(roleName, VpsUtilHelper.setToString(usersAndGroups, ",", false))
                 .appendPath(startWorkflowUrl);
 
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("startDocumentWorkflow {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        successList.add(true);
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("startDocumentWorkflow {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
-
-                })
-                .execute();
-
-        return successList.size() > 0;
+        return isSuccess(send("startDocumentWorkflow", "PUT " + URL_INITIATE_DOCUMENT_LIFEYCLEACTIONS, request));
     }
 
     public Boolean startDocumentWorkflow(String docId,
@@ -582,8 +700,6 @@ public class VpsAPIClient extends VpsBaseHelper {
                                          String lifecycleActionName,
                                          Map<String, String> requestParams) {
 
-        List<Boolean> successList = VaultCollections.newList();
-
         String startWorkflowUrl = String.format(
                 URL_DOCUMENT_LIFEYCLEACTIONS,
                 apiVersion,
@@ -591,7 +707,7 @@ public class VpsAPIClient extends VpsBaseHelper {
                 majorVersion,
                 minorVersion) + lifecycleActionName;
         getLogService().info("startDocumentWorkflow {}", startWorkflowUrl);
-        HttpRequest request = httpService.newHttpRequest(apiConnection);
+        VpsHttpRequest request = new VpsHttpRequest();
         request.setMethod(HttpMethod.PUT);
         request.appendPath(startWorkflowUrl);
         if (requestParams != null) {
@@ -599,33 +715,8 @@ public class VpsAPIClient extends VpsBaseHelper {
                 request.setBodyParam(key, requestParams.get(key));
             }
         }
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("startDocumentWorkflow {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        successList.add(true);
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("startDocumentWorkflow {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
-
-                })
-                .execute();
 
-        return successList.size() > 0;
+        return isSuccess(send("startDocumentWorkflow", "PUT " + URL_INITIATE_DOCUMENT_LIFEYCLEACTIONS, request));
     }
 
     /**
@@ -637,54 +728,19 @@ public class VpsAPIClient extends VpsBaseHelper {
     public boolean updateDocumentFields(String docID, String majorVersion,
                                         String minorVersion, Map<String, String> documentFieldsToUpdate) {
 
-        LogService logService = ServiceLocator.locate(LogService.class);
-        HttpService httpService = ServiceLocator.locate(HttpService.class);
-        List<Boolean> successList = VaultCollections.newList();
-        //A `newLocalHttpRequest` is an Http Callout against the same vault (local) using the user that initiated the SDK code.
-        //The user must have access to the action being performed or the Vault API will return an access error.
-        HttpRequest request = httpService.newHttpRequest(apiConnection);
-        request.setMethod(HttpMethod.PUT);
-//		request.appendPath("/api/v19.1/objects/documents/" + docID + "/versions/" + majorVersion + "/" + minorVersion);
-//		request.appendPath(URL_DOCUMENT_UPDATE,apiVersion,docID,majorVersion,minorVersion);
-        String initiateDocumentUpdateUrl = String.format(
-                URL_UPDATE_DOCUMENT_VERSION,
-                apiVersion,
-                docID,
-                majorVersion,
-                minorVersion);
+        return isSuccess(send("updateDocumentFields", "PUT " + URL_UPDATE_DOCUMENT_VERSION,
+                newVersionUpdateRequest(URL_UPDATE_DOCUMENT_VERSION, docID, majorVersion, minorVersion, documentFieldsToUpdate)));
+    }
 
-		request.appendPath(initiateDocumentUpdateUrl);
-        for (String key : documentFieldsToUpdate.keySet()) {
-            request.setBodyParam(key, documentFieldsToUpdate.get(key));
-        }
-
-		httpService.send(request, HttpResponseBodyValueType.STRING)
-				.onError(response -> {
-					String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-					getLogService().error("updateDocumentFields {}", errorMessage);
-					getErrorList().add(errorMessage);
-				})
-				.onSuccess(response -> {
-					VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-					if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-						successList.add(true);
-					} else {
-						JsonArray errors = apiResponse.getErrors();
-						if (errors != null) {
-							for (int i = 0; i < errors.getSize(); i++) {
-								JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-								String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-								String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-								getLogService().error("updateDocumentFields {}", errorType + " - " + errorMessage);
-								getErrorList().add(errorType + " - " + errorMessage);
-							}
-						}
-					}
-
-				})
-				.execute();
-
-		return successList.size() > 0;
+    /**
+     * Asynchronous updateDocumentFields, see sendAsync
+     */
+    public VpsAPIFuture<Boolean> updateDocumentFieldsAsync(String docID, String majorVersion,
+                                                           String minorVersion, Map<String, String> documentFieldsToUpdate) {
+
+        return sendAsync("updateDocumentFields", "PUT " + URL_UPDATE_DOCUMENT_VERSION,
+                newVersionUpdateRequest(URL_UPDATE_DOCUMENT_VERSION, docID, majorVersion, minorVersion, documentFieldsToUpdate),
+                this::isSuccess);
     }
     /**
      * @param docID
@@ -695,52 +751,43 @@ public class VpsAPIClient extends VpsBaseHelper {
     public boolean updateBinderFields(String docID, String majorVersion,
                                         String minorVersion, Map<String, String> FieldsToUpdate) {
 
-        LogService logService = ServiceLocator.locate(LogService.class);
-        HttpService httpService = ServiceLocator.locate(HttpService.class);
-        List<Boolean> successList = VaultCollections.newList();
+        return isSuccess(send("updateBinderFields", "PUT " + URL_UPDATE_BINDER_VERSION,
+                newVersionUpdateRequest(URL_UPDATE_BINDER_VERSION, docID, majorVersion, minorVersion, FieldsToUpdate)));
+    }
+
+    /**
+     * Asynchronous updateBinderFields, see sendAsync
+     */
+    public VpsAPIFuture<Boolean> updateBinderFieldsAsync(String docID, String majorVersion,
+                                                         String minorVersion, Map<String, String> fieldsToUpdate) {
+
+        return sendAsync("updateBinderFields", "PUT " + URL_UPDATE_BINDER_VERSION,
+                newVersionUpdateRequest(URL_UPDATE_BINDER_VERSION, docID, majorVersion, minorVersion, fieldsToUpdate),
+                this::isSuccess);
+    }
+
+    /**
+     * @param versionUrl URL_UPDATE_DOCUMENT_VERSION or URL_UPDATE_BINDER_VERSION
+     */
+    private VpsHttpRequest newVersionUpdateRequest(String versionUrl, String docID, String majorVersion,
+                                                   String minorVersion, Map<String, String> fieldsToUpdate) {
+
         //A `newLocalHttpRequest` is an Http Callout against the same vault (local) using the user that initiated the SDK code.
         //The user must have access to the action being performed or the Vault API will return an access error.
-        HttpRequest request = httpService.newHttpRequest(apiConnection);
+        VpsHttpRequest request = new VpsHttpRequest();
         request.setMethod(HttpMethod.PUT);
         String initiateDocumentUpdateUrl = String.format(
-                URL_UPDATE_BINDER_VERSION,
+                versionUrl,
                 apiVersion,
                 docID,
                 majorVersion,
                 minorVersion);
 
         request.appendPath(initiateDocumentUpdateUrl);
-        for (String key : FieldsToUpdate.keySet()) {
-            request.setBodyParam(key, FieldsToUpdate.get(key));
-        }
-
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("updateDocumentFields {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        successList.add(true);
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("updateBinderFields {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
-
-                })
-                .execute();
-
-        return successList.size() > 0;
+        for (String key : fieldsToUpdate.keySet()) {
+            request.setBodyParam(key, fieldsToUpdate.get(key));
+        }
+        return request;
     }
     /**
      * @param docID
@@ -750,12 +797,9 @@ public class VpsAPIClient extends VpsBaseHelper {
 
         Map<String, String> versionInfo = VaultCollections.newMap();
 
-        LogService logService = ServiceLocator.locate(LogService.class);
-        HttpService httpService = ServiceLocator.locate(HttpService.class);
-        List<Boolean> successList = VaultCollections.newList();
         //A `newLocalHttpRequest` is an Http Callout against the same vault (local) using the user that initiated the SDK code.
         //The user must have access to the action being performed or the Vault API will return an access error.
-        HttpRequest request = httpService.newHttpRequest(apiConnection);
+        VpsHttpRequest request = new VpsHttpRequest();
         request.setMethod(HttpMethod.GET);
         String apiURL = String.format(
                 URL_RETRIEVE_DOCUMENT_VERSIONS,
@@ -764,43 +808,23 @@ public class VpsAPIClient extends VpsBaseHelper {
 
         request.appendPath(apiURL);
 
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("retrieveDocumentVersions {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        successList.add(true);
-                        JsonArray versionsArray = apiResponse.getArray("versions");
-
-                        for (int i = 0; i < versionsArray.getSize(); i++) {
-                            JsonObject versions = versionsArray.getValue(i, JsonValueType.OBJECT);
-                            String versionNumber = versions.getValue("number", JsonValueType.STRING);
-                            String versionValue= versions.getValue("value", JsonValueType.STRING);
-                            versionInfo.put(versionNumber,versionValue);
-                        }
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("retrieveDocumentVersions {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
+        VpsAPIResponse apiResponse = send("retrieveDocumentVersions", "GET " + URL_RETRIEVE_DOCUMENT_VERSIONS, request);
+        if (isSuccess(apiResponse)) {
+            JsonArray versionsArray = apiResponse.getArray("versions");
 
-                })
-                .execute();
+            for (int i = 0; i < versionsArray.getSize(); i++) {
+                JsonObject versions = versionsArray.getValue(i, JsonValueType.OBJECT);
+                String versionNumber = versions.getValue("number", JsonValueType.STRING);
+                String versionValue= versions.getValue("value", JsonValueType.STRING);
+                versionInfo.put(versionNumber,versionValue);
+            }
+        }
 
         return versionInfo;
     }
     /**
+     * Updates a single version through the batch version update endpoint
+     *
      * @param docID
      * @param majorVersion
      * @param minorVersion
@@ -809,53 +833,361 @@ public class VpsAPIClient extends VpsBaseHelper {
     public boolean updateDocumentBulk(String docID, String majorVersion,
                                         String minorVersion, Map<String, String> documentFieldsToUpdate, String apiConnection) {
 
-        LogService logService = ServiceLocator.locate(LogService.class);
-        HttpService httpService = ServiceLocator.locate(HttpService.class);
-        List<Boolean> successList = VaultCollections.newList();
-        //A `newLocalHttpRequest` is an Http Callout against the same vault (local) using the user that initiated the SDK code.
-        //The user must have access to the action being performed or the Vault API will return an access error.
-        HttpRequest request = httpService.newHttpRequest(apiConnection);
-        request.setMethod(HttpMethod.PUT);
-//		request.appendPath("/api/v19.1/objects/documents/" + docID + "/versions/" + majorVersion + "/" + minorVersion);
-//		request.appendPath(URL_DOCUMENT_UPDATE,apiVersion,docID,majorVersion,minorVersion);
-        String initiateDocumentUpdateUrl = String.format(
-                URL_UPDATE_DOCUMENT_VERSION,
-                apiVersion,
-                docID,
-                majorVersion,
-                minorVersion);
+        Map<String, String> versionFields = VaultCollections.newMap();
+        versionFields.putAll(documentFieldsToUpdate);
+        versionFields.put(APIFIELD_ID, docID);
+        versionFields.put(APIFIELD_MAJOR_VERSION_NUMBER, majorVersion);
+        versionFields.put(APIFIELD_MINOR_VERSION_NUMBER, minorVersion);
+        List<Map<String, String>> versionFieldsList = VaultCollections.newList();
+        versionFieldsList.add(versionFields);
+
+        Boolean success = updateDocumentVersionsBulk(versionFieldsList, apiConnection)
+                .get(getVersionKey(docID, majorVersion, minorVersion));
+        return success != null && success;
+    }
 
-        request.appendPath(initiateDocumentUpdateUrl);
-        for (String key : documentFieldsToUpdate.keySet()) {
-            request.setBodyParam(key, documentFieldsToUpdate.get(key));
-        }
-
-        httpService.send(request, HttpResponseBodyValueType.STRING)
-                .onError(response -> {
-                    String errorMessage = "HTTP Status Code: " + response.getHttpResponse().getHttpStatusCode();
-                    getLogService().error("updateDocumentFields {}", errorMessage);
-                    getErrorList().add(errorMessage);
-                })
-                .onSuccess(response -> {
-                    VpsAPIResponse apiResponse = new VpsAPIResponse(response.getResponseBody());
-                    if (apiResponse.getResponseStatus().equals(RESPONSESTATUS_SUCCESS)) {
-                        successList.add(true);
-                    } else {
-                        JsonArray errors = apiResponse.getErrors();
-                        if (errors != null) {
-                            for (int i = 0; i < errors.getSize(); i++) {
-                                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
-                                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
-                                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
-                                getLogService().error("updateDocumentFields {}", errorType + " - " + errorMessage);
-                                getErrorList().add(errorType + " - " + errorMessage);
-                            }
-                        }
-                    }
+    /**
+     * Updates many document and binder versions with as few batch update requests as possible.
+     * Each map holds the version's id, major_version_number__v and minor_version_number__v
+     * along with the fields to update.
+     *
+     * @param versionFieldsList versions to update
+     * @return update result per version, keyed by getVersionKey
+     */
+    public Map<String, Boolean> updateDocumentVersionsBulk(List<Map<String, String>> versionFieldsList) {
+        return updateDocumentVersionsBulk(versionFieldsList, apiConnection);
+    }
+
+    private Map<String, Boolean> updateDocumentVersionsBulk(List<Map<String, String>> versionFieldsList, String apiConnection) {
+        //a different connection than the client's needs its own transport
+        VpsHttpTransport versionTransport = transport;
+        if (apiConnection != null && !apiConnection.equals(this.apiConnection)) {
+            versionTransport = new VpsSdkHttpTransport(apiConnection);
+            if (serviceLocator != null) {
+                ((VpsSdkHttpTransport) versionTransport).setServiceLocator(serviceLocator);
+            }
+        }
+        Map<String, Boolean> results = VaultCollections.newMap();
+        for (int start = 0; start < versionFieldsList.size(); start += BULK_UPDATE_BATCH_SIZE) {
+            int end = Math.min(versionFieldsList.size(), start + BULK_UPDATE_BATCH_SIZE);
+            updateDocumentVersionsBatch(versionFieldsList.subList(start, end), versionTransport, results);
+        }
+        return results;
+    }
+
+    /**
+     * Sends one batch update request as CSV and maps the per row results, which come back
+     * in input order, to the version keys
+     */
+    private void updateDocumentVersionsBatch(List<Map<String, String>> versionFieldsList,
+                                             VpsHttpTransport versionTransport,
+                                             Map<String, Boolean> results) {
+
+        //id and version numbers first, then every field that appears in any row
+        List<String> columns = VaultCollections.newList();
+        columns.add(APIFIELD_ID);
+        columns.add(APIFIELD_MAJOR_VERSION_NUMBER);
+        columns.add(APIFIELD_MINOR_VERSION_NUMBER);
+        List<String> versionKeys = VaultCollections.newList();
+        for (Map<String, String> versionFields : versionFieldsList) {
+            String versionKey = getVersionKey(versionFields.get(APIFIELD_ID),
+                    versionFields.get(APIFIELD_MAJOR_VERSION_NUMBER),
+                    versionFields.get(APIFIELD_MINOR_VERSION_NUMBER));
+            versionKeys.add(versionKey);
+            results.put(versionKey, false);
+        }
+        String csv = toCsv(versionFieldsList, columns);
+
+        String batchUpdateUrl = String.format(URL_UPDATE_DOCUMENT_VERSIONS_BATCH, apiVersion);
+        getLogService().info("updateDocumentVersionsBulk {} - {} versions", batchUpdateUrl, versionKeys.size());
 
-                })
-                .execute();
+        VpsHttpRequest request = new VpsHttpRequest()
+                .setMethod(HttpMethod.PUT)
+                .setHeader("Content-Type", "text/csv")
+                .setHeader("Accept", "application/json")
+                .setBody(csv)
+                .appendPath(batchUpdateUrl);
+
+        VpsAPIResponse apiResponse = send("updateDocumentVersionsBulk", "PUT " + URL_UPDATE_DOCUMENT_VERSIONS_BATCH,
+                versionTransport, request, VpsAPIResponse::new);
+        if (isSuccess(apiResponse)) {
+            JsonArray rowArray = apiResponse.getArray(APIFIELD_DATA);
+            for (int i = 0; i < rowArray.getSize() && i < versionKeys.size(); i++) {
+                JsonObject row = rowArray.getValue(i, JsonValueType.OBJECT);
+                if (RESPONSESTATUS_SUCCESS.equals(row.getValue(APIFIELD_RESPONSE_STATUS, JsonValueType.STRING))) {
+                    results.put(versionKeys.get(i), true);
+                } else if (row.contains(APIFIELD_ERRORS)) {
+                    logErrors("updateDocumentVersionsBulk " + versionKeys.get(i),
+                            row.getValue(APIFIELD_ERRORS, JsonValueType.ARRAY));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return version key in the Vault version id format, e.g. 101_0_1
+     */
+    public static String getVersionKey(String docId, String majorVersion, String minorVersion) {
+        return docId + "_" + majorVersion + "_" + minorVersion;
+    }
 
-        return successList.size() > 0;
+    /**
+     * CSV with a header row: the given columns first, then every other field that appears in any row
+     */
+    private String toCsv(List<Map<String, String>> rows, List<String> columns) {
+        for (Map<String, String> fields : rows) {
+            for (String key : fields.keySet()) {
+                if (!columns.contains(key)) {
+                    columns.add(key);
+                }
+            }
+        }
+
+        StringBuilder csv = new StringBuilder();
+        appendCsvRow(csv, columns);
+        List<String> row = VaultCollections.newList();
+        for (Map<String, String> fields : rows) {
+            row.clear();
+            for (String column : columns) {
+                row.add(fields.get(column));
+            }
+            appendCsvRow(csv, row);
+        }
+        return csv.toString();
+    }
+
+    private void appendCsvRow(StringBuilder csv, List<String> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            String value = values.get(i);
+            if (value != null) {
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                    csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+                } else {
+                    csv.append(value);
+                }
+            }
+        }
+        csv.append('\n');
+    }
+
+    private static String getFirstError(JsonArray errors) {
+        if (errors == null || errors.getSize() == 0) {
+            return "UNKNOWN";
+        }
+        JsonObject error = errors.getValue(0, JsonValueType.OBJECT);
+        return error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING) + " - "
+                + error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
+    }
+
+    private void logErrors(String context, JsonArray errors) {
+        if (errors != null) {
+            for (int i = 0; i < errors.getSize(); i++) {
+                JsonObject error = errors.getValue(i, JsonValueType.OBJECT);
+                String errorType = error.getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
+                String errorMessage = error.getValue(APIFIELD_ERROR_MESSAGE, JsonValueType.STRING);
+                getLogService().error(context + " {}", errorType + " - " + errorMessage);
+                getErrorList().add(errorType + " - " + errorMessage);
+            }
+        }
+    }
+
+    /**
+     * Sends the request and retries retriable failures according to the retry policy.
+     * Errors of the final attempt are logged and added to the error list; latency,
+     * retries and errors are recorded in the metrics under the endpoint template.
+     *
+     * @param operation name used in log messages
+     * @param endpoint HTTP method and URL template, e.g. POST /api/%s/query
+     * @return response of the final attempt; null if it failed at HTTP level
+     */
+    private VpsAPIResponse send(String operation, String endpoint, VpsHttpRequest request) {
+        return send(operation, endpoint, transport, request, VpsAPIResponse::new);
+    }
+
+    private <T extends VpsAPIResponse> T send(String operation,
+                                              String endpoint,
+                                              VpsHttpRequest request,
+                                              Function<String, T> responseParser) {
+        return send(operation, endpoint, transport, request, responseParser);
+    }
+
+    private <T extends VpsAPIResponse> T send(String operation,
+                                              String endpoint,
+                                              VpsHttpTransport requestTransport,
+                                              VpsHttpRequest request,
+                                              Function<String, T> responseParser) {
+        long startMillis = Instant.now().toEpochMilli();
+        int attempt = 1;
+        try {
+            while (true) {
+                VpsHttpTransport.VpsHttpResponse httpResponse = requestTransport.send(request);
+                T apiResponse = httpResponse.isSuccess() ? parse(httpResponse.getResponseBody(), responseParser) : null;
+                if (isFinalAttempt(operation, endpoint, requestTransport, request, httpResponse, apiResponse, attempt)) {
+                    return apiResponse;
+                }
+                attempt++;
+            }
+        } finally {
+            metrics.recordCall(endpoint, Instant.now().toEpochMilli() - startMillis, attempt - 1);
+        }
+    }
+
+    /**
+     * Starts the request on the client's transport without waiting for the response, after
+     * completing earlier calls while maxInFlight calls are in flight. Transports that cannot
+     * send asynchronously, like the SDK transport, complete each call when it starts.
+     * Calls are completed on the calling thread, oldest first unless a later one is already
+     * done, with the same retries, logging and metrics as the synchronous calls.
+     *
+     * @param resultMapper maps the response of the final attempt, null if it failed at HTTP level, to the result
+     */
+    private <T> VpsAPIFuture<T> sendAsync(String operation,
+                                          String endpoint,
+                                          VpsHttpRequest request,
+                                          Function<VpsAPIResponse, T> resultMapper) {
+        while (inFlight.size() >= maxInFlight) {
+            completeNext();
+        }
+        VpsAPIFuture<T> future = new VpsAPIFuture<>(this, operation, endpoint, request, resultMapper);
+        future.start(transport.sendAsync(request), Instant.now().toEpochMilli());
+        inFlight.add(future);
+        return future;
+    }
+
+    /**
+     * Completes calls in flight until the future is done
+     */
+    void await(VpsAPIFuture<?> future) {
+        while (!future.isDone() && !inFlight.isEmpty()) {
+            completeNext();
+        }
+    }
+
+    /**
+     * Completes every asynchronous call in flight
+     */
+    public void awaitAll() {
+        while (!inFlight.isEmpty()) {
+            completeNext();
+        }
+    }
+
+    /**
+     * @return asynchronous calls started and not completed yet
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Completes the first call in flight whose response has arrived, or else waits for the
+     * oldest. A call to retry is sent again and moves to the back.
+     */
+    private void completeNext() {
+        VpsAPIFuture<?> future = inFlight.get(0);
+        for (VpsAPIFuture<?> candidate : inFlight) {
+            if (candidate.getPendingCall().isDone()) {
+                future = candidate;
+                break;
+            }
+        }
+        inFlight.remove(future);
+
+        VpsHttpTransport.VpsHttpResponse httpResponse = future.getPendingCall().getResponse();
+        VpsAPIResponse apiResponse = httpResponse.isSuccess() ? parse(httpResponse.getResponseBody(), VpsAPIResponse::new) : null;
+        if (!isFinalAttempt(future.getOperation(), future.getEndpoint(), transport, future.getRequest(),
+                httpResponse, apiResponse, future.getAttempt())) {
+            future.retry(transport.sendAsync(future.getRequest()));
+            inFlight.add(future);
+            return;
+        }
+        metrics.recordCall(future.getEndpoint(), Instant.now().toEpochMilli() - future.getStartMillis(), future.getAttempt() - 1);
+        future.complete(apiResponse);
+    }
+
+    /**
+     * Logs the errors of a final attempt, adds them to the error list and records them in the metrics.
+     * A non-idempotent request is retried after an HTTP failure only if the status code shows
+     * it was refused before it ran; application errors mean Vault did not apply it.
+     *
+     * @param apiResponse parsed response; null if the attempt failed at HTTP level
+     * @param attempt attempt that just finished, starting at 1
+     * @return false if the attempt failed retriably, the retry policy allows another attempt
+     * and the transport waited out the backoff
+     */
+    private boolean isFinalAttempt(String operation,
+                                   String endpoint,
+                                   VpsHttpTransport requestTransport,
+                                   VpsHttpRequest request,
+                                   VpsHttpTransport.VpsHttpResponse httpResponse,
+                                   VpsAPIResponse apiResponse,
+                                   int attempt) {
+        if (!httpResponse.isSuccess()) {
+            int httpStatusCode = httpResponse.getHttpStatusCode();
+            if (retryPolicy.isRetriable(httpStatusCode, request.isIdempotent()) && retryPolicy.retry(attempt)
+                    && backoff(requestTransport, attempt)) {
+                return false;
+            }
+            String errorMessage = "HTTP Status Code: " + httpStatusCode;
+            getLogService().error(operation + " {}", errorMessage);
+            getErrorList().add(errorMessage);
+            metrics.recordHttpError(endpoint, httpStatusCode);
+            return true;
+        }
+
+        if (!isSuccess(apiResponse)) {
+            //This is HTTP 200, but an application level error
+            String errorType = getFirstErrorType(apiResponse);
+            if (retryPolicy.isRetriable(errorType) && retryPolicy.retry(attempt) && backoff(requestTransport, attempt)) {
+                return false;
+            }
+            logErrors(operation, apiResponse.getErrors());
+            metrics.recordApplicationError(endpoint, errorType);
+        }
+        return true;
+    }
+
+    /**
+     * Waits the retry policy's backoff through the transport before another attempt.
+     * A transport that cannot wait defers the retry instead of sending it right away:
+     * the attempt becomes final and isRetryDeferred reports it.
+     *
+     * @param attempt attempt that just failed, starting at 1
+     * @return true if the next attempt can be sent now
+     */
+    private boolean backoff(VpsHttpTransport requestTransport, int attempt) {
+        long backoffMillis = retryPolicy.getBackoffMillis(attempt);
+        if (requestTransport.delay(backoffMillis)) {
+            return true;
+        }
+        retryDeferred = true;
+        getLogService().info("Retry of attempt {} deferred; the transport cannot wait {} ms", attempt, backoffMillis);
+        return false;
+    }
+
+    /**
+     * Parses the body with the client's JsonService when a locator was set
+     */
+    private <T extends VpsAPIResponse> T parse(String responseBody, Function<String, T> responseParser) {
+        T apiResponse = responseParser.apply(responseBody);
+        if (jsonService != null) {
+            apiResponse.setJsonService(jsonService);
+        }
+        return apiResponse;
+    }
+
+    private boolean isSuccess(VpsAPIResponse apiResponse) {
+        return apiResponse != null && RESPONSESTATUS_SUCCESS.equals(apiResponse.getResponseStatus());
+    }
+
+    private String getFirstErrorType(VpsAPIResponse apiResponse) {
+        JsonArray errors = apiResponse.getErrors();
+        if (errors != null && errors.getSize() > 0) {
+            return errors.getValue(0, JsonValueType.OBJECT).getValue(APIFIELD_ERROR_TYPE, JsonValueType.STRING);
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsAPIFuture
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Result of an asynchronous VpsAPIClient call
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util.api;
+
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+
+import java.util.List;
+import java.util.function.Function;
+
+@UserDefinedClassInfo
+public class VpsAPIFuture<T> {
+
+	private final VpsAPIClient apiClient;
+	private final String operation;
+	private final String endpoint;
+	private final VpsHttpRequest request;
+	private final Function<VpsAPIResponse, T> resultMapper;
+
+	private VpsHttpTransport.VpsHttpCall pendingCall;
+	private int attempt = 1;
+	private long startMillis;
+	private boolean done = false;
+	private T result;
+
+	VpsAPIFuture(VpsAPIClient apiClient,
+				 String operation,
+				 String endpoint,
+				 VpsHttpRequest request,
+				 Function<VpsAPIResponse, T> resultMapper) {
+		this.apiClient = apiClient;
+		this.operation = operation;
+		this.endpoint = endpoint;
+		this.request = request;
+		this.resultMapper = resultMapper;
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * Waits for the call to finish, including its retries. The client completes other
+	 * calls in flight while it waits; their results are kept in their own futures.
+	 *
+	 * @return result of the call, the same value the synchronous method returns
+	 */
+	public T get() {
+		apiClient.await(this);
+		return result;
+	}
+
+	/**
+	 * @return results in the order of the futures, waiting for each
+	 */
+	public static <T> List<T> getAll(List<VpsAPIFuture<T>> futures) {
+		List<T> results = VaultCollections.newList();
+		for (VpsAPIFuture<T> future : futures) {
+			results.add(future.get());
+		}
+		return results;
+	}
+
+	String getOperation() {
+		return operation;
+	}
+
+	String getEndpoint() {
+		return endpoint;
+	}
+
+	VpsHttpRequest getRequest() {
+		return request;
+	}
+
+	VpsHttpTransport.VpsHttpCall getPendingCall() {
+		return pendingCall;
+	}
+
+	int getAttempt() {
+		return attempt;
+	}
+
+	long getStartMillis() {
+		return startMillis;
+	}
+
+	/**
+	 * Records the call of the first attempt
+	 */
+	void start(VpsHttpTransport.VpsHttpCall call, long startMillis) {
+		this.pendingCall = call;
+		this.startMillis = startMillis;
+	}
+
+	/**
+	 * Records the call of the next attempt
+	 */
+	void retry(VpsHttpTransport.VpsHttpCall call) {
+		this.pendingCall = call;
+		attempt++;
+	}
+
+	/**
+	 * @param apiResponse response of the final attempt; null if it failed at HTTP level
+	 */
+	void complete(VpsAPIResponse apiResponse) {
+		pendingCall = null;
+		done = true;
+		result = resultMapper.apply(apiResponse);
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsAPIMetrics
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Latency histograms and outcome counts per API endpoint
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util.api;
+
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@UserDefinedClassInfo
+public class VpsAPIMetrics {
+
+	/**
+	 * Upper bounds of the latency histogram buckets; the last bucket is unbounded
+	 */
+	private static final long[] BUCKET_BOUNDS_MILLIS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+	private Map<String, VpsEndpointMetrics> endpoints = VaultCollections.newMap();
+
+	public VpsAPIMetrics() {
+		super();
+	}
+
+	/**
+	 * Records one completed call, including all of its retries
+	 *
+	 * @param endpoint endpoint template, e.g. POST /api/%s/query
+	 * @param latencyMillis wall-clock time of the call
+	 * @param retries retries made by the call
+	 */
+	public void recordCall(String endpoint, long latencyMillis, int retries) {
+		VpsEndpointMetrics metrics = getOrCreate(endpoint);
+		metrics.calls++;
+		metrics.retries += retries;
+		metrics.totalMillis += latencyMillis;
+		metrics.maxMillis = Math.max(metrics.maxMillis, latencyMillis);
+		metrics.bucketCounts[getBucket(latencyMillis)]++;
+	}
+
+	public void recordHttpError(String endpoint, int httpStatusCode) {
+		VpsEndpointMetrics metrics = getOrCreate(endpoint);
+		increment(metrics.httpErrors, String.valueOf(httpStatusCode));
+	}
+
+	public void recordApplicationError(String endpoint, String errorType) {
+		VpsEndpointMetrics metrics = getOrCreate(endpoint);
+		increment(metrics.applicationErrors, errorType == null ? "UNKNOWN" : errorType);
+	}
+
+	/**
+	 * @return endpoint templates with at least one recorded call or error
+	 */
+	public Set<String> getEndpoints() {
+		return endpoints.keySet();
+	}
+
+	/**
+	 * @return metrics of the endpoint, null if nothing was recorded for it
+	 */
+	public VpsEndpointMetrics getEndpoint(String endpoint) {
+		return endpoints.get(endpoint);
+	}
+
+	public void reset() {
+		endpoints.clear();
+	}
+
+	/**
+	 * Compact text dump, one line per endpoint, slowest total time first, e.g.
+	 * <pre>
+	 * PUT /api/%s/objects/documents/versions/batch calls=3 total=2140ms p50<=1000ms p99<=2500ms max=1210ms retries=1 http=503:1 errors=RACE_CONDITION:1
+	 * </pre>
+	 * Percentiles are the upper bound of the histogram bucket they fall in.
+	 */
+	public String dump() {
+		List<String> endpointList = VaultCollections.newList();
+		endpointList.addAll(endpoints.keySet());
+		endpointList.sort((first, second) -> Long.compare(
+				endpoints.get(second).getTotalMillis(), endpoints.get(first).getTotalMillis()));
+
+		StringBuilder dump = new StringBuilder();
+		for (String endpoint : endpointList) {
+			VpsEndpointMetrics metrics = endpoints.get(endpoint);
+			if (dump.length() > 0) {
+				dump.append('\n');
+			}
+			dump.append(endpoint)
+					.append(" calls=").append(metrics.getCalls())
+					.append(" total=").append(metrics.getTotalMillis()).append("ms")
+					.append(" p50<=").append(metrics.getPercentileMillis(0.5)).append("ms")
+					.append(" p99<=").append(metrics.getPercentileMillis(0.99)).append("ms")
+					.append(" max=").append(metrics.getMaxMillis()).append("ms")
+					.append(" retries=").append(metrics.getRetries());
+			appendCounts(dump, " http=", metrics.getHttpErrors());
+			appendCounts(dump, " errors=", metrics.getApplicationErrors());
+		}
+		return dump.toString();
+	}
+
+	private VpsEndpointMetrics getOrCreate(String endpoint) {
+		VpsEndpointMetrics metrics = endpoints.get(endpoint);
+		if (metrics == null) {
+			metrics = new VpsEndpointMetrics();
+			endpoints.put(endpoint, metrics);
+		}
+		return metrics;
+	}
+
+	private static int getBucket(long latencyMillis) {
+		for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+			if (latencyMillis <= BUCKET_BOUNDS_MILLIS[i]) {
+				return i;
+			}
+		}
+		return BUCKET_BOUNDS_MILLIS.length;
+	}
+
+	private static void increment(Map<String, Integer> counts, String key) {
+		Integer count = counts.get(key);
+		counts.put(key, count == null ? 1 : count + 1);
+	}
+
+	private static void appendCounts(StringBuilder dump, String label, Map<String, Integer> counts) {
+		if (counts.isEmpty()) {
+			return;
+		}
+		dump.append(label);
+		boolean first = true;
+		for (String key : counts.keySet()) {
+			if (!first) {
+				dump.append(',');
+			}
+			dump.append(key).append(':').append(counts.get(key));
+			first = false;
+		}
+	}
+
+	/**
+	 * Metrics of a single endpoint template
+	 */
+	public static class VpsEndpointMetrics {
+
+		private int calls = 0;
+		private int retries = 0;
+		private long totalMillis = 0;
+		private long maxMillis = 0;
+		private int[] bucketCounts = new int[BUCKET_BOUNDS_MILLIS.length + 1];
+		private Map<String, Integer> httpErrors = VaultCollections.newMap();
+		private Map<String, Integer> applicationErrors = VaultCollections.newMap();
+
+		public int getCalls() {
+			return calls;
+		}
+
+		public int getRetries() {
+			return retries;
+		}
+
+		public long getTotalMillis() {
+			return totalMillis;
+		}
+
+		public long getMaxMillis() {
+			return maxMillis;
+		}
+
+		/**
+		 * @return failed calls by HTTP status code
+		 */
+		public Map<String, Integer> getHttpErrors() {
+			return httpErrors;
+		}
+
+		/**
+		 * @return failed calls by error type of the first error
+		 */
+		public Map<String, Integer> getApplicationErrors() {
+			return applicationErrors;
+		}
+
+		/**
+		 * @return upper bound of the histogram bucket holding the percentile, capped at the max latency
+		 */
+		public long getPercentileMillis(double percentile) {
+			if (calls == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(percentile * calls);
+			long seen = 0;
+			for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+				seen += bucketCounts[i];
+				if (seen >= rank) {
+					return Math.min(BUCKET_BOUNDS_MILLIS[i], maxMillis);
+				}
+			}
+			return maxMillis;
+		}
+	}
+}
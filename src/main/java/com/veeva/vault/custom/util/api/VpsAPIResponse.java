@@ -31,29 +31,54 @@ public class VpsAPIResponse {
 	private static final String APIFIELD_RESPONSE_MESSAGE = "responseMessage";
 	private static final String APIFIELD_RESPONSE_STATUS = "responseStatus";
 
-	private JsonService jsonService = ServiceLocator.locate(JsonService.class);
+	private JsonService jsonService = null;
+	//only one representation is held at a time: the raw string until the tree is needed, then the tree
 	private JsonObject rootJson = null;
 	private String rawJson = null;
+	//getErrors is read by every check of a response; the array is looked up once
+	private JsonArray errors = null;
+	private boolean errorsRead = false;
 
 	public VpsAPIResponse(JsonObject jsonResponse) {
 		super();
 
 		rootJson = jsonResponse;
-		if (rootJson != null) {
-			rawJson = rootJson.asString();
-		}
 	}
 
+	/**
+	 * The body is parsed on first access to the tree. getResponseStatus and getErrors
+	 * read their values straight from the string and never trigger the full parse.
+	 */
 	public VpsAPIResponse(String jsonResponse) {
 		super();
 
 		rawJson = jsonResponse;
-		if (rawJson != null) {
-			rootJson = jsonService.readJson(jsonResponse).getJsonObject();
-		}
+	}
+
+	/**
+	 * Sets the service the body is parsed with; ServiceLocator's JsonService unless one is set
+	 */
+	public void setJsonService(JsonService jsonService) {
+		this.jsonService = jsonService;
 	}
 
 	public JsonArray getErrors() {
+		if (!errorsRead) {
+			errors = readErrors();
+			errorsRead = true;
+		}
+		return errors;
+	}
+
+	private JsonArray readErrors() {
+		if (rootJson == null && rawJson != null) {
+			int valueStart = findTopLevelValue(APIFIELD_ERRORS);
+			if (valueStart < 0 || rawJson.charAt(valueStart) != '[') {
+				return null;
+			}
+			String errorsJson = rawJson.substring(valueStart, findValueEnd(valueStart));
+			return getJsonService().readJson(errorsJson).getJsonArray();
+		}
 		return getArray(APIFIELD_ERRORS);
 	}
 
@@ -66,14 +91,26 @@ public class VpsAPIResponse {
 	}
 
 	public String getResponseStatus() {
+		if (rootJson == null && rawJson != null) {
+			int valueStart = findTopLevelValue(APIFIELD_RESPONSE_STATUS);
+			if (valueStart < 0 || rawJson.charAt(valueStart) != '"') {
+				return null;
+			}
+			int valueEnd = findStringEnd(valueStart);
+			//plain status values have no escapes; anything else goes through the parser
+			if (!containsEscape(valueStart + 1, valueEnd)) {
+				return rawJson.substring(valueStart + 1, valueEnd);
+			}
+		}
 		return getString(APIFIELD_RESPONSE_STATUS);
 	}
 
 	public JsonArray getArray(String key) {
 		JsonArray result = null;
-		if (rootJson != null) {
-			if (rootJson.contains(key)) {
-				result = rootJson.getValue(key, JsonValueType.ARRAY);
+		JsonObject json = getRootJson();
+		if (json != null) {
+			if (json.contains(key)) {
+				result = json.getValue(key, JsonValueType.ARRAY);
 			}
 		}
 		return result;
@@ -81,23 +118,35 @@ public class VpsAPIResponse {
 
 	public Boolean getBoolean(String key) {
 		Boolean result = null;
-		if (rootJson != null) {
-			if (rootJson.contains(key)) {
-				result = rootJson.getValue(key, JsonValueType.BOOLEAN);
+		JsonObject json = getRootJson();
+		if (json != null) {
+			if (json.contains(key)) {
+				result = json.getValue(key, JsonValueType.BOOLEAN);
 			}
 		}
 		return result;
 	}
 
 	public JsonObject getJson() {
-		return rootJson;
+		return getRootJson();
+	}
+
+	/**
+	 * @return the response as a string; serialized from the tree when the body has already been parsed
+	 */
+	public String getRawJson() {
+		if (rawJson == null && rootJson != null) {
+			return rootJson.asString();
+		}
+		return rawJson;
 	}
 
 	public BigDecimal getNumber(String key) {
 		BigDecimal result = null;
-		if (rootJson != null) {
-			if (rootJson.contains(key)) {
-				result = rootJson.getValue(key, JsonValueType.NUMBER);
+		JsonObject json = getRootJson();
+		if (json != null) {
+			if (json.contains(key)) {
+				result = json.getValue(key, JsonValueType.NUMBER);
 			}
 		}
 		return result;
@@ -105,9 +154,10 @@ public class VpsAPIResponse {
 
 	public JsonObject getObject(String key) {
 		JsonObject result = null;
-		if (rootJson != null) {
-			if (rootJson.contains(key)) {
-				result = rootJson.getValue(key, JsonValueType.OBJECT);
+		JsonObject json = getRootJson();
+		if (json != null) {
+			if (json.contains(key)) {
+				result = json.getValue(key, JsonValueType.OBJECT);
 			}
 		}
 		return result;
@@ -116,15 +166,118 @@ public class VpsAPIResponse {
 
 	public String getString(String key) {
 		String result = null;
-		if (rootJson != null) {
-			if (rootJson.contains(key)) {
-				result = rootJson.getValue(key, JsonValueType.STRING);
+		JsonObject json = getRootJson();
+		if (json != null) {
+			if (json.contains(key)) {
+				result = json.getValue(key, JsonValueType.STRING);
 			}
 		}
 		return result;
 	}
 
 	public String toString() {
-		return rootJson.toString();
+		return getRawJson();
+	}
+
+	/**
+	 * Parses the raw string on first use and releases it
+	 */
+	private JsonObject getRootJson() {
+		if (rootJson == null && rawJson != null) {
+			rootJson = getJsonService().readJson(rawJson).getJsonObject();
+			rawJson = null;
+		}
+		return rootJson;
+	}
+
+	private JsonService getJsonService() {
+		if (jsonService == null) {
+			jsonService = ServiceLocator.locate(JsonService.class);
+		}
+		return jsonService;
+	}
+
+	/**
+	 * Scans the raw string for a key of the root object, skipping nested objects, arrays and strings
+	 *
+	 * @return index of the first character of the key's value, -1 if the root has no such key
+	 */
+	private int findTopLevelValue(String key) {
+		int depth = 0;
+		for (int i = 0; i < rawJson.length(); i++) {
+			char c = rawJson.charAt(i);
+			if (c == '"') {
+				int end = findStringEnd(i);
+				if (depth == 1 && end - i - 1 == key.length() && rawJson.regionMatches(i + 1, key, 0, key.length())) {
+					int colon = skipWhitespace(end + 1);
+					if (colon < rawJson.length() && rawJson.charAt(colon) == ':') {
+						return skipWhitespace(colon + 1);
+					}
+				}
+				i = end;
+			} else if (c == '{' || c == '[') {
+				depth++;
+			} else if (c == '}' || c == ']') {
+				depth--;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return whether rawJson has a backslash in [start, end)
+	 */
+	private boolean containsEscape(int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (rawJson.charAt(i) == '\\') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param start index of an opening quote
+	 * @return index of the matching closing quote
+	 */
+	private int findStringEnd(int start) {
+		int i = start + 1;
+		while (i < rawJson.length() && rawJson.charAt(i) != '"') {
+			if (rawJson.charAt(i) == '\\') {
+				i++;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @param start index of an opening bracket or brace
+	 * @return index just past the matching closing bracket or brace
+	 */
+	private int findValueEnd(int start) {
+		int depth = 0;
+		for (int i = start; i < rawJson.length(); i++) {
+			char c = rawJson.charAt(i);
+			if (c == '"') {
+				i = findStringEnd(i);
+			} else if (c == '{' || c == '[') {
+				depth++;
+			} else if (c == '}' || c == ']') {
+				depth--;
+				if (depth == 0) {
+					return i + 1;
+				}
+			}
+		}
+		return rawJson.length();
+	}
+
+	private int skipWhitespace(int start) {
+		int i = start;
+		while (i < rawJson.length() && Character.isWhitespace(rawJson.charAt(i))) {
+			i++;
+		}
+		return i;
 	}
 }
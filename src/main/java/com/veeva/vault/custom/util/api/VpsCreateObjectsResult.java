@@ -0,0 +1,70 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsCreateObjectsResult
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Per row outcome of VpsAPIClient.createObjects
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util.api;
+
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+
+import java.util.List;
+import java.util.Map;
+
+@UserDefinedClassInfo
+public class VpsCreateObjectsResult {
+
+	private List<String> ids = VaultCollections.newList();
+	private Map<Integer, String> errors = VaultCollections.newMap();
+
+	public VpsCreateObjectsResult(int rowCount) {
+		super();
+
+		for (int i = 0; i < rowCount; i++) {
+			ids.add(null);
+		}
+	}
+
+	/**
+	 * @return created record ids in input order; null for rows that failed
+	 */
+	public List<String> getIds() {
+		return ids;
+	}
+
+	public String getId(int row) {
+		return ids.get(row);
+	}
+
+	/**
+	 * @return error of each failed row by input row index, e.g. INVALID_DATA - Missing required field
+	 */
+	public Map<Integer, String> getErrors() {
+		return errors;
+	}
+
+	public boolean isSuccess() {
+		return errors.isEmpty();
+	}
+
+	public int getCreatedCount() {
+		return ids.size() - errors.size();
+	}
+
+	void setId(int row, String id) {
+		ids.set(row, id);
+	}
+
+	void setError(int row, String error) {
+		errors.put(row, error);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsHttpRequest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Transport independent HTTP request built by
+ *              VpsAPIClient and sent by a VpsHttpTransport
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util.api;
+
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.http.HttpMethod;
+
+import java.util.Map;
+
+@UserDefinedClassInfo
+public class VpsHttpRequest {
+
+	private HttpMethod method = HttpMethod.GET;
+	private StringBuilder path = new StringBuilder();
+	private Map<String, String> headers = VaultCollections.newMap();
+	private Map<String, String> querystringParams = VaultCollections.newMap();
+	private Map<String, String> bodyParams = VaultCollections.newMap();
+	private String body = null;
+	private Boolean idempotent = null;
+
+	/**
+	 * Same fluent methods as the SDK HttpRequest, so the request reads the same whichever transport sends it
+	 */
+	public VpsHttpRequest() {
+		super();
+	}
+
+	public VpsHttpRequest setMethod(HttpMethod method) {
+		this.method = method;
+		return this;
+	}
+
+	public VpsHttpRequest appendPath(String pathSegment) {
+		path.append(pathSegment);
+		return this;
+	}
+
+	public VpsHttpRequest setHeader(String name, String value) {
+		headers.put(name, value);
+		return this;
+	}
+
+	public VpsHttpRequest setQuerystringParam(String name, String value) {
+		querystringParams.put(name, value);
+		return this;
+	}
+
+	/**
+	 * Form encoded body parameter; ignored by transports when a raw body is set
+	 */
+	public VpsHttpRequest setBodyParam(String name, String value) {
+		bodyParams.put(name, value);
+		return this;
+	}
+
+	public VpsHttpRequest setBody(String body) {
+		this.body = body;
+		return this;
+	}
+
+	/**
+	 * Marks a request whose method alone does not tell, e.g. the POST of a query
+	 */
+	public VpsHttpRequest setIdempotent(boolean idempotent) {
+		this.idempotent = idempotent;
+		return this;
+	}
+
+	/**
+	 * @return true if sending the request again cannot apply its change twice; by default
+	 * every method but POST
+	 */
+	public boolean isIdempotent() {
+		return idempotent != null ? idempotent : method != HttpMethod.POST;
+	}
+
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return path relative to the vault, e.g. /api/v19.1/query
+	 */
+	public String getPath() {
+		return path.toString();
+	}
+
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	public Map<String, String> getQuerystringParams() {
+		return querystringParams;
+	}
+
+	public Map<String, String> getBodyParams() {
+		return bodyParams;
+	}
+
+	/**
+	 * @return raw body; null when the body is form encoded from the body parameters
+	 */
+	public String getBody() {
+		return body;
+	}
+}
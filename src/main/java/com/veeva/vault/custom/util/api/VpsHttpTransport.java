@@ -0,0 +1,112 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsHttpTransport
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Sends the requests of VpsAPIClient; VpsSdkHttpTransport
+ *              inside Vault, other implementations outside it
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util.api;
+
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+
+@UserDefinedClassInfo
+public interface VpsHttpTransport {
+
+	/**
+	 * Sends the request once. Retries, logging and metrics are left to VpsAPIClient.
+	 *
+	 * @return status code and body; a status code outside 200 - 299 is an HTTP level failure
+	 */
+	VpsHttpResponse send(VpsHttpRequest request);
+
+	/**
+	 * Starts sending the request and returns without waiting for the response where the
+	 * transport supports it. The default sends synchronously, so on the SDK transport
+	 * asynchronous calls run one after another.
+	 */
+	default VpsHttpCall sendAsync(VpsHttpRequest request) {
+		return new VpsCompletedCall(send(request));
+	}
+
+	/**
+	 * Waits before VpsAPIClient sends a retry. The default cannot wait: the SDK has no
+	 * sleep, and polling the clock would burn the execution's CPU time. VpsAPIClient then
+	 * ends the call without retrying and reports the retry as deferred, for the caller to
+	 * run the work again later, e.g. from a new queue message.
+	 *
+	 * @param millis backoff delay chosen by the retry policy
+	 * @return true if the transport waited and the retry can be sent now
+	 */
+	default boolean delay(long millis) {
+		return false;
+	}
+
+	/**
+	 * Handle of a request started by sendAsync
+	 */
+	interface VpsHttpCall {
+
+		boolean isDone();
+
+		/**
+		 * Waits for the response if it has not arrived yet
+		 */
+		VpsHttpResponse getResponse();
+	}
+
+	/**
+	 * Call whose response is already known
+	 */
+	class VpsCompletedCall implements VpsHttpCall {
+
+		private final VpsHttpResponse response;
+
+		public VpsCompletedCall(VpsHttpResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public boolean isDone() {
+			return true;
+		}
+
+		@Override
+		public VpsHttpResponse getResponse() {
+			return response;
+		}
+	}
+
+	/**
+	 * Status code and body of one HTTP exchange
+	 */
+	class VpsHttpResponse {
+
+		private final int httpStatusCode;
+		private final String responseBody;
+
+		public VpsHttpResponse(int httpStatusCode, String responseBody) {
+			this.httpStatusCode = httpStatusCode;
+			this.responseBody = responseBody;
+		}
+
+		public int getHttpStatusCode() {
+			return httpStatusCode;
+		}
+
+		public String getResponseBody() {
+			return responseBody;
+		}
+
+		public boolean isSuccess() {
+			return httpStatusCode >= 200 && httpStatusCode < 300;
+		}
+	}
+}
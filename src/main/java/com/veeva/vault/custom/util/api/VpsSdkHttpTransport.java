@@ -0,0 +1,90 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsSdkHttpTransport
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: VpsHttpTransport over the SDK HttpService and a Vault
+ *              connection
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util.api;
+
+import com.veeva.vault.custom.util.VpsSdkServiceLocator;
+import com.veeva.vault.custom.util.VpsServiceLocator;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.core.VaultCollections;
+import com.veeva.vault.sdk.api.http.HttpRequest;
+import com.veeva.vault.sdk.api.http.HttpResponseBodyValueType;
+import com.veeva.vault.sdk.api.http.HttpService;
+
+import java.util.List;
+
+@UserDefinedClassInfo
+public class VpsSdkHttpTransport implements VpsHttpTransport {
+
+	private String apiConnection;
+	private HttpService httpService;
+	private VpsServiceLocator serviceLocator;
+
+	/**
+	 * @param apiConnection Vault connection the requests are sent through, e.g. local_http_callout_connection
+	 */
+	public VpsSdkHttpTransport(String apiConnection) {
+		super();
+		this.apiConnection = apiConnection;
+	}
+
+	@Override
+	public VpsHttpResponse send(VpsHttpRequest vpsHttpRequest) {
+		if (httpService == null) {
+			if (serviceLocator == null) {
+				serviceLocator = new VpsSdkServiceLocator();
+			}
+			httpService = serviceLocator.locate(HttpService.class);
+		}
+		HttpRequest request = httpService.newHttpRequest(apiConnection)
+				.setMethod(vpsHttpRequest.getMethod())
+				.appendPath(vpsHttpRequest.getPath());
+		for (String name : vpsHttpRequest.getHeaders().keySet()) {
+			request.setHeader(name, vpsHttpRequest.getHeaders().get(name));
+		}
+		for (String name : vpsHttpRequest.getQuerystringParams().keySet()) {
+			request.setQuerystringParam(name, vpsHttpRequest.getQuerystringParams().get(name));
+		}
+		if (vpsHttpRequest.getBody() != null) {
+			request.setBody(vpsHttpRequest.getBody());
+		} else {
+			for (String name : vpsHttpRequest.getBodyParams().keySet()) {
+				request.setBodyParam(name, vpsHttpRequest.getBodyParams().get(name));
+			}
+		}
+
+		//note: using lists because lambda expressions require final variables
+		List<VpsHttpResponse> responseList = VaultCollections.newList();
+		httpService.send(request, HttpResponseBodyValueType.STRING)
+				.onError(response -> responseList.add(new VpsHttpResponse(
+						response.getHttpResponse().getHttpStatusCode(), response.getHttpResponse().getResponseBody())))
+				.onSuccess(response -> responseList.add(new VpsHttpResponse(
+						response.getHttpStatusCode(), response.getResponseBody())))
+				.execute();
+		return responseList.get(0);
+	}
+
+	public String getApiConnection() {
+		return apiConnection;
+	}
+
+	/**
+	 * Replaces the locator the HttpService comes from; ServiceLocator unless one is set
+	 */
+	public void setServiceLocator(VpsServiceLocator serviceLocator) {
+		this.serviceLocator = serviceLocator;
+		this.httpService = null;
+	}
+}
@@ -25,6 +25,7 @@ import java.math.BigDecimal;
 public class VpsVQLResponse extends VpsAPIResponse {
 
 	private static final String APIFIELD_DATA = "data";
+	private static final String APIFIELD_NEXT_PAGE = "next_page";
 	private static final String APIFIELD_TOTAL = "total";
 
 	public VpsVQLResponse(JsonObject jsonResponse) {
@@ -49,4 +50,18 @@ public class VpsVQLResponse extends VpsAPIResponse {
 	public JsonArray getData() {
 		return getArray(APIFIELD_DATA);
 	}
+
+	/**
+	 * @return url of the following page of results, null on the last page
+	 */
+	public String getNextPage() {
+		String result = null;
+		JsonObject responseDetails = getResponseDetails();
+		if (responseDetails != null) {
+			if (responseDetails.contains(APIFIELD_NEXT_PAGE)) {
+				result = responseDetails.getValue(APIFIELD_NEXT_PAGE, JsonValueType.STRING);
+			}
+		}
+		return result;
+	}
 }
@@ -0,0 +1,91 @@
+/*
+ * --------------------------------------------------------------------
+ * UDC:         VpsVQLResultIterator
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Iterates over every page of a VQL api response
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util.api;
+
+import com.veeva.vault.sdk.api.core.RollbackException;
+import com.veeva.vault.sdk.api.core.UserDefinedClassInfo;
+import com.veeva.vault.sdk.api.json.JsonArray;
+import com.veeva.vault.sdk.api.json.JsonObject;
+import com.veeva.vault.sdk.api.json.JsonValueType;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@UserDefinedClassInfo()
+public class VpsVQLResultIterator implements Iterator<JsonObject> {
+
+	private static final String RESPONSESTATUS_SUCCESS = "SUCCESS";
+
+	private VpsAPIClient apiClient;
+	private JsonArray page = null;
+	private String nextPage = null;
+	private int pageIndex = 0;
+	private int pageCount = 0;
+
+	/**
+	 * Pages are fetched lazily through apiClient.runVQLNextPage. A page is released
+	 * as soon as its last row is returned, so memory stays at one page regardless of
+	 * the total result size. A page that cannot be fetched throws a RollbackException
+	 * rather than ending the iteration, so a failed query is never read as a short result.
+	 *
+	 * @param apiClient client used to fetch the following pages
+	 * @param firstPage response of the initial query; null if it failed at HTTP level
+	 */
+	public VpsVQLResultIterator(VpsAPIClient apiClient, VpsVQLResponse firstPage) {
+		this.apiClient = apiClient;
+		setPage(firstPage);
+	}
+
+	@Override
+	public boolean hasNext() {
+		while ((page == null || pageIndex >= page.getSize()) && nextPage != null) {
+			String pageUrl = nextPage;
+			//release the consumed page before fetching the next one
+			page = null;
+			nextPage = null;
+			setPage(apiClient.runVQLNextPage(pageUrl));
+		}
+		return page != null && pageIndex < page.getSize();
+	}
+
+	@Override
+	public JsonObject next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return page.getValue(pageIndex++, JsonValueType.OBJECT);
+	}
+
+	/**
+	 * @return number of pages fetched so far, including the first
+	 */
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	private void setPage(VpsVQLResponse response) {
+		pageIndex = 0;
+		if (response == null || !RESPONSESTATUS_SUCCESS.equals(response.getResponseStatus())) {
+			List<String> errorList = apiClient.getErrorList();
+			String errMsg = !errorList.isEmpty() ? errorList.get(errorList.size() - 1)
+					: response != null ? response.getRawJson() : "no response";
+			throw new RollbackException("OPERATION_NOT_ALLOWED", "VQL page " + (pageCount + 1) + " could not be read: " + errMsg);
+		}
+		page = response.getData();
+		nextPage = response.getNextPage();
+		pageCount++;
+	}
+}
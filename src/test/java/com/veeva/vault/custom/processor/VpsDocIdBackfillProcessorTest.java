@@ -0,0 +1,87 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsDocIdBackfillProcessorTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Checkpoint and ID reuse decisions of the Document ID
+ *              backfill
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.processor;
+
+import com.veeva.vault.custom.util.VpsAssignmentJournal;
+import com.veeva.vault.custom.util.VpsAssignmentJournal.VpsJournalEntry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VpsDocIdBackfillProcessorTest {
+
+    private static final List<String> DOC_IDS = Arrays.asList("10", "11", "12", "13");
+
+    @Test
+    public void finishesABatchWithoutFailures() {
+        List<String> givenUp = new ArrayList<>();
+        assertEquals(4, VpsDocIdBackfillProcessor.countFinished(DOC_IDS, set(), set(), givenUp));
+        assertTrue(givenUp.isEmpty());
+    }
+
+    @Test
+    public void stopsAtTheFirstDocumentFailingForTheFirstTime() {
+        List<String> givenUp = new ArrayList<>();
+        assertEquals(2, VpsDocIdBackfillProcessor.countFinished(DOC_IDS, set("12", "13"), set("12", "13"), givenUp));
+        assertTrue(givenUp.isEmpty());
+    }
+
+    @Test
+    public void stopsBeforeTheFirstDocument() {
+        List<String> givenUp = new ArrayList<>();
+        assertEquals(0, VpsDocIdBackfillProcessor.countFinished(DOC_IDS, set("10"), set("10"), givenUp));
+    }
+
+    @Test
+    public void givesUpOnDocumentsThatFailedAgain() {
+        List<String> givenUp = new ArrayList<>();
+        assertEquals(4, VpsDocIdBackfillProcessor.countFinished(DOC_IDS, set("11", "13"), set(), givenUp));
+        assertEquals(Arrays.asList("11", "13"), givenUp);
+    }
+
+    @Test
+    public void givesUpOnlyOnRepeatFailuresBeforeTheFirstNewOne() {
+        List<String> givenUp = new ArrayList<>();
+        assertEquals(2, VpsDocIdBackfillProcessor.countFinished(DOC_IDS, set("10", "12", "13"), set("12"), givenUp));
+        assertEquals(Collections.singletonList("10"), givenUp);
+    }
+
+    @Test
+    public void journaledIdsAreKeyedByDocument() {
+        List<VpsJournalEntry> entries = Arrays.asList(
+                new VpsJournalEntry("10", "0", "1", "00002", VpsAssignmentJournal.STATUS_PENDING),
+                new VpsJournalEntry("10", "1", "0", "00002", VpsAssignmentJournal.STATUS_FAILED),
+                new VpsJournalEntry("11", "0", "1", "00003", VpsAssignmentJournal.STATUS_SUCCESS));
+        Map<String, String> journaledIds = VpsDocIdBackfillProcessor.getJournaledIds(entries);
+        assertEquals(2, journaledIds.size());
+        assertEquals("00002", journaledIds.get("10"));
+        assertEquals("00003", journaledIds.get("11"));
+        assertTrue(VpsDocIdBackfillProcessor.getJournaledIds(new ArrayList<>()).isEmpty());
+    }
+
+    private static Set<String> set(String... docIds) {
+        return new HashSet<>(Arrays.asList(docIds));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsAssignmentJournalTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Entry encoding and replay of VpsAssignmentJournal
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.custom.util.VpsAssignmentJournal.VpsJournalEntry;
+import com.veeva.vault.sdk.api.core.RollbackException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VpsAssignmentJournalTest {
+
+	@Test
+	public void encodesFixedWidthEntries() {
+		StringBuilder recordEntries = new StringBuilder();
+		VpsAssignmentJournal.encode(recordEntries, "101", "0", "1", "00Z2", VpsAssignmentJournal.STATUS_PENDING);
+		assertEquals(VpsAssignmentJournal.ENTRY_WIDTH, recordEntries.length());
+		assertEquals("       101    0    1   00Z2P", recordEntries.toString());
+	}
+
+	@Test
+	public void decodesWhatItEncodes() {
+		StringBuilder recordEntries = new StringBuilder();
+		VpsAssignmentJournal.encode(recordEntries, "101", "0", "1", "0002", VpsAssignmentJournal.STATUS_PENDING);
+		VpsAssignmentJournal.encode(recordEntries, "2147483647", "99999", "12", "ZZZZZZZ", VpsAssignmentJournal.STATUS_SUCCESS);
+
+		VpsJournalEntry first = VpsAssignmentJournal.decode(recordEntries.toString(), 0);
+		assertEntry(first, "101", "0", "1", "0002", VpsAssignmentJournal.STATUS_PENDING);
+		assertEquals("101_0_1", first.getVersionKey());
+
+		VpsJournalEntry second = VpsAssignmentJournal.decode(recordEntries.toString(), VpsAssignmentJournal.ENTRY_WIDTH);
+		assertEntry(second, "2147483647", "99999", "12", "ZZZZZZZ", VpsAssignmentJournal.STATUS_SUCCESS);
+	}
+
+	@Test(expected = RollbackException.class)
+	public void rejectsValuesWiderThanTheirColumn() {
+		VpsAssignmentJournal.encode(new StringBuilder(), "101", "100000", "0", "0002", VpsAssignmentJournal.STATUS_PENDING);
+	}
+
+	@Test
+	public void replaysTheLatestEntryPerVersion() {
+		VpsTestServices services = journalRecords(
+				entries("101", "0", "1", "0002", VpsAssignmentJournal.STATUS_PENDING,
+						"101", "1", "0", "0002", VpsAssignmentJournal.STATUS_PENDING,
+						"102", "0", "1", "0003", VpsAssignmentJournal.STATUS_PENDING),
+				null,
+				entries("101", "0", "1", "0002", VpsAssignmentJournal.STATUS_SUCCESS,
+						"101", "1", "0", "0002", VpsAssignmentJournal.STATUS_FAILED)
+						//a truncated entry is ignored
+						+ "     103"
+		);
+		VpsAssignmentJournal journal = new VpsAssignmentJournal("doc_id_backfill");
+		journal.setServiceLocator(services);
+
+		Map<String, VpsJournalEntry> entries = journal.replay();
+		assertEquals(3, entries.size());
+		assertEquals(VpsAssignmentJournal.STATUS_SUCCESS, entries.get("101_0_1").getStatus());
+		assertEquals(VpsAssignmentJournal.STATUS_FAILED, entries.get("101_1_0").getStatus());
+		assertEquals(VpsAssignmentJournal.STATUS_PENDING, entries.get("102_0_1").getStatus());
+		assertTrue(services.getQueries().get(0).contains("run__c = 'doc_id_backfill'"));
+
+		List<VpsJournalEntry> unfinished = journal.getUnfinished();
+		assertEquals(2, unfinished.size());
+		assertEquals(new HashSet<>(Arrays.asList("101_1_0", "102_0_1")),
+				new HashSet<>(Arrays.asList(unfinished.get(0).getVersionKey(), unfinished.get(1).getVersionKey())));
+	}
+
+	@Test
+	public void replaysOnlyTheGivenDocuments() {
+		VpsTestServices services = journalRecords(
+				entries("101", "0", "1", "0002", VpsAssignmentJournal.STATUS_FAILED,
+						"102", "0", "1", "0003", VpsAssignmentJournal.STATUS_PENDING));
+		VpsAssignmentJournal journal = new VpsAssignmentJournal("doc_id_backfill");
+		journal.setServiceLocator(services);
+
+		Map<String, VpsJournalEntry> entries = journal.replay(Collections.singleton("102"));
+		assertEquals(1, entries.size());
+		assertEntry(entries.get("102_0_1"), "102", "0", "1", "0003", VpsAssignmentJournal.STATUS_PENDING);
+	}
+
+	@Test(expected = RollbackException.class)
+	public void aReplayOnlyJournalCannotFlush() {
+		VpsAssignmentJournal journal = new VpsAssignmentJournal("doc_id_backfill");
+		journal.append("101", "0", "1", "0002", VpsAssignmentJournal.STATUS_PENDING);
+		journal.flush();
+	}
+
+	/**
+	 * @param recordEntries entries__c of each journal record, in sequence order
+	 */
+	private static VpsTestServices journalRecords(String... recordEntries) {
+		return new VpsTestServices().setQueryRows(vql -> {
+			List<Map<String, Object>> rows = new ArrayList<>();
+			for (int i = 0; i < recordEntries.length; i++) {
+				rows.add(VpsTestServices.row("sequence__c", Integer.toString(i), "entries__c", recordEntries[i]));
+			}
+			return rows;
+		});
+	}
+
+	/**
+	 * @param fields docId, major, minor, base30 ID and status of each entry
+	 */
+	private static String entries(Object... fields) {
+		StringBuilder recordEntries = new StringBuilder();
+		for (int i = 0; i < fields.length; i += 5) {
+			VpsAssignmentJournal.encode(recordEntries, (String) fields[i], (String) fields[i + 1],
+					(String) fields[i + 2], (String) fields[i + 3], (Character) fields[i + 4]);
+		}
+		return recordEntries.toString();
+	}
+
+	private static void assertEntry(VpsJournalEntry entry, String docId, String majorVersion, String minorVersion,
+									String base30Id, char status) {
+		assertEquals(docId, entry.getDocId());
+		assertEquals(majorVersion, entry.getMajorVersion());
+		assertEquals(minorVersion, entry.getMinorVersion());
+		assertEquals(base30Id, entry.getBase30Id());
+		assertEquals(status, entry.getStatus());
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsIdBitmapTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Issued values, duplicates and gaps of VpsIdBitmap
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VpsIdBitmapTest {
+
+	//values per chunk of the bitmap
+	private static final int CHUNK = 1 << 16;
+
+	@Test
+	public void tracksIssuedValuesAndDuplicates() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(1000);
+		assertTrue(bitmap.add(5));
+		assertTrue(bitmap.add(63));
+		assertTrue(bitmap.add(64));
+		assertFalse(bitmap.add(5));
+
+		assertTrue(bitmap.contains(5));
+		assertTrue(bitmap.contains(64));
+		assertFalse(bitmap.contains(6));
+		assertEquals(3, bitmap.getCardinality());
+		assertEquals(1, bitmap.getDuplicateCount());
+		assertEquals(Arrays.asList(5), bitmap.getDuplicates());
+	}
+
+	@Test
+	public void rejectsValuesOutOfRange() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(1000);
+		assertFalse(bitmap.add(-1));
+		assertFalse(bitmap.add(1001));
+		assertTrue(bitmap.add(1000));
+		assertFalse(bitmap.contains(-1));
+		assertFalse(bitmap.contains(1001));
+		assertEquals(2, bitmap.getInvalidCount());
+	}
+
+	@Test
+	public void decodesBase30Ids() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(1000);
+		assertTrue(bitmap.addBase30("00020"));
+		assertFalse(bitmap.addBase30("20"));
+		assertFalse(bitmap.addBase30("1A"));
+		assertTrue(bitmap.contains(30));
+		assertEquals(1, bitmap.getDuplicateCount());
+		assertEquals(1, bitmap.getInvalidCount());
+		assertEquals(3, bitmap.load(Arrays.asList("2", null, "3").iterator()));
+		assertEquals(3, bitmap.getCardinality());
+	}
+
+	@Test
+	public void findsTheNextIssuedAndUnissuedValues() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(3 * CHUNK);
+		for (int value = 10; value < 200; value++) {
+			bitmap.add(value);
+		}
+		bitmap.add(2 * CHUNK + 7);
+
+		assertEquals(10, bitmap.nextIssued(0));
+		assertEquals(150, bitmap.nextIssued(150));
+		assertEquals(2 * CHUNK + 7, bitmap.nextIssued(200));
+		assertEquals(-1, bitmap.nextIssued(2 * CHUNK + 8));
+
+		assertEquals(0, bitmap.nextUnissued(0));
+		assertEquals(200, bitmap.nextUnissued(10));
+		assertEquals(2 * CHUNK + 8, bitmap.nextUnissued(2 * CHUNK + 7));
+		assertEquals(CHUNK + 5, bitmap.nextUnissued(CHUNK + 5));
+	}
+
+	@Test
+	public void reportsNoUnissuedValueWhenFull() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(129);
+		for (int value = 0; value <= 129; value++) {
+			bitmap.add(value);
+		}
+		assertEquals(-1, bitmap.nextUnissued(0));
+		assertEquals(0, bitmap.getGaps(0, 129, 10).size());
+	}
+
+	@Test
+	public void listsGapsAcrossWordsAndChunks() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(2 * CHUNK);
+		for (int value = 0; value <= 2 * CHUNK; value++) {
+			if (value != 3 && (value < 60 || value > 70) && value != CHUNK - 1 && value != CHUNK) {
+				bitmap.add(value);
+			}
+		}
+		assertGaps(bitmap.getGaps(0, 2 * CHUNK, 10), 3, 3, 60, 70, CHUNK - 1, CHUNK);
+	}
+
+	@Test
+	public void clipsGapsToTheRangeAndMaxValue() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(1000);
+		bitmap.add(100);
+		bitmap.add(200);
+		assertGaps(bitmap.getGaps(50, 150, 10), 50, 99, 101, 150);
+		assertGaps(bitmap.getGaps(150, 5000, 10), 150, 199, 201, 1000);
+		assertGaps(bitmap.getGaps(-10, 99, 10), 0, 99);
+	}
+
+	@Test
+	public void stopsAfterMaxGaps() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(100);
+		for (int value = 0; value <= 100; value += 2) {
+			bitmap.add(value);
+		}
+		assertGaps(bitmap.getGaps(0, 100, 3), 1, 1, 3, 3, 5, 5);
+	}
+
+	@Test
+	public void allocatesOnlyTheChunksInUse() {
+		VpsIdBitmap bitmap = new VpsIdBitmap(100 * CHUNK);
+		long empty = bitmap.getMemoryBytes();
+		bitmap.add(1);
+		bitmap.add(2);
+		bitmap.add(50 * CHUNK);
+		assertEquals(empty + 2 * CHUNK / 8, bitmap.getMemoryBytes());
+	}
+
+	private static void assertGaps(List<int[]> gaps, int... bounds) {
+		assertEquals("gap count", bounds.length / 2, gaps.size());
+		for (int i = 0; i < gaps.size(); i++) {
+			assertEquals("start of gap " + i, bounds[2 * i], gaps.get(i)[0]);
+			assertEquals("end of gap " + i, bounds[2 * i + 1], gaps.get(i)[1]);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsRecordCacheTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: LRU eviction, TTL expiry and invalidation of
+ *              VpsRecordCache
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class VpsRecordCacheTest {
+
+	private static final String OBJECT = "docid_autonumber__c";
+	private static final String FIELD = "name__v";
+
+	private VpsTestServices services;
+
+	@Before
+	public void setUp() {
+		//every query finds the record, named after its id
+		services = new VpsTestServices().setQueryRows(vql -> {
+			String id = vql.substring(vql.indexOf('\'') + 1, vql.lastIndexOf('\''));
+			return Collections.singletonList(VpsTestServices.row("id", id, FIELD, "name-" + id));
+		});
+	}
+
+	@Test
+	public void readsThroughOnAMissOnly() {
+		VpsRecordCache cache = newCache(10, 0);
+		assertEquals("name-1", cache.getValue(OBJECT, "1", FIELD));
+		assertEquals("name-1", cache.getValue(OBJECT, "1", FIELD));
+		assertEquals(1, services.getQueries().size());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void evictsTheLeastRecentlyUsedEntry() {
+		VpsRecordCache cache = newCache(2, 0);
+		cache.put(OBJECT, "1", FIELD, "a");
+		cache.put(OBJECT, "2", FIELD, "b");
+		//reading 1 makes 2 the least recently used
+		assertEquals("a", cache.getValue(OBJECT, "1", FIELD));
+		cache.put(OBJECT, "3", FIELD, "c");
+
+		assertEquals(2, cache.size());
+		assertEquals("a", cache.getValue(OBJECT, "1", FIELD));
+		assertEquals("c", cache.getValue(OBJECT, "3", FIELD));
+		assertEquals(0, services.getQueries().size());
+		assertEquals("name-2", cache.getValue(OBJECT, "2", FIELD));
+		assertEquals(1, services.getQueries().size());
+	}
+
+	@Test
+	public void evictsTheOverflowOfABulkRead() {
+		VpsRecordCache cache = newCache(3, 0);
+		cache.put(OBJECT, "1", FIELD, "a");
+		services.setQueryRows(vql -> Arrays.asList(VpsTestServices.row("id", "2", FIELD, "b"),
+				VpsTestServices.row("id", "3", FIELD, "c"),
+				VpsTestServices.row("id", "4", FIELD, "d")));
+
+		Map<String, String> values = cache.getValues(OBJECT, Arrays.asList("2", "3", "4", "5"), FIELD);
+		assertEquals("b", values.get("2"));
+		assertEquals("", values.get("5"));
+		assertEquals(3, cache.size());
+		assertEquals(1, services.getQueries().size());
+		//the entry read before the bulk read went first
+		cache.getValue(OBJECT, "1", FIELD);
+		assertEquals(2, services.getQueries().size());
+	}
+
+	@Test
+	public void readsExpiredEntriesAgain() throws InterruptedException {
+		VpsRecordCache cache = newCache(10, 1);
+		cache.put(OBJECT, "1", FIELD, "stale");
+		Thread.sleep(20);
+		assertEquals("name-1", cache.getValue(OBJECT, "1", FIELD));
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void invalidatesARecordOrAnObject() {
+		VpsRecordCache cache = newCache(10, 0);
+		cache.put(OBJECT, "1", FIELD, "a");
+		cache.put(OBJECT, "1", "status__v", "active__v");
+		cache.put(OBJECT, "2", FIELD, "b");
+		cache.put("other__c", "1", FIELD, "c");
+
+		cache.invalidate(OBJECT, "1");
+		assertEquals(2, cache.size());
+		cache.invalidate(OBJECT);
+		assertEquals(1, cache.size());
+		assertEquals("c", cache.getValue("other__c", "1", FIELD));
+
+		//index entries of removed records are gone, so invalidating again is a no-op
+		cache.invalidate(OBJECT, "1");
+		cache.invalidate(OBJECT);
+		assertEquals(1, cache.size());
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+	}
+
+	private VpsRecordCache newCache(int maxEntries, long ttlMillis) {
+		VpsRecordCache cache = new VpsRecordCache(maxEntries, ttlMillis);
+		cache.setServiceLocator(services);
+		return cache;
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsSequenceGeneratorTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Base30 encoding, decoding and validation
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VpsSequenceGeneratorTest {
+
+    private static final int[] BOUNDARY_VALUES = new int[]{0, 1, 29, 30, 899, 900, 26999, 27000,
+            809999, 810000, 24299999, 24300000, 728999999, 729000000, Integer.MAX_VALUE};
+
+    @Test
+    public void encodesWithTheLegacyAlphabet() {
+        VpsSequenceGenerator generator = new VpsSequenceGenerator();
+        assertEquals("0", generator.getBase30Number(0, 0, "0"));
+        assertEquals("2", generator.getBase30Number(1, 0, "0"));
+        assertEquals("Z", generator.getBase30Number(29, 0, "0"));
+        assertEquals("20", generator.getBase30Number(30, 0, "0"));
+        assertEquals("00020", generator.getBase30Number(30, 5, "0"));
+        assertEquals("##20", generator.getBase30Number(30, 4, "##"));
+    }
+
+    @Test
+    public void roundTripsEveryDigitBoundary() {
+        char[] buffer = new char[VpsSequenceGenerator.MAX_BASE30_DIGITS];
+        for (int value : BOUNDARY_VALUES) {
+            String base30Id = VpsSequenceGenerator.appendBase30(new StringBuilder(), value, 0, '0').toString();
+            assertEquals("length of " + value, VpsSequenceGenerator.getBase30Length(value), base30Id.length());
+            assertEquals("decode of " + base30Id, value, VpsSequenceGenerator.decodeBase30(base30Id));
+
+            int written = VpsSequenceGenerator.encodeBase30(value, 0, '0', buffer, 0);
+            assertEquals(base30Id, new String(buffer, 0, written));
+        }
+    }
+
+    @Test
+    public void roundTripsPaddedValues() {
+        for (int value = 0; value < 100000; value += 7) {
+            String base30Id = VpsSequenceGenerator.appendBase30(new StringBuilder(), value, 7, '0').toString();
+            assertEquals(7, base30Id.length());
+            assertEquals(value, VpsSequenceGenerator.decodeBase30(base30Id));
+        }
+    }
+
+    @Test
+    public void decodesARangeOfTheValue() {
+        assertEquals(30, VpsSequenceGenerator.decodeBase30("xx20yy", 2, 4));
+    }
+
+    @Test
+    public void getBase30LengthCountsDigits() {
+        assertEquals(1, VpsSequenceGenerator.getBase30Length(29));
+        assertEquals(2, VpsSequenceGenerator.getBase30Length(30));
+        assertEquals(6, VpsSequenceGenerator.getBase30Length(728999999));
+        assertEquals(7, VpsSequenceGenerator.getBase30Length(729000000));
+        assertEquals(VpsSequenceGenerator.MAX_BASE30_DIGITS, VpsSequenceGenerator.getBase30Length(Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeValues() {
+        VpsSequenceGenerator.getBase30Length(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCharactersOutsideTheAlphabet() {
+        VpsSequenceGenerator.decodeBase30("2A");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyValues() {
+        VpsSequenceGenerator.decodeBase30("");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsValuesAboveIntRange() {
+        String maxValue = VpsSequenceGenerator.appendBase30(new StringBuilder(), Integer.MAX_VALUE, 0, '0').toString();
+        VpsSequenceGenerator.decodeBase30(maxValue + "0");
+    }
+
+    @Test
+    public void validatesAlphabetWidthAndMaximum() {
+        assertTrue(VpsSequenceGenerator.isValidBase30("20"));
+        assertFalse(VpsSequenceGenerator.isValidBase30(""));
+        assertFalse(VpsSequenceGenerator.isValidBase30(null));
+        assertFalse(VpsSequenceGenerator.isValidBase30("1"));
+        assertFalse(VpsSequenceGenerator.isValidBase30("A"));
+        assertFalse(VpsSequenceGenerator.isValidBase30("ZZZZZZZZ"));
+
+        assertTrue(VpsSequenceGenerator.isValidBase30("00020", 5, 30));
+        assertFalse(VpsSequenceGenerator.isValidBase30("0020", 5, 30));
+        assertFalse(VpsSequenceGenerator.isValidBase30("00022", 5, 30));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsStripedSequenceTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Value arithmetic, stripe naming and stripe selection
+ *              of VpsStripedSequence
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.RollbackException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VpsStripedSequenceTest {
+
+	@Test
+	public void aSingleStripeIssuesThePlainAutonumberValues() {
+		for (int leasedValue = 1; leasedValue < 100; leasedValue++) {
+			assertEquals(leasedValue, VpsStripedSequence.getSequenceValue(0, leasedValue, 1, 0));
+		}
+	}
+
+	@Test
+	public void interleavesTheStripes() {
+		//4 stripes above 1000: stripe s issues 1000 + 4n + s
+		assertEquals(1004, VpsStripedSequence.getSequenceValue(1000, 1, 4, 0));
+		assertEquals(1005, VpsStripedSequence.getSequenceValue(1000, 1, 4, 1));
+		assertEquals(1011, VpsStripedSequence.getSequenceValue(1000, 2, 4, 3));
+	}
+
+	@Test
+	public void stripesNeverIssueTheSameValue() {
+		int stripeCount = 5;
+		Set<Long> values = new HashSet<>();
+		for (int stripe = 0; stripe < stripeCount; stripe++) {
+			for (int leasedValue = 1; leasedValue <= 1000; leasedValue++) {
+				long value = VpsStripedSequence.getSequenceValue(500, leasedValue, stripeCount, stripe);
+				assertTrue("value " + value + " issued twice", values.add(value));
+				assertEquals(stripe, (value - 500) % stripeCount);
+			}
+		}
+	}
+
+	@Test
+	public void doesNotOverflowLargeLeasedValues() {
+		assertEquals(2L * Integer.MAX_VALUE + 1,
+				VpsStripedSequence.getSequenceValue(0, Integer.MAX_VALUE, 2, 1));
+	}
+
+	@Test
+	public void namesTheStripeObjects() {
+		assertEquals(Arrays.asList("docid_autonumber__c", "docid_autonumber_1__c", "docid_autonumber_2__c"),
+				VpsStripedSequence.getStripeObjectNames("docid_autonumber__c", 3));
+		assertEquals(Arrays.asList("docid_autonumber__c"),
+				VpsStripedSequence.getStripeObjectNames("docid_autonumber__c", 1));
+	}
+
+	@Test
+	public void picksAStripeInRangeForEveryKey() {
+		VpsStripedSequence sequence = new VpsStripedSequence(
+				VpsStripedSequence.getStripeObjectNames("docid_autonumber__c", 3), 0, Integer.MAX_VALUE, 10);
+		Set<Integer> stripes = new HashSet<>();
+		for (int docId = -50; docId < 1000; docId++) {
+			int stripe = sequence.getStripe(Integer.toString(docId));
+			assertTrue(stripe >= 0 && stripe < 3);
+			assertEquals(stripe, sequence.getStripe(Integer.toString(docId)));
+			stripes.add(stripe);
+		}
+		assertEquals(3, stripes.size());
+	}
+
+	@Test(expected = RollbackException.class)
+	public void needsAtLeastOneStripe() {
+		new VpsStripedSequence(new ArrayList<>(), 0, Integer.MAX_VALUE, 10);
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsTestServices
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Locator of fake SDK services for unit tests
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.LogService;
+import com.veeva.vault.sdk.api.core.Service;
+import com.veeva.vault.sdk.api.query.QueryResponse;
+import com.veeva.vault.sdk.api.query.QueryResult;
+import com.veeva.vault.sdk.api.query.QueryService;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The fakes are dynamic proxies, so they only implement the methods the code under test
+ * calls: LogService discards everything, QueryService answers each query with the rows
+ * of the given function and records the query text.
+ */
+public class VpsTestServices implements VpsServiceLocator {
+
+	private final Map<Class<?>, Service> services = new HashMap<>();
+	private final List<String> queries = new ArrayList<>();
+
+	public VpsTestServices() {
+		register(LogService.class, newService(LogService.class, (method, args) -> defaultValue(method.getReturnType())));
+	}
+
+	public <T extends Service> VpsTestServices register(Class<T> serviceClass, T service) {
+		services.put(serviceClass, service);
+		return this;
+	}
+
+	/**
+	 * Registers a QueryService answering each VQL query with rows of field values
+	 */
+	public VpsTestServices setQueryRows(Function<String, List<Map<String, Object>>> rowsByQuery) {
+		return register(QueryService.class, newService(QueryService.class, (method, args) -> {
+			String vql = (String) args[0];
+			queries.add(vql);
+			List<Map<String, Object>> rows = rowsByQuery.apply(vql);
+			return newService(QueryResponse.class, (responseMethod, responseArgs) -> {
+				if (responseMethod.getName().equals("streamResults")) {
+					return rows.stream().map(VpsTestServices::newQueryResult);
+				}
+				if (responseMethod.getName().equals("getResultCount")) {
+					return (long) rows.size();
+				}
+				throw new UnsupportedOperationException(responseMethod.getName());
+			});
+		}));
+	}
+
+	/**
+	 * @return VQL of every query run so far, in order
+	 */
+	public List<String> getQueries() {
+		return queries;
+	}
+
+	@Override
+	public <T extends Service> T locate(Class<T> serviceClass) {
+		Service service = services.get(serviceClass);
+		if (service == null) {
+			throw new IllegalStateException("No test service for " + serviceClass.getName());
+		}
+		return serviceClass.cast(service);
+	}
+
+	/**
+	 * @return a row with one value per field
+	 */
+	public static Map<String, Object> row(Object... fieldsAndValues) {
+		Map<String, Object> row = new HashMap<>();
+		for (int i = 0; i < fieldsAndValues.length; i += 2) {
+			row.put((String) fieldsAndValues[i], fieldsAndValues[i + 1]);
+		}
+		return row;
+	}
+
+	private static QueryResult newQueryResult(Map<String, Object> row) {
+		return newService(QueryResult.class, (method, args) -> {
+			if (method.getName().equals("getValue")) {
+				return row.get((String) args[0]);
+			}
+			throw new UnsupportedOperationException(method.getName());
+		});
+	}
+
+	private interface Handler {
+		Object invoke(java.lang.reflect.Method method, Object[] args);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T newService(Class<T> serviceClass, Handler handler) {
+		return (T) Proxy.newProxyInstance(serviceClass.getClassLoader(), new Class<?>[]{serviceClass},
+				(proxy, method, args) -> {
+					if (method.getName().equals("equals")) {
+						return proxy == args[0];
+					}
+					if (method.getName().equals("hashCode")) {
+						return System.identityHashCode(proxy);
+					}
+					if (method.getName().equals("toString")) {
+						return serviceClass.getSimpleName();
+					}
+					return handler.invoke(method, args);
+				});
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		return type == boolean.class ? Boolean.FALSE : null;
+	}
+}
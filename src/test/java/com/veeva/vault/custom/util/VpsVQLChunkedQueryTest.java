@@ -0,0 +1,109 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsVQLChunkedQueryTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Chunk splitting and lazy streaming of
+ *              VpsVQLChunkedQuery
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.query.QueryResult;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class VpsVQLChunkedQueryTest {
+
+	private static final String SKELETON = "SELECT id FROM allversions documents WHERE id CONTAINS (:ids)";
+
+	@Test
+	public void splitsByValueCount() {
+		VpsVQLChunkedQuery query = newQuery(false).setChunkLimits(2, 1000);
+		assertEquals(Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("3", "4"), Arrays.asList("5")),
+				query.getChunks(Arrays.asList("1", "2", "3", "4", "5")));
+	}
+
+	@Test
+	public void splitsByRenderedLength() {
+		//each value renders as 4 characters: 3 digits and a comma
+		VpsVQLChunkedQuery query = newQuery(false).setChunkLimits(100, 9);
+		assertEquals(Arrays.asList(Arrays.asList("101", "102"), Arrays.asList("103")),
+				query.getChunks(Arrays.asList("101", "102", "103")));
+	}
+
+	@Test
+	public void countsQuotesAndEscapesOfTextValues() {
+		//'ab', is 5 characters, 'a\'b', 7
+		VpsVQLChunkedQuery query = newQuery(true).setChunkLimits(100, 12);
+		assertEquals(Arrays.asList(Arrays.asList("ab", "ab2"), Arrays.asList("a'b")),
+				query.getChunks(Arrays.asList("ab", "ab2", "a'b")));
+	}
+
+	@Test
+	public void givesAnOversizedValueAChunkOfItsOwn() {
+		VpsVQLChunkedQuery query = newQuery(false).setChunkLimits(100, 4);
+		assertEquals(Arrays.asList(Arrays.asList("1"), Arrays.asList("123456789"), Arrays.asList("2")),
+				query.getChunks(Arrays.asList("1", "123456789", "2")));
+	}
+
+	@Test
+	public void dropsDuplicatesAndNulls() {
+		VpsVQLChunkedQuery query = newQuery(false).setChunkLimits(2, 1000);
+		assertEquals(Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("3")),
+				query.getChunks(Arrays.asList("1", null, "1", "2", "2", "3")));
+		assertEquals(0, query.getChunks(new ArrayList<>()).size());
+	}
+
+	@Test
+	public void streamsTheRowsOfEveryChunkLazily() {
+		VpsTestServices services = new VpsTestServices().setQueryRows(vql -> {
+			List<Map<String, Object>> rows = new ArrayList<>();
+			for (String id : vql.substring(vql.indexOf('(') + 1, vql.indexOf(')')).split(",")) {
+				rows.add(VpsTestServices.row("id", new BigDecimal(id)));
+			}
+			return rows;
+		});
+		VpsVQLTemplate template = new VpsVQLTemplate(SKELETON);
+		template.setServiceLocator(services);
+		VpsVQLChunkedQuery query = new VpsVQLChunkedQuery(template, "ids", false).setChunkLimits(2, 1000);
+		query.setServiceLocator(services);
+
+		Iterator<QueryResult> results = query.streamResults(Arrays.asList("1", "2", "3", "4", "5"));
+		assertEquals(0, services.getQueries().size());
+
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			ids.add(results.next().getValue("id", null).toString());
+		}
+		assertEquals(1, services.getQueries().size());
+		results.forEachRemaining(result -> ids.add(result.getValue("id", null).toString()));
+
+		assertEquals(Arrays.asList("1", "2", "3", "4", "5"), ids);
+		assertEquals(Arrays.asList(
+				"SELECT id FROM allversions documents WHERE id CONTAINS (1,2)",
+				"SELECT id FROM allversions documents WHERE id CONTAINS (3,4)",
+				"SELECT id FROM allversions documents WHERE id CONTAINS (5)"), services.getQueries());
+		assertEquals(3, query.getChunkCount());
+		assertFalse(results.hasNext());
+	}
+
+	private static VpsVQLChunkedQuery newQuery(boolean quoted) {
+		return new VpsVQLChunkedQuery(new VpsVQLTemplate(SKELETON), "ids", quoted);
+	}
+}
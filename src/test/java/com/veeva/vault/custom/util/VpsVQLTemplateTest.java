@@ -0,0 +1,120 @@
+/*
+ * --------------------------------------------------------------------
+ * Test:        VpsVQLTemplateTest
+ * Author:      achinchalkar @ Veeva
+ * Date:        2026-10-18
+ *---------------------------------------------------------------------
+ * Description: Parameter parsing, binding and escaping of
+ *              VpsVQLTemplate
+ *---------------------------------------------------------------------
+ * Copyright (c) 2026 Veeva Systems Inc.  All Rights Reserved.
+ *      This code is based on pre-existing content developed and
+ *      owned by Veeva Systems Inc. and may only be used in connection
+ *      with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.custom.util;
+
+import com.veeva.vault.sdk.api.core.RollbackException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class VpsVQLTemplateTest {
+
+	@Test
+	public void bindsEveryKindOfValue() {
+		VpsVQLTemplate template = new VpsVQLTemplate("SELECT :field FROM :object"
+				+ " WHERE name__v = :name AND id > :afterId AND size__c = :size AND id CONTAINS (:ids)");
+		template.setIdentifier("field", "name__v")
+				.setIdentifier("object", "docid_autonumber__c")
+				.setString("name", "DOC-1")
+				.setNumber("afterId", 100)
+				.setNumber("size", new BigDecimal("1.50"))
+				.setNumbers("ids", Arrays.asList("1", "2", "3"));
+		assertEquals("SELECT name__v FROM docid_autonumber__c"
+				+ " WHERE name__v = 'DOC-1' AND id > 100 AND size__c = 1.50 AND id CONTAINS (1,2,3)", template.render());
+	}
+
+	@Test
+	public void escapesQuotesAndBackslashesInStrings() {
+		VpsVQLTemplate template = new VpsVQLTemplate("SELECT id FROM documents WHERE name__v = :name");
+		template.setString("name", "O'Brien \\ 'x' OR '1'='1");
+		assertEquals("SELECT id FROM documents WHERE name__v = 'O\\'Brien \\\\ \\'x\\' OR \\'1\\'=\\'1'", template.render());
+	}
+
+	@Test
+	public void escapesEveryValueOfAStringList() {
+		VpsVQLTemplate template = new VpsVQLTemplate("SELECT id FROM product__v WHERE id CONTAINS (:ids)");
+		template.setStrings("ids", Arrays.asList("V0A", "it's"));
+		assertEquals("SELECT id FROM product__v WHERE id CONTAINS ('V0A','it\\'s')", template.render());
+	}
+
+	@Test
+	public void ignoresColonsInsideQuotedLiterals() {
+		VpsVQLTemplate template = new VpsVQLTemplate("SELECT id FROM documents"
+				+ " WHERE title__v = 'a:b \\' :notParam' AND id = :id");
+		assertEquals(Arrays.asList("id"), template.getParameterNames());
+		template.setNumber("id", 7);
+		assertEquals("SELECT id FROM documents WHERE title__v = 'a:b \\' :notParam' AND id = 7", template.render());
+	}
+
+	@Test
+	public void rendersARepeatedParameterEverywhere() {
+		VpsVQLTemplate template = new VpsVQLTemplate("SELECT id FROM documents WHERE id = :id OR parent__c = :id");
+		template.setNumber("id", "42");
+		assertEquals("SELECT id FROM documents WHERE id = 42 OR parent__c = 42", template.render());
+	}
+
+	@Test
+	public void rebindsAfterRender() {
+		VpsVQLTemplate template = new VpsVQLTemplate("SELECT id FROM documents WHERE id = :id");
+		template.setNumber("id", 1);
+		assertEquals("SELECT id FROM documents WHERE id = 1", template.render());
+		template.setNumber("id", 2);
+		assertEquals("SELECT id FROM documents WHERE id = 2", template.render());
+	}
+
+	@Test(expected = RollbackException.class)
+	public void rejectsIdentifiersThatCouldInjectVQL() {
+		new VpsVQLTemplate("SELECT :field FROM documents").setIdentifier("field", "id FROM users WHERE 1=1 --");
+	}
+
+	@Test(expected = RollbackException.class)
+	public void rejectsNumbersThatAreNotNumbers() {
+		new VpsVQLTemplate("SELECT id FROM documents WHERE id = :id").setNumber("id", "1 OR 1=1");
+	}
+
+	@Test(expected = RollbackException.class)
+	public void rejectsNumberListsWithAnInvalidValue() {
+		new VpsVQLTemplate("SELECT id FROM documents WHERE id CONTAINS (:ids)").setNumbers("ids", Arrays.asList("1", "2)"));
+	}
+
+	@Test(expected = RollbackException.class)
+	public void rejectsUnknownParameters() {
+		new VpsVQLTemplate("SELECT id FROM documents WHERE id = :id").setNumber("docId", 1);
+	}
+
+	@Test(expected = RollbackException.class)
+	public void rejectsRenderingWithUnboundParameters() {
+		new VpsVQLTemplate("SELECT id FROM documents WHERE id = :id").render();
+	}
+
+	@Test
+	public void clearBindingsKeepsTheSkeleton() {
+		VpsVQLTemplate template = new VpsVQLTemplate("SELECT id FROM documents WHERE id = :id");
+		template.setNumber("id", 1);
+		template.clearBindings();
+		try {
+			template.render();
+		} catch (RollbackException expected) {
+			template.setNumber("id", 3);
+			assertEquals("SELECT id FROM documents WHERE id = 3", template.render());
+			return;
+		}
+		throw new AssertionError("cleared parameter was still bound");
+	}
+}